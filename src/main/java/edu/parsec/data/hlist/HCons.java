@@ -1,5 +1,7 @@
 package edu.parsec.data.hlist;
 
+import java.util.Objects;
+
 public class HCons<E, L extends HList<L>> implements HList<HCons<E,L>> {
 
     public final E head;
@@ -10,6 +12,19 @@ public class HCons<E, L extends HList<L>> implements HList<HCons<E,L>> {
         this.tail = tail;
     }
 
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        final HCons<?, ?> cons = (HCons<?, ?>) o;
+        return Objects.equals(head, cons.head) && Objects.equals(tail, cons.tail);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(head, tail);
+    }
+
     public String toString() {
         return head.toString() + tail.toString();
     }
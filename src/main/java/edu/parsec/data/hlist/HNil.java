@@ -2,10 +2,12 @@ package edu.parsec.data.hlist;
 
 public final class HNil implements HList<HNil> {
 
+    private static final HNil NIL = new HNil();
+
     private HNil() {}
 
     public static HNil nil() {
-        return new HNil();
+        return NIL;
     }
 
     public String toString() {
@@ -0,0 +1,233 @@
+package edu.parsec.data.input;
+
+import edu.parsec.data.result.ErrorAccumulator;
+import edu.parsec.data.result.ParseError;
+
+import java.nio.CharBuffer;
+import java.util.Collection;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * Immutable cursor over the characters being parsed.
+ * <p>
+ * The cursor is only an offset into the original {@code CharSequence}, so
+ * moving forward costs a single small object and backtracking is just reusing
+ * an older cursor. the input itself is never copied.
+ * </p>
+ * <p>
+ * All the cursors created from the same call to {@code of} share one
+ * {@link ErrorAccumulator}, which is where the parsers of that run report
+ * their failures, and one {@link MemoTable} for the memoized parsers.
+ * </p>
+ *
+ * @author Tarek Nawara
+ */
+public final class Input {
+
+    private final CharSequence source;
+    private final int offset;
+    private final ErrorAccumulator errors;
+    private final MemoTable memo;
+
+    private Input(final CharSequence source, final int offset, final ErrorAccumulator errors,
+                  final MemoTable memo) {
+        this.source = source;
+        this.offset = offset;
+        this.errors = errors;
+        this.memo = memo;
+    }
+
+    /**
+     * Build a cursor pointing at the beginning of the given characters.
+     *
+     * @param source characters to parse
+     * @return cursor at offset zero
+     */
+    public static Input of(final CharSequence source) {
+        return new Input(Objects.requireNonNull(source), 0, new ErrorAccumulator(), new MemoTable());
+    }
+
+    /**
+     * Same as {@code of(CharSequence)} but wraps the array without copying it.
+     *
+     * @param source characters to parse
+     * @return cursor at offset zero
+     */
+    public static Input of(final char[] source) {
+        return of(CharBuffer.wrap(source));
+    }
+
+    /**
+     * The characters this cursor walks over.
+     *
+     * @return the whole underlying input, regardless of the current offset
+     */
+    public CharSequence source() {
+        return source;
+    }
+
+    /**
+     * Position of the cursor inside the source.
+     *
+     * @return number of characters consumed so far
+     */
+    public int offset() {
+        return offset;
+    }
+
+    /**
+     * Failures reported while parsing this input.
+     *
+     * @return the accumulator shared by all the cursors of this run
+     */
+    public ErrorAccumulator errors() {
+        return errors;
+    }
+
+    /**
+     * Results of the memoized parsers of this run.
+     *
+     * @return the memo table shared by all the cursors of this run
+     */
+    public MemoTable memo() {
+        return memo;
+    }
+
+    /**
+     * Report a failure at the current offset to the errors of this run.
+     *
+     * @param expected items that would have been accepted here
+     * @return the error describing this failure
+     */
+    public ParseError fail(final Collection<String> expected) {
+        final int found = found();
+        errors.record(offset, expected, found);
+        return new ParseError(offset, expected, found);
+    }
+
+    /**
+     * Same as {@code fail} but only records the failure, for parsers that
+     * stop here and still succeed.
+     *
+     * @param expected items that would have been accepted here
+     */
+    public void report(final Collection<String> expected) {
+        errors.record(offset, expected, found());
+    }
+
+    /**
+     * Tests whether all the input has been consumed.
+     *
+     * @return true if no characters remain, false otherwise
+     */
+    public boolean isEmpty() {
+        return offset >= source.length();
+    }
+
+    /**
+     * Tests whether there are still characters to consume.
+     *
+     * @return true if characters remain, false otherwise
+     */
+    public boolean nonEmpty() {
+        return !isEmpty();
+    }
+
+    /**
+     * Get the character under the cursor. if the input is consumed a
+     * {@code NoSuchElementException} is thrown
+     *
+     * @return the current character
+     */
+    public char head() {
+        if (isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        return source.charAt(offset);
+    }
+
+    /**
+     * Tests whether the remaining input starts with the given string. the
+     * characters are compared in place without copying the input
+     *
+     * @param prefix the string to look for
+     * @return true if the characters under the cursor match the prefix
+     */
+    public boolean startsWith(final String prefix) {
+        if (remaining() < prefix.length()) {
+            return false;
+        }
+        if (source instanceof String) {
+            return ((String) source).startsWith(prefix, offset);
+        }
+        for (int i = 0; i < prefix.length(); ++i) {
+            if (source.charAt(offset + i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Move the cursor one character forward.
+     *
+     * @return a new cursor after the current character
+     */
+    public Input tail() {
+        return advance(1);
+    }
+
+    /**
+     * Move the cursor {@code n} characters forward.
+     *
+     * @param n number of characters to skip
+     * @return a new cursor {@code n} characters after the current one
+     */
+    public Input advance(final int n) {
+        if (n < 0 || n > remaining()) {
+            throw new IndexOutOfBoundsException("Cannot advance " + n + " characters from offset " + offset);
+        }
+        return n == 0 ? this : new Input(source, offset + n, errors, memo);
+    }
+
+    /**
+     * Number of characters left to consume.
+     *
+     * @return characters between the cursor and the end of the input
+     */
+    public int remaining() {
+        return Math.max(0, source.length() - offset);
+    }
+
+    /**
+     * View of the characters that are not consumed yet.
+     *
+     * @return the remaining characters
+     */
+    public CharSequence rest() {
+        return source.subSequence(offset, offset + remaining());
+    }
+
+    private int found() {
+        return isEmpty() ? ParseError.END_OF_INPUT : source.charAt(offset);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        final Input input = (Input) o;
+        return offset == input.offset && source == input.source;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * System.identityHashCode(source) + offset;
+    }
+
+    @Override
+    public String toString() {
+        return rest().toString();
+    }
+}
@@ -0,0 +1,41 @@
+package edu.parsec.data.input;
+
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Results of the memoized parsers of a single run, keyed by offset.
+ * <p>
+ * Each memoized parser gets its own table the first time it runs. the tables
+ * evict their least recently used offsets once they hold more than the
+ * configured number of entries, which keeps the memory bounded on large
+ * inputs while the offsets around the cursor stay cached.
+ * </p>
+ *
+ * @author Tarek Nawara
+ */
+public final class MemoTable {
+
+    private Map<Object, Map<Integer, Object>> tables;
+
+    /**
+     * Get the table of a memoized parser, creating it on first use.
+     *
+     * @param owner      identity of the memoized parser
+     * @param maxEntries maximum number of offsets kept in the table
+     * @return the results of the parser keyed by offset
+     */
+    @SuppressWarnings("unchecked")
+    public <V> Map<Integer, V> tableFor(final Object owner, final int maxEntries) {
+        if (tables == null) {
+            tables = new IdentityHashMap<>();
+        }
+        return (Map<Integer, V>) tables.computeIfAbsent(owner, k -> new LinkedHashMap<Integer, Object>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Integer, Object> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+}
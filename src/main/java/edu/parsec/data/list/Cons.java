@@ -1,5 +1,6 @@
 package edu.parsec.data.list;
 
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.Objects;
 import java.util.function.BiFunction;
@@ -18,6 +19,7 @@ public class Cons<T> implements IList<T> {
 
     private final T head;
     private final IList<T> tail;
+    private int hash;
 
     public Cons(final T head, final IList<T> tail) {
         this.head = head;
@@ -26,31 +28,42 @@ public class Cons<T> implements IList<T> {
 
     @Override
     public IList<T> filter(final Predicate<T> p) {
-        if (p.test(head)) {
-            return new Cons<>(head, tail.filter(p));
+        final Builder<T> result = new Builder<>();
+        for (final T x : this) {
+            if (p.test(x)) {
+                result.add(x);
+            }
         }
-        return tail.filter(p);
+        return result.build();
     }
 
     @Override
     public IList<T> takeWhile(final Predicate<T> p) {
-        if (p.test(head)) {
-            return new Cons<>(head, tail.takeWhile(p));
+        final Builder<T> result = new Builder<>();
+        for (final T x : this) {
+            if (!p.test(x)) {
+                break;
+            }
+            result.add(x);
         }
-        return new Empty<>();
+        return result.build();
     }
 
     @Override
     public IList<T> dropWhile(final Predicate<T> p) {
-        if (p.test(head)) {
-            return tail.dropWhile(p);
+        IList<T> remaining = this;
+        while (remaining.nonEmpty() && p.test(remaining.head())) {
+            remaining = remaining.tail();
         }
-        return this;
+        return remaining;
     }
 
     @Override
     public IList<T> append(final IList<T> other) {
-        return new Cons<>(head, tail.append(other));
+        if (other.isEmpty()) {
+            return this;
+        }
+        return new Builder<T>().addAll(this).build(other);
     }
 
     @Override
@@ -108,13 +121,20 @@ public class Cons<T> implements IList<T> {
 
     @Override
     public <B> IList<B> map(final Function<T, B> f) {
-        return new Cons<>(f.apply(head), tail.map(f));
+        final Builder<B> result = new Builder<>();
+        for (final T x : this) {
+            result.add(f.apply(x));
+        }
+        return result.build();
     }
 
     @Override
     public <B> IList<B> flatMap(final Function<T, Monad<B, IList<?>>> f) {
-        IList<B> rest = tail.flatMap(f);
-        return ((IList<B>) f.apply(head)).append(rest);
+        final Builder<B> result = new Builder<>();
+        for (final T x : this) {
+            result.addAll((IList<B>) f.apply(x));
+        }
+        return result.build();
     }
 
     @Override
@@ -141,19 +161,55 @@ public class Cons<T> implements IList<T> {
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
-        Cons<?> cons = (Cons<?>) o;
-        return equalLists(this, cons);
+        if (!(o instanceof IList)) return false;
+        IList<?> first = this;
+        IList<?> second = (IList<?>) o;
+        while (first instanceof Cons && second instanceof Cons) {
+            final Cons<?> x = (Cons<?>) first;
+            final Cons<?> y = (Cons<?>) second;
+            if (x == y) return true;
+            if (x.hash != 0 && y.hash != 0 && x.hash != y.hash) return false;
+            if (!Objects.equals(x.head, y.head)) return false;
+            first = x.tail;
+            second = y.tail;
+        }
+        return sameElements(first, second);
     }
 
-    @Override
-    public int hashCode() {
-        return Objects.hash(head, tail);
+    /*
+     * element by element comparison of any two lists
+     */
+    static boolean sameElements(final IList<?> first, final IList<?> second) {
+        final Iterator<?> x = first.iterator();
+        final Iterator<?> y = second.iterator();
+        while (x.hasNext() && y.hasNext()) {
+            if (!Objects.equals(x.next(), y.next())) return false;
+        }
+        return !x.hasNext() && !y.hasNext();
     }
 
-    private static boolean equalLists(final IList first, final IList second) {
-        if (first.isEmpty() && second.isEmpty()) return true;
-        if (first.isEmpty() || second.isEmpty()) return false;
-        return first.head().equals(second.head()) && equalLists(first.tail(), second.tail());
+    /*
+     * the hash of a list is 31 times the hash of its tail plus the hash of
+     * its head. the tails are hashed first, from the end, and every list on
+     * the way keeps its hash
+     */
+    @Override
+    public int hashCode() {
+        if (hash != 0) {
+            return hash;
+        }
+        final ArrayList<Cons<?>> pending = new ArrayList<>();
+        IList<?> current = this;
+        while (current instanceof Cons && ((Cons<?>) current).hash == 0) {
+            pending.add((Cons<?>) current);
+            current = ((Cons<?>) current).tail;
+        }
+        int result = current.hashCode();
+        for (int i = pending.size() - 1; i >= 0; --i) {
+            final Cons<?> cons = pending.get(i);
+            result = 31 * result + Objects.hashCode(cons.head);
+            cons.hash = result;
+        }
+        return result;
     }
 }
@@ -2,6 +2,8 @@ package edu.parsec.data.list;
 
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.function.Predicate;
@@ -60,6 +62,26 @@ public class Empty<T> implements IList<T> {
 		return "[]";
 	}
 
+	@Override
+	public boolean equals(final Object o) {
+		return o instanceof IList && ((IList<?>) o).isEmpty();
+	}
+
+	@Override
+	public int hashCode() {
+		return 1;
+	}
+
+	@Override
+	public int size() {
+		return 0;
+	}
+
+	@Override
+	public Spliterator<T> spliterator() {
+		return Spliterators.emptySpliterator();
+	}
+
 	@Override
 	public Iterator<T> iterator() {
 		return new Iterator<T>() {
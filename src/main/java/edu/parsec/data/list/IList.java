@@ -1,14 +1,25 @@
 package edu.parsec.data.list;
 
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
 import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import edu.parsec.typeclass.Monad;
 
 /**
  * List implementation based on Lisp lists
+ * <p>
+ * The lists built with {@link Cons} are linked cells, {@link VectorList} is
+ * the array backed implementation for large lists. both are equal when
+ * they hold the same elements
+ * </p>
  *
  * @param <T> type of elements inside the list
  * @author Tarek
@@ -82,6 +93,15 @@ public interface IList<T> extends Iterable<T>, Monad<T, IList<?>> {
      */
     String mkString(final String delimiter);
 
+    /**
+     * A builder filling a list from the front.
+     *
+     * @return an empty builder
+     */
+    static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
     /**
      * Builds a list from any traversable sequence
      *
@@ -99,10 +119,11 @@ public interface IList<T> extends Iterable<T>, Monad<T, IList<?>> {
      * @return a list of elements of the iterator
      */
     static <T> IList<T> of(final Iterator<T> traversable) {
-        if (traversable.hasNext()) {
-            return new Cons<>(traversable.next(), of(traversable));
+        final Builder<T> result = new Builder<>();
+        while (traversable.hasNext()) {
+            result.add(traversable.next());
         }
-        return new Empty<>();
+        return result.build();
     }
 
     /**
@@ -162,6 +183,97 @@ public interface IList<T> extends Iterable<T>, Monad<T, IList<?>> {
         return reverse.foldLeft(zerElement, (x, y) -> f.apply(y, x));
     }
 
+    /**
+     * Number of elements of the list, O(n) unless the implementation keeps
+     * it like {@link VectorList}
+     *
+     * @return the size of the list
+     */
+    default int size() {
+        return foldLeft(0, (n, x) -> n + 1);
+    }
+
+    /**
+     * Get the element at an index, O(index) unless the implementation is
+     * indexed like {@link VectorList}
+     *
+     * @param index position of the element, the head is at 0
+     * @return the element at {@code index}
+     * @throws IndexOutOfBoundsException if the list is too short
+     */
+    default T get(final int index) {
+        IList<T> rest = this;
+        for (int i = 0; i < index && rest.nonEmpty(); ++i) {
+            rest = rest.tail();
+        }
+        if (index < 0 || rest.isEmpty()) {
+            throw new IndexOutOfBoundsException("Index " + index + " in a list of " + size());
+        }
+        return rest.head();
+    }
+
+    /**
+     * Splits the list for the streams. the elements are walked in batches
+     * copied to arrays, so a linked list still splits across threads;
+     * {@link VectorList} splits its array in halves instead
+     *
+     * @return an ordered spliterator over the immutable elements
+     */
+    @Override
+    default Spliterator<T> spliterator() {
+        return Spliterators.spliteratorUnknownSize(iterator(), Spliterator.ORDERED | Spliterator.IMMUTABLE);
+    }
+
+    /**
+     * The elements of the list as a sequential stream.
+     *
+     * @return a stream of the elements in order
+     */
+    default Stream<T> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * The elements of the list as a parallel stream, which runs in the
+     * common fork/join pool.
+     *
+     * @return a possibly parallel stream of the elements
+     */
+    default Stream<T> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    /**
+     * Reduce the list with an associative operation, in parallel.
+     * <p>
+     * Unlike {@code foldLeft} the operation may be applied to any grouping of
+     * the elements, so it must be associative and {@code zeroElement} must be
+     * its identity. the order of the elements is kept
+     * </p>
+     *
+     * @param zeroElement identity of the operation
+     * @param op          associative operation
+     * @return the reduction of the elements, {@code zeroElement} if there is
+     * none
+     */
+    default T fold(final T zeroElement, final BinaryOperator<T> op) {
+        return parallelStream().reduce(zeroElement, op);
+    }
+
+    /**
+     * Same as {@code foldLeft} but in parallel: each part of the list is
+     * folded with {@code f} from {@code zeroElement}, then the results of the
+     * parts are merged with {@code combiner}.
+     *
+     * @param zeroElement identity of the combiner
+     * @param f           folds an element into a partial result
+     * @param combiner    associative merge of two partial results
+     * @return single value after folding all the parts
+     */
+    default <U> U fold(final U zeroElement, final BiFunction<U, ? super T, U> f, final BinaryOperator<U> combiner) {
+        return parallelStream().reduce(zeroElement, f, combiner);
+    }
+
     /**
      * Tests wither the list is empty or not
      *
@@ -286,4 +398,84 @@ public interface IList<T> extends Iterable<T>, Monad<T, IList<?>> {
     default <A, B> IList<IList<B>> forM(final IList<A> list, final Function<A, Monad<B, IList<?>>> f) {
         return (IList<IList<B>>) Monad.super.forM(list, f);
     }
-}
\ No newline at end of file
+
+    /**
+     * Builds a list from the front, without reversing it at the end.
+     * <p>
+     * The elements are kept in an array, and {@code build} links the cells
+     * once from the last element to the first, so building a list of n
+     * elements allocates n cells plus the array. the cells are immutable and
+     * can be handed to other threads like any other list. once {@code build}
+     * returns the builder starts a new list. a builder is not thread safe
+     * </p>
+     *
+     * @param <T> type of the elements
+     */
+    final class Builder<T> {
+        private Object[] elems = new Object[8];
+        private int size;
+
+        /**
+         * Add an element at the end of the list.
+         *
+         * @param elem element to add
+         * @return this builder
+         */
+        public Builder<T> add(final T elem) {
+            if (size == elems.length) {
+                elems = Arrays.copyOf(elems, size * 2);
+            }
+            elems[size++] = elem;
+            return this;
+        }
+
+        /**
+         * Add all the elements of a sequence at the end of the list.
+         *
+         * @param elems elements to add, in order
+         * @return this builder
+         */
+        public Builder<T> addAll(final Iterable<? extends T> elems) {
+            for (final T elem : elems) {
+                add(elem);
+            }
+            return this;
+        }
+
+        /**
+         * Number of elements added so far.
+         *
+         * @return the size of the list being built
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * The list of the added elements.
+         *
+         * @return the elements in the order they were added
+         */
+        public IList<T> build() {
+            return build(new Empty<>());
+        }
+
+        /**
+         * The list of the added elements followed by another list, which is
+         * shared and not copied.
+         *
+         * @param rest list to put after the added elements
+         * @return the added elements then {@code rest}
+         */
+        @SuppressWarnings("unchecked")
+        public IList<T> build(final IList<T> rest) {
+            IList<T> result = rest;
+            for (int i = size - 1; i >= 0; --i) {
+                result = new Cons<>((T) elems[i], result);
+                elems[i] = null;
+            }
+            size = 0;
+            return result;
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package edu.parsec.data.list;
+
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Collector;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Immutable list of {@code int} values backed by a {@code int[]}.
+ * <p>
+ * The values are stored unboxed, so a list costs a slot of the array per
+ * element instead of a cell and a boxed value like an {@link IList}. it is
+ * filled with a {@link Builder} or by {@code Combinator.manyInt}.
+ * </p>
+ *
+ * @author Tarek Nawara
+ */
+public final class IntList {
+
+    private static final int[] NONE = new int[0];
+    private static final Collector<Integer, Builder, IntList> COLLECTOR = Collector.of(Builder::new, Builder::add,
+            Builder::addAll, Builder::build);
+
+    private final int[] values;
+    private final int size;
+
+    private IntList(final int[] values, final int size) {
+        this.values = values;
+        this.size = size;
+    }
+
+    /**
+     * Builds a list of the given values.
+     *
+     * @param values the values, copied
+     * @return a list of the values in order
+     */
+    public static IntList of(final int... values) {
+        return new IntList(values.clone(), values.length);
+    }
+
+    /**
+     * A builder filling a single growing array.
+     *
+     * @return an empty builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Collector of boxed values, used by {@code Combinator.manyInt}. the
+     * same instance is always returned so the optimizer can recognize it
+     *
+     * @return a collector unboxing the values into a growing array
+     */
+    public static Collector<Integer, ?, IntList> collector() {
+        return COLLECTOR;
+    }
+
+    /**
+     * Number of values of the list.
+     *
+     * @return the size of the list
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Tests whether the list is empty or not
+     *
+     * @return true if empty, false otherwise
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Get the value at an index.
+     *
+     * @param index position of the value
+     * @return the value at {@code index}
+     * @throws IndexOutOfBoundsException if the list is too short
+     */
+    public int get(final int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " in a list of " + size);
+        }
+        return values[index];
+    }
+
+    /**
+     * Copy of the values.
+     *
+     * @return a new array of exactly the values of the list
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+
+    /**
+     * Splits the values in halves of the array, for the streams.
+     *
+     * @return a sized spliterator over the immutable values
+     */
+    public Spliterator.OfInt spliterator() {
+        return Spliterators.spliterator(values, 0, size, Spliterator.ORDERED | Spliterator.IMMUTABLE);
+    }
+
+    /**
+     * The values as a stream, without boxing them.
+     *
+     * @return a sequential stream of the values
+     */
+    public IntStream stream() {
+        return StreamSupport.intStream(spliterator(), false);
+    }
+
+    /**
+     * The values as a parallel stream, without boxing them.
+     *
+     * @return a possibly parallel stream of the values
+     */
+    public IntStream parallelStream() {
+        return StreamSupport.intStream(spliterator(), true);
+    }
+
+    /**
+     * The values boxed in a list, for the code working on {@code IList}.
+     *
+     * @return an array backed list of the same values
+     */
+    public VectorList<Integer> boxed() {
+        VectorList<Integer> result = VectorList.empty();
+        for (int i = 0; i < size; ++i) {
+            result = result.appended(values[i]);
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        final IntList other = (IntList) o;
+        if (size != other.size) return false;
+        for (int i = 0; i < size; ++i) {
+            if (values[i] != other.values[i]) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 1;
+        for (int i = 0; i < size; ++i) {
+            result = 31 * result + values[i];
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+
+    /**
+     * Fills a list from the front in a single growing array.
+     * <p>
+     * {@code build} hands the array to the list and the builder starts over
+     * with a new one, so the lists it returns never change. a builder is not
+     * thread safe
+     * </p>
+     */
+    public static final class Builder {
+        private int[] values = NONE;
+        private int size;
+
+        /**
+         * Add a value at the end of the list.
+         *
+         * @param value value to add
+         * @return this builder
+         */
+        public Builder add(final int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, Math.max(16, size * 2));
+            }
+            values[size++] = value;
+            return this;
+        }
+
+        /**
+         * Add the values of another builder at the end of the list.
+         *
+         * @param other builder whose values are added
+         * @return this builder
+         */
+        public Builder addAll(final Builder other) {
+            for (int i = 0; i < other.size; ++i) {
+                add(other.values[i]);
+            }
+            return this;
+        }
+
+        /**
+         * Number of values added so far.
+         *
+         * @return the size of the list being built
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * The values added so far in an array of their size.
+         *
+         * @return a copy of the values
+         */
+        public int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+
+        /**
+         * The list of the added values.
+         *
+         * @return the values in the order they were added
+         */
+        public IntList build() {
+            final IntList result = new IntList(values, size);
+            values = NONE;
+            size = 0;
+            return result;
+        }
+    }
+}
@@ -0,0 +1,349 @@
+package edu.parsec.data.list;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collector;
+
+import edu.parsec.typeclass.Monad;
+
+/**
+ * List backed by an array, an alternative to {@link Cons} for large lists.
+ * <p>
+ * A list is a view over a range of a shared array: {@code get} and
+ * {@code size} are O(1), {@code tail}, {@code takeWhile} and
+ * {@code dropWhile} share the array instead of copying it, and walking the
+ * list reads consecutive slots instead of chasing a cell per element.
+ * </p>
+ * <p>
+ * {@code appended} is O(1) amortized while staying persistent: the array
+ * keeps the number of slots in use, the first list ending there claims the
+ * next slot and writes its element in place, any other list copies its
+ * range into a larger array. lists that were handed out never see the
+ * slots written after their end, so they never change.
+ * </p>
+ * <p>
+ * It is equal to the {@code Cons} lists holding the same elements and has
+ * the same hash.
+ * </p>
+ *
+ * @param <T> type of the elements
+ * @author Tarek Nawara
+ */
+public final class VectorList<T> implements IList<T> {
+
+    private static final int MIN_CAPACITY = 8;
+
+    private static final VectorList<Object> EMPTY = new VectorList<>(new Buffer(new Object[0], 0), 0, 0);
+
+    private final Buffer buffer;
+    private final int from;
+    private final int to;
+    private int hash;
+
+    private VectorList(final Buffer buffer, final int from, final int to) {
+        this.buffer = buffer;
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * The empty list, to append to.
+     *
+     * @return a list without elements
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> VectorList<T> empty() {
+        return (VectorList<T>) EMPTY;
+    }
+
+    /**
+     * Builds a list from any traversable sequence.
+     *
+     * @param elems the elements, in order
+     * @return a list of the elements
+     */
+    public static <T> VectorList<T> of(final Iterable<? extends T> elems) {
+        final Growing growing = new Growing();
+        for (final T elem : elems) {
+            growing.add(elem);
+        }
+        return growing.toList();
+    }
+
+    /**
+     * Collector of a stream or of a repetition, see
+     * {@code Combinator.many(Parser, Collector)}.
+     *
+     * @return a collector filling a single growing array
+     */
+    public static <T> Collector<T, ?, VectorList<T>> collector() {
+        return Collector.of(Growing::new, Growing::add, Growing::addAll, Growing::toList);
+    }
+
+    /**
+     * Add an element at the end of the list. this list is immutable so this
+     * method returns a new list, O(1) amortized
+     *
+     * @param elem element to add
+     * @return a new list of the elements of this one followed by
+     * {@code elem}
+     */
+    public VectorList<T> appended(final T elem) {
+        if (to < buffer.items.length && buffer.used.compareAndSet(to, to + 1)) {
+            buffer.items[to] = elem;
+            return new VectorList<>(buffer, from, to + 1);
+        }
+        final int size = to - from;
+        final Object[] items = Arrays.copyOfRange(buffer.items, from, from + Math.max(MIN_CAPACITY, size * 2));
+        items[size] = elem;
+        return new VectorList<>(new Buffer(items, size + 1), 0, size + 1);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(final int index) {
+        if (index < 0 || index >= to - from) {
+            throw new IndexOutOfBoundsException("Index " + index + " in a list of " + (to - from));
+        }
+        return (T) buffer.items[from + index];
+    }
+
+    @Override
+    public int size() {
+        return to - from;
+    }
+
+    @Override
+    public IList<T> filter(final Predicate<T> p) {
+        final Growing growing = new Growing();
+        for (int i = from; i < to; ++i) {
+            if (p.test(at(i))) {
+                growing.add(buffer.items[i]);
+            }
+        }
+        return growing.toList();
+    }
+
+    @Override
+    public IList<T> takeWhile(final Predicate<T> p) {
+        int end = from;
+        while (end < to && p.test(at(end))) {
+            ++end;
+        }
+        return end == to ? this : new VectorList<>(buffer, from, end);
+    }
+
+    @Override
+    public IList<T> dropWhile(final Predicate<T> p) {
+        int start = from;
+        while (start < to && p.test(at(start))) {
+            ++start;
+        }
+        return start == from ? this : new VectorList<>(buffer, start, to);
+    }
+
+    @Override
+    public IList<T> reverse() {
+        final Object[] items = new Object[to - from];
+        for (int i = 0; i < items.length; ++i) {
+            items[i] = buffer.items[to - 1 - i];
+        }
+        return new VectorList<>(new Buffer(items, items.length), 0, items.length);
+    }
+
+    @Override
+    public IList<T> append(final IList<T> other) {
+        if (other.isEmpty()) {
+            return this;
+        }
+        VectorList<T> result = this;
+        for (final T elem : other) {
+            result = result.appended(elem);
+        }
+        return result;
+    }
+
+    @Override
+    public String mkString(final String delimiter) {
+        final StringBuilder sb = new StringBuilder();
+        for (int i = from; i < to; ++i) {
+            if (i > from) {
+                sb.append(delimiter);
+            }
+            sb.append(buffer.items[i]);
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public <U> U foldLeft(final U zeroElement, final BiFunction<U, T, U> f) {
+        U acc = zeroElement;
+        for (int i = from; i < to; ++i) {
+            acc = f.apply(acc, at(i));
+        }
+        return acc;
+    }
+
+    @Override
+    public <U> U foldRight(final U zerElement, final BiFunction<T, U, U> f) {
+        U acc = zerElement;
+        for (int i = to - 1; i >= from; --i) {
+            acc = f.apply(at(i), acc);
+        }
+        return acc;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return from == to;
+    }
+
+    @Override
+    public T head() {
+        if (from == to) {
+            throw new NoSuchElementException();
+        }
+        return at(from);
+    }
+
+    @Override
+    public IList<T> tail() {
+        if (from == to) {
+            throw new NoSuchElementException();
+        }
+        return new VectorList<>(buffer, from + 1, to);
+    }
+
+    @Override
+    public <B> IList<B> pure(final B value) {
+        return VectorList.<B>empty().appended(value);
+    }
+
+    @Override
+    public <B> IList<B> map(final Function<T, B> f) {
+        final Object[] items = new Object[to - from];
+        for (int i = 0; i < items.length; ++i) {
+            items[i] = f.apply(at(from + i));
+        }
+        return new VectorList<>(new Buffer(items, items.length), 0, items.length);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <B> IList<B> flatMap(final Function<T, Monad<B, IList<?>>> f) {
+        final Growing growing = new Growing();
+        for (int i = from; i < to; ++i) {
+            for (final B elem : (IList<B>) f.apply(at(i))) {
+                growing.add(elem);
+            }
+        }
+        return growing.toList();
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<T>() {
+            private int next = from;
+
+            @Override
+            public boolean hasNext() {
+                return next < to;
+            }
+
+            @Override
+            public T next() {
+                if (next >= to) {
+                    throw new NoSuchElementException();
+                }
+                return at(next++);
+            }
+        };
+    }
+
+    /*
+     * halves of the array, sized down to the last split
+     */
+    @Override
+    public Spliterator<T> spliterator() {
+        return Spliterators.spliterator(buffer.items, from, to, Spliterator.ORDERED | Spliterator.IMMUTABLE);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) return true;
+        if (!(o instanceof IList)) return false;
+        if (o instanceof VectorList && ((VectorList<?>) o).size() != size()) return false;
+        return Cons.sameElements(this, (IList<?>) o);
+    }
+
+    /*
+     * same as Cons, 31 times the hash of the tail plus the hash of the head
+     */
+    @Override
+    public int hashCode() {
+        if (hash == 0) {
+            int result = 1;
+            for (int i = to - 1; i >= from; --i) {
+                result = 31 * result + (buffer.items[i] == null ? 0 : buffer.items[i].hashCode());
+            }
+            hash = result;
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return "[" + mkString(",") + "]";
+    }
+
+    @SuppressWarnings("unchecked")
+    private T at(final int index) {
+        return (T) buffer.items[index];
+    }
+
+    /*
+     * the array shared by the lists, with the number of slots written
+     */
+    private static final class Buffer {
+        final Object[] items;
+        final AtomicInteger used;
+
+        Buffer(final Object[] items, final int used) {
+            this.items = items;
+            this.used = new AtomicInteger(used);
+        }
+    }
+
+    /*
+     * growing array, the container of the collector
+     */
+    private static final class Growing {
+        private Object[] items = new Object[MIN_CAPACITY];
+        private int size;
+
+        void add(final Object elem) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, size * 2);
+            }
+            items[size++] = elem;
+        }
+
+        Growing addAll(final Growing other) {
+            for (int i = 0; i < other.size; ++i) {
+                add(other.items[i]);
+            }
+            return this;
+        }
+
+        <T> VectorList<T> toList() {
+            return new VectorList<>(new Buffer(items, size), 0, size);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package edu.parsec.data.result;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Collects the failures of a single parser run.
+ * <p>
+ * Only the failures at the farthest offset reached are kept, and the items
+ * expected there are merged into one set. alternatives of an {@code or}, the
+ * last failed iteration of a {@code many} and every character of an
+ * {@code anyCharOf} end up in the same error, so one run is enough to get a
+ * precise diagnostic. the items are kept sorted, so the message doesn't
+ * depend on the order the alternatives were tried in.
+ * </p>
+ *
+ * @author Tarek Nawara
+ */
+public final class ErrorAccumulator {
+
+    private final Set<String> expected = new TreeSet<>();
+    private int farthest = ParseError.UNKNOWN_OFFSET;
+    private int found = ParseError.END_OF_INPUT;
+
+    /**
+     * Record a failure. failures before the farthest offset are ignored.
+     *
+     * @param offset   position of the failure
+     * @param items    items that were expected at this position
+     * @param foundChar the character at this position or
+     *                 {@code ParseError.END_OF_INPUT}
+     */
+    public void record(final int offset, final Collection<String> items, final int foundChar) {
+        if (offset < farthest) {
+            return;
+        }
+        if (offset > farthest) {
+            farthest = offset;
+            found = foundChar;
+            expected.clear();
+        }
+        expected.addAll(items);
+    }
+
+    /**
+     * Same as {@code record(int, Collection, int)} but takes the failure as a
+     * {@code ParseError}. errors without an offset are ignored.
+     *
+     * @param error the error to record
+     */
+    public void record(final ParseError error) {
+        if (error.offset != ParseError.UNKNOWN_OFFSET) {
+            record(error.offset, error.expected, error.found);
+        }
+    }
+
+    /**
+     * Tests whether any failure was recorded.
+     *
+     * @return true if nothing failed so far, false otherwise
+     */
+    public boolean isEmpty() {
+        return farthest == ParseError.UNKNOWN_OFFSET;
+    }
+
+    /**
+     * The farthest offset where a failure was recorded.
+     *
+     * @return the offset or {@code ParseError.UNKNOWN_OFFSET} if nothing failed
+     */
+    public int farthestOffset() {
+        return farthest;
+    }
+
+    /**
+     * Build the error at the farthest offset with all the items expected
+     * there.
+     *
+     * @return the merged error
+     */
+    public ParseError toError() {
+        final Collection<String> items = Collections.unmodifiableList(new ArrayList<>(expected));
+        return new ParseError(farthest, items, found);
+    }
+}
@@ -14,12 +14,27 @@ import java.util.function.Function;
  */
 public class Failure<T> implements Result<T> {
 
-    public final String error;
+    public final ParseError error;
 
-    public Failure(final String error) {
+    public Failure(final ParseError error) {
         this.error = error;
     }
 
+    public Failure(final String error) {
+        this(new ParseError(ParseError.UNKNOWN_OFFSET, error));
+    }
+
+    /**
+     * Reuse this failure as a result of another type. a failure doesn't hold
+     * any value so there is nothing to convert
+     *
+     * @return this failure
+     */
+    @SuppressWarnings("unchecked")
+    public <U> Failure<U> cast() {
+        return (Failure<U>) this;
+    }
+
     @Override
     public boolean isSuccess() {
         return false;
@@ -27,7 +42,7 @@ public class Failure<T> implements Result<T> {
 
     @Override
     public <U> Result<U> map(final Function<T, U> f) {
-        return new Failure<>(error);
+        return cast();
     }
 
     @Override
@@ -36,10 +51,15 @@ public class Failure<T> implements Result<T> {
     }
 
     @Override
-    public String getErrorMessage() {
+    public ParseError getError() {
         return error;
     }
 
+    @Override
+    public String getErrorMessage() {
+        return error.getMessage();
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -55,6 +75,6 @@ public class Failure<T> implements Result<T> {
 
     @Override
     public String toString() {
-        return "Failure: " + error;
+        return "Failure: " + error.getMessage();
     }
 }
@@ -0,0 +1,128 @@
+package edu.parsec.data.result;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Objects;
+
+/**
+ * Structured description of why a parser failed.
+ * <p>
+ * Building the human readable message means formatting characters and
+ * joining the expected items, so it is only done when {@link #getMessage()}
+ * is called. failing parsers only record where they failed, what they
+ * expected and what they found instead.
+ * </p>
+ *
+ * @author Tarek Nawara
+ */
+public final class ParseError {
+
+    /**
+     * Value of {@link #found} when the parser reached the end of the input.
+     */
+    public static final int END_OF_INPUT = -1;
+
+    /**
+     * Value of {@link #offset} when the failure is not tied to a position.
+     */
+    public static final int UNKNOWN_OFFSET = -1;
+
+    public final int offset;
+    public final Collection<String> expected;
+    public final int found;
+
+    private String message;
+
+    /**
+     * Construct an error for a parser that expected one of the given items.
+     *
+     * @param offset   position in the input where the failure happened
+     * @param expected descriptions of the items that would have been accepted,
+     *                 usually built once when the parser is built
+     * @param found    the character at {@code offset} or {@code END_OF_INPUT}
+     */
+    public ParseError(final int offset, final Collection<String> expected, final int found) {
+        this.offset = offset;
+        this.expected = expected;
+        this.found = found;
+    }
+
+    /**
+     * Construct an error from an already formatted message.
+     *
+     * @param offset  position in the input where the failure happened
+     * @param message the error message
+     */
+    public ParseError(final int offset, final String message) {
+        this(offset, Collections.emptyList(), END_OF_INPUT);
+        this.message = message;
+    }
+
+    /**
+     * Quote a character the way it appears in the expected items.
+     *
+     * @param c character to describe
+     * @return the character between single quotes with control characters
+     * escaped
+     */
+    public static String describe(final char c) {
+        switch (c) {
+            case '\n':
+                return "'\\n'";
+            case '\r':
+                return "'\\r'";
+            case '\t':
+                return "'\\t'";
+            default:
+                return "'" + c + "'";
+        }
+    }
+
+    /**
+     * Render the error as a human readable message.
+     *
+     * @return description of the expected items and what was found instead
+     */
+    public String getMessage() {
+        if (message == null) {
+            message = render();
+        }
+        return message;
+    }
+
+    private String render() {
+        final StringBuilder sb = new StringBuilder("Expected: ");
+        if (expected.isEmpty()) {
+            sb.append("nothing");
+        } else {
+            sb.append(String.join(" or ", expected));
+        }
+        if (found == END_OF_INPUT) {
+            sb.append(", we reached end of input");
+        } else {
+            sb.append(", found: ").append(describe((char) found));
+        }
+        if (offset != UNKNOWN_OFFSET) {
+            sb.append(" at offset ").append(offset);
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        final ParseError that = (ParseError) o;
+        return offset == that.offset && Objects.equals(getMessage(), that.getMessage());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(offset, getMessage());
+    }
+
+    @Override
+    public String toString() {
+        return getMessage();
+    }
+}
@@ -43,6 +43,18 @@ public interface Result<T> {
         return !isSuccess();
     }
 
+    /**
+     * Trying to get the structured error from the result
+     * <p>
+     * If the result is success it will throw a {@code RunTimeException}
+     * </p>
+     *
+     * @return the error describing the failure
+     */
+    default ParseError getError() {
+        throw new RuntimeException("Trying to get error from success");
+    }
+
     /**
      * Trying to get the error message from the result. if the result is failure
      * it will return the error message else it will return empty string
@@ -1,6 +1,7 @@
 package edu.parsec.examples.json.parser;
 
 import edu.parsec.data.list.IList;
+import edu.parsec.data.list.VectorList;
 import edu.parsec.data.pair.Pair;
 import edu.parsec.data.unit.Unit;
 import edu.parsec.examples.json.data.*;
@@ -11,31 +12,97 @@ import edu.parsec.parser.imp.Parser;
 import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * Json grammar.
+ * <p>
+ * The parsers are built once when the class is loaded and shared by all the
+ * runs. arrays and objects refer back to the json value through a lazy
+ * reference, which ties the recursion without rebuilding anything. the json
+ * parser handed out is the compiled version of the grammar, the recognizer
+ * is the compiled version of its copy that builds no value.
+ * </p>
+ *
+ * @author Tarek Nawara
+ */
 public class JSONCombinators {
 
+	private static final Parser<Json> JSON = Parser.lazy(JSONCombinators::buildJsonParser);
+	private static final Parser<JNull> JNULL = buildJNullParser();
+	private static final Parser<JBool> JBOOL = buildJBoolParser();
+	private static final Parser<JNum> JNUM = buildJNumParser();
+	private static final Parser<JStr> JSTR = buildJStrParser();
+	private static final Parser<JObj> JOBJ = buildJObjParser();
+	private static final Parser<JSeq> JSEQ = buildJSeqParser();
+	private static final Parser<Json> COMPILED = JSON.compile();
+	private static final Parser<Unit> RECOGNIZER = JSON.recognize().compile();
+	private static final Parser<Json> STACK_SAFE = JSON.stackSafe().compile();
 
 	public static Parser<JNull> JNullParser() {
-		return ParserBuilder.noSpacesParser(ParserBuilder.parseString("null")).map(x -> new JNull());
+		return JNULL;
 	}
 
 	public static Parser<JBool> JBoolParser() {
-		Parser<String> trueParser = ParserBuilder.parseString("true");
-		Parser<String> falseParser = ParserBuilder.parseString("false");
-		Parser<String> trueOrFalse = trueParser.or(() -> falseParser);
-		return ParserBuilder.noSpacesParser(trueOrFalse).map(Boolean::parseBoolean).map(JBool::new);
+		return JBOOL;
 	}
 
 	public static Parser<JNum> JNumParser() {
-		return ParserBuilder.noSpacesParser(ParserBuilder.doubleParser()).map(JNum::new);
+		return JNUM;
 	}
 
 	public static Parser<JStr> JStrParser() {
+		return JSTR;
+	}
+
+	public static Parser<JObj> JObjParser() {
+		return JOBJ;
+	}
+
+	public static Parser<JSeq> JSeqParser() {
+		return JSEQ;
+	}
+
+	public static Parser<Json> JsonParser() {
+		return COMPILED;
+	}
+
+	/**
+	 * Parser of json nested deeper than the stack of the thread allows.
+	 *
+	 * @return the optimized grammar run on a stack kept on the heap
+	 */
+	public static Parser<Json> JsonStackSafeParser() {
+		return STACK_SAFE;
+	}
+
+	/**
+	 * Parser checking that the input is json without building it.
+	 *
+	 * @return the compiled recognizer of the grammar
+	 */
+	public static Parser<Unit> JsonRecognizer() {
+		return RECOGNIZER;
+	}
+
+	private static Parser<JNull> buildJNullParser() {
+		return ParserBuilder.noSpacesParser(ParserBuilder.parseString("null")).map(x -> new JNull());
+	}
+
+	private static Parser<JBool> buildJBoolParser() {
+		Parser<String> trueOrFalse = ParserBuilder.oneOfLiterals("true", "false");
+		return ParserBuilder.noSpacesParser(trueOrFalse).map(Boolean::parseBoolean).map(JBool::new);
+	}
+
+	private static Parser<JNum> buildJNumParser() {
+		return ParserBuilder.noSpacesParser(ParserBuilder.doubleParser(JNum::new));
+	}
+
+	private static Parser<JStr> buildJStrParser() {
 		Parser<Character> quote = ParserBuilder.parseChar('\"');
 		Parser<String> str = Combinator.stringParser();
 		return ParserBuilder.noSpacesParser(quote.then(str).skip(quote)).map(JStr::new);
 	}
 
-	public static Parser<JObj> JObjParser() {
+	private static Parser<JObj> buildJObjParser() {
 		Parser<Character> colon = ParserBuilder.noSpacesParser(ParserBuilder.parseChar(':'));
 		Parser<Character> comma = ParserBuilder.noSpacesParser(ParserBuilder.parseChar(','));
 		Parser<IList<Character>> commas = Combinator.many(comma);
@@ -43,7 +110,7 @@ public class JSONCombinators {
 		Parser<Character> openBrace = ParserBuilder.noSpacesParser(ParserBuilder.parseChar('{'));
 		Parser<Character> closeBrace = ParserBuilder.noSpacesParser(ParserBuilder.parseChar('}'));
 		Parser<String> str = ParserBuilder.noSpacesParser(quote.then(Combinator.stringParser()).skip(quote));
-		Parser<Pair<String, Json>> binding = str.skip(colon).and(JSONCombinators::JsonParser).skip(commas);
+		Parser<Pair<String, Json>> binding = str.skip(colon).and(() -> JSON).skip(commas);
 		Parser<JObj> body = Combinator.many(binding).map(l -> {
 			Map<String, Json> bindings = toMap(l);
 			return new JObj(bindings);
@@ -52,19 +119,18 @@ public class JSONCombinators {
 		return result;
 	}
 
-	public static Parser<JSeq> JSeqParser() {
+	private static Parser<JSeq> buildJSeqParser() {
 		Parser<Character> openBracket = ParserBuilder.noSpacesParser(ParserBuilder.parseChar('['));
 		Parser<Character> closeBracket = ParserBuilder.noSpacesParser(ParserBuilder.parseChar(']'));
 		Parser<Character> comma = ParserBuilder.noSpacesParser(ParserBuilder.parseChar(','));
 		Parser<IList<Character>> commas = Combinator.many(comma);
-		Parser<IList<Json>> token = Combinator.many(JsonParser().skip(commas));
+		Parser<VectorList<Json>> token = Combinator.many(JSON.skip(commas), VectorList.collector());
 		return openBracket.then(token).skip(closeBracket).map(JSeq::new);
 	}
 
-	public static Parser<Json> JsonParser() {
-		Parser<Json> jNullParser = JNullParser().map(x -> x);
-		return jNullParser.or(JSONCombinators::JBoolParser).or(JSONCombinators::JNumParser)
-				.or(JSONCombinators::JStrParser).or(JSONCombinators::JSeqParser).or(JSONCombinators::JObjParser);
+	private static Parser<Json> buildJsonParser() {
+		Parser<Json> value = Combinator.<Json>choice(JNULL, JBOOL, JNUM, JSTR, JSEQ, JOBJ);
+		return ParserBuilder.noSpacesParser(value);
 	}
 
 	private static Map<String, Json> toMap(IList<Pair<String, Json>> l) {
@@ -1,63 +1,91 @@
 package edu.parsec.examples.lisp.parser;
 
+import edu.parsec.data.unit.Unit;
 import edu.parsec.examples.lisp.data.*;
+import edu.parsec.parser.combinators.Combinator;
 import edu.parsec.parser.combinators.ParserBuilder;
 import edu.parsec.parser.imp.Parser;
 
+import java.util.function.BiFunction;
+
 /**
  * Parser supplier for the expression.
+ * <p>
+ * The grammar is built once and shared by all the runs. the operator
+ * expressions refer back to the expression parser through a lazy reference.
+ * the parser handed out is the compiled version of the grammar.
+ * </p>
  *
  * @author Tarek Nawara
  */
 public class ExprParserCombinator {
 
+    private static final Parser<Expr> EXPR = Parser.lazy(ExprParserCombinator::buildExprParser);
+
+    /*
+     * Operands of the operator expressions. memoized so the operand at a given
+     * offset is parsed once per run whatever alternative asks for it.
+     */
+    private static final Parser<Expr> OPERAND = EXPR.memo();
+
+    private static final Parser<Value> VALUE =
+            ParserBuilder.noSpacesParser(ParserBuilder.doubleParser(Value::new));
+    private static final Parser<AddExpr> ADD = binaryExprParser('+', AddExpr::new);
+    private static final Parser<SubExpr> SUB = binaryExprParser('-', SubExpr::new);
+    private static final Parser<MulExpr> MUL = binaryExprParser('*', MulExpr::new);
+    private static final Parser<DivExpr> DIV = binaryExprParser('/', DivExpr::new);
+
+    private static final Parser<Expr> COMPILED = EXPR.compile();
+    private static final Parser<Unit> RECOGNIZER = EXPR.recognize().compile();
+    private static final Parser<Expr> STACK_SAFE = EXPR.stackSafe().compile();
+
     /**
-     * Build a parser that parses an arithmetic expression.
+     * Get the parser of an arithmetic expression.
      *
      * @return parser that parses lisp expression
      */
     public static Parser<Expr> exprParser() {
-        final Parser<Expr> valueParser = valueParser().map(x -> x);
-        return ParserBuilder.noSpacesParser(valueParser
-                .or(ExprParserCombinator::addExprParser).or(ExprParserCombinator::subExprParser)
-                .or(ExprParserCombinator::mulExprParser).or(ExprParserCombinator::divExprParser));
+        return COMPILED;
     }
 
-    private static Parser<Value> valueParser() {
-        return ParserBuilder.noSpacesParser(ParserBuilder.doubleParser().map(Value::new));
-    }
-
-    private static Parser<AddExpr> addExprParser() {
-        final Parser<Character> openBracket = ParserBuilder.noSpacesParser(ParserBuilder.parseChar('('));
-        final Parser<Character> addCharacter = ParserBuilder.noSpacesParser(ParserBuilder.parseChar('+'));
-        final Parser<Character> closeBracket = ParserBuilder.noSpacesParser(ParserBuilder.parseChar(')'));
-        return openBracket.then(addCharacter).then(exprParser().and(ExprParserCombinator::exprParser)
-                .map(pair -> new AddExpr(pair.first, pair.second))).skip(closeBracket);
+    /**
+     * Get the parser of expressions nested deeper than the stack of the
+     * thread allows.
+     *
+     * @return the optimized grammar run on a stack kept on the heap
+     */
+    public static Parser<Expr> stackSafeExprParser() {
+        return STACK_SAFE;
     }
 
-    private static Parser<SubExpr> subExprParser() {
-        final Parser<Character> openBracket = ParserBuilder.noSpacesParser(ParserBuilder.parseChar('('));
-        final Parser<Character> subCharacter = ParserBuilder.noSpacesParser(ParserBuilder.parseChar('-'));
-        final Parser<Character> closeBracket = ParserBuilder.noSpacesParser(ParserBuilder.parseChar(')'));
-        return openBracket.then(subCharacter).then(exprParser().and(ExprParserCombinator::exprParser)
-                .map(pair -> new SubExpr(pair.first, pair.second))).skip(closeBracket);
+    /**
+     * Get the parser checking that the input is an arithmetic expression,
+     * without building it.
+     *
+     * @return the compiled recognizer of the grammar
+     */
+    public static Parser<Unit> exprRecognizer() {
+        return RECOGNIZER;
     }
 
-    private static Parser<MulExpr> mulExprParser() {
-        final Parser<Character> openBracket = ParserBuilder.noSpacesParser(ParserBuilder.parseChar('('));
-        final Parser<Character> mulCharacter = ParserBuilder.noSpacesParser(ParserBuilder.parseChar('*'));
-        final Parser<Character> closeBracket = ParserBuilder.noSpacesParser(ParserBuilder.parseChar(')'));
-        return openBracket.then(mulCharacter).then(exprParser().and(ExprParserCombinator::exprParser)
-                .map(pair -> new MulExpr(pair.first, pair.second))).skip(closeBracket);
-
+    private static Parser<Expr> buildExprParser() {
+        return ParserBuilder.noSpacesParser(Combinator.<Expr>choice(VALUE, ADD, SUB, MUL, DIV));
     }
 
-    private static Parser<DivExpr> divExprParser() {
+    /**
+     * Build the parser of an operator expression {@code (op left right)}.
+     *
+     * @param operator    the operator character
+     * @param constructor builds the expression from its two operands
+     * @return parser of the operator expression
+     */
+    private static <T extends Expr> Parser<T> binaryExprParser(final char operator,
+                                                               final BiFunction<Expr, Expr, T> constructor) {
         final Parser<Character> openBracket = ParserBuilder.noSpacesParser(ParserBuilder.parseChar('('));
-        final Parser<Character> divCharacter = ParserBuilder.noSpacesParser(ParserBuilder.parseChar('/'));
+        final Parser<Character> operatorCharacter = ParserBuilder.noSpacesParser(ParserBuilder.parseChar(operator));
         final Parser<Character> closeBracket = ParserBuilder.noSpacesParser(ParserBuilder.parseChar(')'));
-        return openBracket.then(divCharacter).then(exprParser().and(ExprParserCombinator::exprParser)
-                .map(pair -> new DivExpr(pair.first, pair.second))).skip(closeBracket);
+        return openBracket.then(operatorCharacter).then(OPERAND.and(() -> OPERAND)
+                .map(pair -> constructor.apply(pair.first, pair.second))).skip(closeBracket);
     }
 
 }
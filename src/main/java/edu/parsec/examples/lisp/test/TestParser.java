@@ -1,6 +1,6 @@
 package edu.parsec.examples.lisp.test;
 
-import edu.parsec.data.list.IList;
+import edu.parsec.data.input.Input;
 import edu.parsec.data.pair.Pair;
 import edu.parsec.data.result.Result;
 import edu.parsec.examples.lisp.data.Expr;
@@ -11,7 +11,7 @@ public class TestParser {
     public static void main(String[] args) {
         String input = "(+ (- 1 2) (* 4 5))";
         final Parser<Expr> exprParser = ExprParserCombinator.exprParser();
-        final Result<Pair<Expr, IList<Character>>> result = exprParser.run(input);
+        final Result<Pair<Expr, Input>> result = exprParser.run(input);
         System.out.println(result.get().first);
         System.out.println(result.get().first.eval());
     }
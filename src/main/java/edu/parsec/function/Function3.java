@@ -0,0 +1,24 @@
+package edu.parsec.function;
+
+/**
+ * Function of 3 arguments, see {@code Combinator.seq3}.
+ *
+ * @param <A> type of the first argument
+ * @param <B> type of the second argument
+ * @param <C> type of the third argument
+ * @param <R> type of the result
+ * @author Tarek Nawara
+ */
+@FunctionalInterface
+public interface Function3<A, B, C, R> {
+
+    /**
+     * Apply the function.
+     *
+     * @param a first argument
+     * @param b second argument
+     * @param c third argument
+     * @return the result of the function
+     */
+    R apply(A a, B b, C c);
+}
@@ -0,0 +1,26 @@
+package edu.parsec.function;
+
+/**
+ * Function of 4 arguments, see {@code Combinator.seq4}.
+ *
+ * @param <A> type of the first argument
+ * @param <B> type of the second argument
+ * @param <C> type of the third argument
+ * @param <D> type of the fourth argument
+ * @param <R> type of the result
+ * @author Tarek Nawara
+ */
+@FunctionalInterface
+public interface Function4<A, B, C, D, R> {
+
+    /**
+     * Apply the function.
+     *
+     * @param a first argument
+     * @param b second argument
+     * @param c third argument
+     * @param d fourth argument
+     * @return the result of the function
+     */
+    R apply(A a, B b, C c, D d);
+}
@@ -0,0 +1,28 @@
+package edu.parsec.function;
+
+/**
+ * Function of 5 arguments, see {@code Combinator.seq5}.
+ *
+ * @param <A> type of the first argument
+ * @param <B> type of the second argument
+ * @param <C> type of the third argument
+ * @param <D> type of the fourth argument
+ * @param <E> type of the fifth argument
+ * @param <R> type of the result
+ * @author Tarek Nawara
+ */
+@FunctionalInterface
+public interface Function5<A, B, C, D, E, R> {
+
+    /**
+     * Apply the function.
+     *
+     * @param a first argument
+     * @param b second argument
+     * @param c third argument
+     * @param d fourth argument
+     * @param e fifth argument
+     * @return the result of the function
+     */
+    R apply(A a, B b, C c, D d, E e);
+}
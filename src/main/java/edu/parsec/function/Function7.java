@@ -0,0 +1,32 @@
+package edu.parsec.function;
+
+/**
+ * Function of 7 arguments, see {@code Combinator.seq7}.
+ *
+ * @param <A> type of the first argument
+ * @param <B> type of the second argument
+ * @param <C> type of the third argument
+ * @param <D> type of the fourth argument
+ * @param <E> type of the fifth argument
+ * @param <F> type of the sixth argument
+ * @param <G> type of the seventh argument
+ * @param <R> type of the result
+ * @author Tarek Nawara
+ */
+@FunctionalInterface
+public interface Function7<A, B, C, D, E, F, G, R> {
+
+    /**
+     * Apply the function.
+     *
+     * @param a first argument
+     * @param b second argument
+     * @param c third argument
+     * @param d fourth argument
+     * @param e fifth argument
+     * @param f sixth argument
+     * @param g seventh argument
+     * @return the result of the function
+     */
+    R apply(A a, B b, C c, D d, E e, F f, G g);
+}
@@ -0,0 +1,222 @@
+package edu.parsec.parser.combinators;
+
+import java.util.Arrays;
+import java.util.List;
+
+import edu.parsec.data.result.ParseError;
+
+/**
+ * Immutable set of characters with a constant time membership test.
+ * <p>
+ * The members are stored in a bitset indexed by the character code. the
+ * bitset only grows up to the highest member, so classes of ASCII characters
+ * cost two {@code long}s, and negated classes keep the bits of the class they
+ * negate instead of materializing all the 64K characters.
+ * </p>
+ *
+ * @author Tarek Nawara
+ */
+public final class CharClass {
+
+    /**
+     * The empty class, no character belongs to it.
+     */
+    public static final CharClass NONE = of("").named("nothing");
+
+    /**
+     * The decimal digits {@code '0'..'9'}.
+     */
+    public static final CharClass DIGITS = range('0', '9');
+
+    /**
+     * The whitespace characters skipped by {@code Combinator.spaces()}.
+     */
+    public static final CharClass SPACES = of("\n\t \r");
+
+    private final long[] bits;
+    private final boolean negated;
+    private final String label;
+
+    private CharClass(final long[] bits, final boolean negated, final String label) {
+        this.bits = bits;
+        this.negated = negated;
+        this.label = label;
+    }
+
+    /**
+     * Build a class containing the characters of the given string.
+     *
+     * @param chars members of the class
+     * @return class of the given characters
+     */
+    public static CharClass of(final String chars) {
+        long[] bits = new long[0];
+        for (int i = 0; i < chars.length(); ++i) {
+            bits = set(bits, chars.charAt(i));
+        }
+        return new CharClass(bits, false, describe(chars));
+    }
+
+    /**
+     * Same as {@code of(String)} but builds the class from a list.
+     *
+     * @param chars members of the class
+     * @return class of the given characters
+     */
+    public static CharClass of(final List<Character> chars) {
+        final StringBuilder sb = new StringBuilder(chars.size());
+        chars.forEach(sb::append);
+        return of(sb.toString());
+    }
+
+    /**
+     * Build a class of all the characters between {@code from} and {@code to}
+     * inclusive.
+     *
+     * @param from first character of the range
+     * @param to   last character of the range
+     * @return class of the characters in the range
+     */
+    public static CharClass range(final char from, final char to) {
+        if (from > to) {
+            throw new IllegalArgumentException("Empty range " + ParseError.describe(from) + ".."
+                    + ParseError.describe(to));
+        }
+        long[] bits = new long[(to >>> 6) + 1];
+        for (int c = from; c <= to; ++c) {
+            bits[c >>> 6] |= 1L << c;
+        }
+        return new CharClass(bits, false, ParseError.describe(from) + ".." + ParseError.describe(to));
+    }
+
+    /**
+     * Tests whether the character belongs to the class.
+     *
+     * @param c character to test
+     * @return true if the character is a member, false otherwise
+     */
+    public boolean contains(final char c) {
+        final int index = c >>> 6;
+        final boolean member = index < bits.length && (bits[index] & (1L << c)) != 0;
+        return member != negated;
+    }
+
+    /**
+     * Tests whether all the members of the class are ASCII characters.
+     *
+     * @return true if the class has no member above {@code '\u007f'}
+     */
+    public boolean isAscii() {
+        if (negated) {
+            return false;
+        }
+        for (int i = 2; i < bits.length; ++i) {
+            if (bits[i] != 0L) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Build the complement of this class.
+     *
+     * @return class of all the characters not in this class
+     */
+    public CharClass negate() {
+        return new CharClass(bits, !negated, "not " + label);
+    }
+
+    /**
+     * Build the union of this class with another one.
+     *
+     * @param other class to join with
+     * @return class of the characters in any of the two classes
+     */
+    public CharClass union(final CharClass other) {
+        final String unionLabel = label + " or " + other.label;
+        if (!negated && !other.negated) {
+            return new CharClass(combine(bits, other.bits, false, false, false), false, unionLabel);
+        }
+        // a | b == not (not a & not b), and the bits of a negated class are
+        // already the complement of its members
+        final long[] complement = combine(bits, other.bits, !negated, !other.negated, true);
+        return new CharClass(complement, true, unionLabel);
+    }
+
+    /**
+     * Give the class a name to be used in the error messages.
+     *
+     * @param name description of the class
+     * @return the same class with the given description
+     */
+    public CharClass named(final String name) {
+        return new CharClass(bits, negated, name);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        final CharClass that = (CharClass) o;
+        return negated == that.negated && Arrays.equals(trim(bits), trim(that.bits));
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(trim(bits)) + Boolean.hashCode(negated);
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+
+    private static long[] set(final long[] bits, final char c) {
+        final int index = c >>> 6;
+        final long[] result = index < bits.length ? bits : Arrays.copyOf(bits, index + 1);
+        result[index] |= 1L << c;
+        return result;
+    }
+
+    /*
+     * Combine two bitsets word by word, complementing the inputs first when
+     * asked. missing words are zeros before the complement.
+     */
+    private static long[] combine(final long[] a, final long[] b, final boolean notA, final boolean notB,
+                                  final boolean intersect) {
+        final int length = intersect && !notA && !notB ? Math.min(a.length, b.length)
+                : intersect && !notA ? a.length
+                : intersect && !notB ? b.length
+                : Math.max(a.length, b.length);
+        final long[] result = new long[length];
+        for (int i = 0; i < length; ++i) {
+            long x = i < a.length ? a[i] : 0L;
+            long y = i < b.length ? b[i] : 0L;
+            x = notA ? ~x : x;
+            y = notB ? ~y : y;
+            result[i] = intersect ? x & y : x | y;
+        }
+        return result;
+    }
+
+    private static long[] trim(final long[] bits) {
+        int length = bits.length;
+        while (length > 0 && bits[length - 1] == 0L) {
+            --length;
+        }
+        return length == bits.length ? bits : Arrays.copyOf(bits, length);
+    }
+
+    private static String describe(final String chars) {
+        if (chars.length() == 1) {
+            return ParseError.describe(chars.charAt(0));
+        }
+        final StringBuilder sb = new StringBuilder("one of \"");
+        for (int i = 0; i < chars.length(); ++i) {
+            final String quoted = ParseError.describe(chars.charAt(i));
+            sb.append(quoted, 1, quoted.length() - 1);
+        }
+        return sb.append('"').toString();
+    }
+}
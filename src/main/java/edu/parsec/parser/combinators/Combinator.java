@@ -1,14 +1,35 @@
 package edu.parsec.parser.combinators;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BiFunction;
 import java.util.function.Function;
+import java.util.stream.Collector;
 
-import edu.parsec.data.list.Empty;
+import edu.parsec.data.hlist.HCons;
+import edu.parsec.data.hlist.HList;
+import edu.parsec.data.hlist.HNil;
+import edu.parsec.data.list.CharList;
+import edu.parsec.data.list.DoubleList;
 import edu.parsec.data.list.IList;
-import edu.parsec.data.pair.Pair;
-import edu.parsec.data.result.Failure;
-import edu.parsec.data.result.Result;
-import edu.parsec.data.result.Success;
+import edu.parsec.data.list.IntList;
 import edu.parsec.data.unit.Unit;
+import edu.parsec.function.Function3;
+import edu.parsec.function.Function4;
+import edu.parsec.function.Function5;
+import edu.parsec.function.Function6;
+import edu.parsec.function.Function7;
+import edu.parsec.function.Function8;
+import edu.parsec.parser.grammar.AltNode;
+import edu.parsec.parser.grammar.CollectNode;
+import edu.parsec.parser.grammar.Combiner;
+import edu.parsec.parser.grammar.ManyNode;
+import edu.parsec.parser.grammar.Node;
+import edu.parsec.parser.grammar.PureNode;
+import edu.parsec.parser.grammar.SeqNode;
+import edu.parsec.parser.grammar.SkipManyNode;
+import edu.parsec.parser.grammar.SkipWhileNode;
 import edu.parsec.parser.imp.Parser;
 
 /**
@@ -19,6 +40,25 @@ import edu.parsec.parser.imp.Parser;
  */
 public class Combinator {
 
+    /*
+     * builds the list of a flat chain of hcons from the end, its identity
+     * marks the sequences that hcons and mapN can extend
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static final Function<Object[], Object> TO_HLIST = values -> {
+        HList list = HNil.nil();
+        for (int i = values.length - 1; i >= 0; --i) {
+            list = new HCons<>(values[i], list);
+        }
+        return list;
+    };
+
+    private static final Collector<Character, CharList.Builder, char[]> CHARS = Collector.of(
+            CharList.Builder::new, CharList.Builder::add, CharList.Builder::addAll, CharList.Builder::toArray);
+
+    private static final Collector<Integer, IntList.Builder, int[]> INTS = Collector.of(
+            IntList.Builder::new, IntList.Builder::add, IntList.Builder::addAll, IntList.Builder::toArray);
+
     /**
      * Run a parser many times over the given input and return a parser that
      * when run will return a list of its results
@@ -28,22 +68,7 @@ public class Combinator {
      * much as it can and return the result in a IList
      */
     public static <A> Parser<IList<A>> many(Parser<A> parser) {
-        Function<IList<Character>, Result<Pair<IList<A>, IList<Character>>>> innerFunc = inputChars -> {
-            IList<A> result = new Empty<>();
-            IList<Character> currentInput = inputChars;
-            while (true) {
-                Result<Pair<A, IList<Character>>> outer = parser.run(currentInput);
-                if (outer.isFailure()) {
-                    break;
-                }
-                Pair<A, IList<Character>> pair = outer.get();
-                result = result.addFront(pair.first);
-                currentInput = pair.second;
-            }
-            result = result.reverse();
-            return new Success<>(new Pair<>(result, currentInput));
-        };
-        return new Parser<>(innerFunc);
+        return new Parser<>(new ManyNode(parser.node(), false));
     }
 
     /**
@@ -57,26 +82,97 @@ public class Combinator {
      * can
      */
     public static <A> Parser<IList<A>> many1(Parser<A> parser) {
-        Function<IList<Character>, Result<Pair<IList<A>, IList<Character>>>> innerFunc = inputChars -> {
-            IList<A> result = new Empty<>();
-            IList<Character> currentInput = inputChars;
-            Result<Pair<A, IList<Character>>> outer = parser.run(currentInput);
-            if (outer.isFailure()) {
-                return new Failure<>(outer.getErrorMessage());
-            }
-            while (true) {
-                Pair<A, IList<Character>> pair = outer.get();
-                result = result.addFront(pair.first);
-                currentInput = pair.second;
-                outer = parser.run(currentInput);
-                if (outer.isFailure()) {
-                    break;
-                }
-            }
-            result = result.reverse();
-            return new Success<>(new Pair<>(result, currentInput));
-        };
-        return new Parser<>(innerFunc);
+        return new Parser<>(new ManyNode(parser.node(), true));
+    }
+
+    /**
+     * Run a parser many times and collect its results.
+     * <p>
+     * The results are given to the collector as they are parsed, so no list
+     * is built on the way. the collector is used sequentially, its combiner
+     * is never called
+     * </p>
+     *
+     * @param parser    parser to run
+     * @param collector collector of the results
+     * @return a new parser that when run will consume the input characters as
+     * much as it can and return the collected results
+     */
+    public static <A, R> Parser<R> many(final Parser<A> parser, final Collector<? super A, ?, R> collector) {
+        return new Parser<>(new CollectNode(parser.node(), false, collector));
+    }
+
+    /**
+     * Same as {@code many(parser, collector)} but the parser must succeed at
+     * least once
+     *
+     * @param parser    parser to run
+     * @param collector collector of the results
+     * @return a new parser that when run will consume the input characters as
+     * much as it can and return the collected results
+     */
+    public static <A, R> Parser<R> many1(final Parser<A> parser, final Collector<? super A, ?, R> collector) {
+        return new Parser<>(new CollectNode(parser.node(), true, collector));
+    }
+
+    /**
+     * Run a character parser many times and return the characters in an
+     * array, which is grown as they are parsed
+     *
+     * @param parser parser to run
+     * @return a new parser that when run will return the parsed characters
+     */
+    public static Parser<char[]> manyChars(final Parser<Character> parser) {
+        return many(parser, CHARS);
+    }
+
+    /**
+     * Run an integer parser many times and return the integers in an array,
+     * which is grown as they are parsed
+     *
+     * @param parser parser to run
+     * @return a new parser that when run will return the parsed integers
+     */
+    public static Parser<int[]> manyInts(final Parser<Integer> parser) {
+        return many(parser, INTS);
+    }
+
+    /**
+     * Run a character parser many times and return the characters in a
+     * {@code CharList}.
+     * <p>
+     * The characters are stored unboxed as they are parsed. when the parser
+     * reads a single character of a class, {@code compile} turns the
+     * repetition into a scan copying the characters straight from the input
+     * </p>
+     *
+     * @param parser parser to run
+     * @return a new parser that when run will return the parsed characters
+     */
+    public static Parser<CharList> manyChar(final Parser<Character> parser) {
+        return many(parser, CharList.collector());
+    }
+
+    /**
+     * Run an integer parser many times and return the integers in an
+     * {@code IntList}, stored unboxed as they are parsed
+     *
+     * @param parser parser to run
+     * @return a new parser that when run will return the parsed integers
+     */
+    public static Parser<IntList> manyInt(final Parser<Integer> parser) {
+        return many(parser, IntList.collector());
+    }
+
+    /**
+     * Run a number parser many times and return the numbers in a
+     * {@code DoubleList}, stored unboxed as they are parsed
+     *
+     * @param parser parser to run
+     * @return a new parser that when run will return the parsed numbers
+     */
+    public static Parser<DoubleList> manyDouble(final Parser<Double> parser) {
+        return many(parser, DoubleList.collector());
     }
 
     /**
@@ -92,19 +188,352 @@ public class Combinator {
      * the result away
      */
     public static <A> Parser<Unit> skipMany(Parser<A> parser) {
-        Function<IList<Character>, Result<Pair<Unit, IList<Character>>>> innerFunc = inputChars -> {
-            IList<Character> currentInput = inputChars;
-            while (true) {
-                Result<Pair<A, IList<Character>>> outer = parser.run(currentInput);
-                if (outer.isFailure()) {
-                    break;
-                }
-                Pair<A, IList<Character>> pair = outer.get();
-                currentInput = pair.second;
+        return new Parser<>(new SkipManyNode(parser.node()));
+    }
+
+    /**
+     * Try the given parsers in order and return the result of the first one
+     * that succeeds.
+     * <p>
+     * This gives the same results as chaining the parsers with {@code or},
+     * but the alternatives are picked from a table indexed by the current
+     * character and built from their lookahead, so only the alternatives that
+     * can start with this character are run. the others are still reported
+     * as expected when the choice fails
+     * </p>
+     *
+     * @param alternatives parsers to try
+     * @return a parser that returns the result of the first alternative that
+     * succeeds
+     */
+    @SafeVarargs
+    public static <T> Parser<T> choice(final Parser<? extends T>... alternatives) {
+        final List<Node> nodes = new ArrayList<>(alternatives.length);
+        for (final Parser<? extends T> alternative : alternatives) {
+            nodes.add(alternative.node());
+        }
+        return new Parser<>(new AltNode(nodes));
+    }
+
+    /**
+     * Run a parser between two others and return its result, like
+     * {@code open.then(parser).skip(close)} but as a single sequence
+     *
+     * @param open   parser run before
+     * @param close  parser run after
+     * @param parser parser whose result is kept
+     * @return a parser that when succeed returns the result of {@code parser}
+     */
+    public static <T> Parser<T> between(final Parser<?> open, final Parser<?> close, final Parser<T> parser) {
+        return new Parser<>(new SeqNode(Arrays.asList(open.node(), parser.node(), close.node()), Combiner.pick(1)));
+    }
+
+    /**
+     * Run parsers one after the other and combine their results.
+     * <p>
+     * The parsers run as a single sequence and the function is called once
+     * with all the results, without building pairs nor curried functions on
+     * the way
+     * </p>
+     *
+     * @param pa first parser to run
+     * @param pb second parser to run
+     * @param pc third parser to run
+     * @param f  function combining the results
+     * @return a parser that when succeed returns the combined results
+     */
+    @SuppressWarnings("unchecked")
+    public static <A, B, C, R> Parser<R> seq3(final Parser<A> pa, final Parser<B> pb, final Parser<C> pc,
+            final Function3<A, B, C, R> f) {
+        return seq(values -> f.apply((A) values[0], (B) values[1], (C) values[2]), pa, pb, pc);
+    }
+
+    /**
+     * Same as {@code seq3} with 4 parsers
+     *
+     * @param pa first parser to run
+     * @param pb second parser to run
+     * @param pc third parser to run
+     * @param pd fourth parser to run
+     * @param f  function combining the results
+     * @return a parser that when succeed returns the combined results
+     */
+    @SuppressWarnings("unchecked")
+    public static <A, B, C, D, R> Parser<R> seq4(final Parser<A> pa, final Parser<B> pb, final Parser<C> pc,
+            final Parser<D> pd, final Function4<A, B, C, D, R> f) {
+        return seq(values -> f.apply((A) values[0], (B) values[1], (C) values[2], (D) values[3]), pa, pb, pc, pd);
+    }
+
+    /**
+     * Same as {@code seq3} with 5 parsers
+     *
+     * @param pa first parser to run
+     * @param pb second parser to run
+     * @param pc third parser to run
+     * @param pd fourth parser to run
+     * @param pe fifth parser to run
+     * @param f  function combining the results
+     * @return a parser that when succeed returns the combined results
+     */
+    @SuppressWarnings("unchecked")
+    public static <A, B, C, D, E, R> Parser<R> seq5(final Parser<A> pa, final Parser<B> pb, final Parser<C> pc,
+            final Parser<D> pd, final Parser<E> pe, final Function5<A, B, C, D, E, R> f) {
+        return seq(values -> f.apply((A) values[0], (B) values[1], (C) values[2], (D) values[3], (E) values[4]), pa, pb,
+                pc, pd, pe);
+    }
+
+    /**
+     * Same as {@code seq3} with 6 parsers
+     *
+     * @param pa first parser to run
+     * @param pb second parser to run
+     * @param pc third parser to run
+     * @param pd fourth parser to run
+     * @param pe fifth parser to run
+     * @param pf sixth parser to run
+     * @param f  function combining the results
+     * @return a parser that when succeed returns the combined results
+     */
+    @SuppressWarnings("unchecked")
+    public static <A, B, C, D, E, F, R> Parser<R> seq6(final Parser<A> pa, final Parser<B> pb, final Parser<C> pc,
+            final Parser<D> pd, final Parser<E> pe, final Parser<F> pf, final Function6<A, B, C, D, E, F, R> f) {
+        return seq(values -> f.apply((A) values[0], (B) values[1], (C) values[2], (D) values[3], (E) values[4],
+                (F) values[5]), pa, pb, pc, pd, pe, pf);
+    }
+
+    /**
+     * Same as {@code seq3} with 7 parsers
+     *
+     * @param pa first parser to run
+     * @param pb second parser to run
+     * @param pc third parser to run
+     * @param pd fourth parser to run
+     * @param pe fifth parser to run
+     * @param pf sixth parser to run
+     * @param pg seventh parser to run
+     * @param f  function combining the results
+     * @return a parser that when succeed returns the combined results
+     */
+    @SuppressWarnings("unchecked")
+    public static <A, B, C, D, E, F, G, R> Parser<R> seq7(final Parser<A> pa, final Parser<B> pb, final Parser<C> pc,
+            final Parser<D> pd, final Parser<E> pe, final Parser<F> pf, final Parser<G> pg,
+            final Function7<A, B, C, D, E, F, G, R> f) {
+        return seq(values -> f.apply((A) values[0], (B) values[1], (C) values[2], (D) values[3], (E) values[4],
+                (F) values[5], (G) values[6]), pa, pb, pc, pd, pe, pf, pg);
+    }
+
+    /**
+     * Same as {@code seq3} with 8 parsers
+     *
+     * @param pa first parser to run
+     * @param pb second parser to run
+     * @param pc third parser to run
+     * @param pd fourth parser to run
+     * @param pe fifth parser to run
+     * @param pf sixth parser to run
+     * @param pg seventh parser to run
+     * @param ph eighth parser to run
+     * @param f  function combining the results
+     * @return a parser that when succeed returns the combined results
+     */
+    @SuppressWarnings("unchecked")
+    public static <A, B, C, D, E, F, G, H, R> Parser<R> seq8(final Parser<A> pa, final Parser<B> pb, final Parser<C> pc,
+            final Parser<D> pd, final Parser<E> pe, final Parser<F> pf, final Parser<G> pg, final Parser<H> ph,
+            final Function8<A, B, C, D, E, F, G, H, R> f) {
+        return seq(values -> f.apply((A) values[0], (B) values[1], (C) values[2], (D) values[3], (E) values[4],
+                (F) values[5], (G) values[6], (H) values[7]), pa, pb, pc, pd, pe, pf, pg, ph);
+    }
+
+    private static <R> Parser<R> seq(final Function<Object[], Object> function, final Parser<?>... parsers) {
+        final List<Node> nodes = new ArrayList<>(parsers.length);
+        final int[] args = new int[parsers.length];
+        for (int i = 0; i < parsers.length; ++i) {
+            nodes.add(parsers[i].node());
+            args[i] = i;
+        }
+        return new Parser<>(new SeqNode(nodes, Combiner.of(function, args)));
+    }
+
+    /**
+     * Parser of the empty heterogeneous list, the end of a chain of
+     * {@code hcons}
+     *
+     * @return a parser that consumes nothing and returns {@code HNil}
+     */
+    public static Parser<HNil> hnil() {
+        return new Parser<>(new PureNode(HNil.nil()));
+    }
+
+    /**
+     * Run a parser and then a parser of a heterogeneous list, and put the
+     * first result in front of the list.
+     * <p>
+     * A chain of {@code hcons} ending with {@code hnil} is a single flat
+     * sequence, its results are kept in one array and the list is built once
+     * at the end, unlike a chain of {@code and} that nests a pair per step.
+     * the list can be consumed by {@code mapN} without being built at all
+     * </p>
+     *
+     * @param head parser of the first element
+     * @param tail parser of the rest of the list
+     * @return a parser that when succeed returns the whole list
+     */
+    @SuppressWarnings("unchecked")
+    public static <A, L extends HList<L>> Parser<HCons<A, L>> hcons(final Parser<A> head, final Parser<L> tail) {
+        final Node rest = tail.node();
+        final List<Node> nodes = new ArrayList<>();
+        nodes.add(head.node());
+        if (isHList(rest)) {
+            nodes.addAll(rest.children());
+        } else if (!(rest instanceof PureNode && ((PureNode) rest).value() == HNil.nil())) {
+            return new Parser<>(new SeqNode(Arrays.asList(head.node(), rest),
+                    Combiner.of(values -> new HCons<>(values[0], (L) values[1]), 0, 1)));
+        }
+        final int[] args = new int[nodes.size()];
+        for (int i = 0; i < args.length; ++i) {
+            args[i] = i;
+        }
+        return new Parser<>(new SeqNode(nodes, Combiner.of(TO_HLIST, args)));
+    }
+
+    /**
+     * Combine the elements of a parsed heterogeneous list, the list isn't
+     * built when the parser is a chain of {@code hcons}
+     *
+     * @param parser parser of a list of 2 elements
+     * @param f      function combining the elements
+     * @return a parser that when succeed returns the combined elements
+     */
+    @SuppressWarnings("unchecked")
+    public static <A, B, R> Parser<R> mapN(final Parser<HCons<A, HCons<B, HNil>>> parser,
+            final BiFunction<A, B, R> f) {
+        return mapHList(parser, 2, values -> f.apply((A) values[0], (B) values[1]));
+    }
+
+    /**
+     * Same as {@code mapN} with a list of 3 elements
+     *
+     * @param parser parser of the list
+     * @param f      function combining the elements
+     * @return a parser that when succeed returns the combined elements
+     */
+    @SuppressWarnings("unchecked")
+    public static <A, B, C, R> Parser<R> mapN(final Parser<HCons<A, HCons<B, HCons<C, HNil>>>> parser,
+            final Function3<A, B, C, R> f) {
+        return mapHList(parser, 3, values -> f.apply((A) values[0], (B) values[1], (C) values[2]));
+    }
+
+    /**
+     * Same as {@code mapN} with a list of 4 elements
+     *
+     * @param parser parser of the list
+     * @param f      function combining the elements
+     * @return a parser that when succeed returns the combined elements
+     */
+    @SuppressWarnings("unchecked")
+    public static <A, B, C, D, R> Parser<R> mapN(
+            final Parser<HCons<A, HCons<B, HCons<C, HCons<D, HNil>>>>> parser,
+            final Function4<A, B, C, D, R> f) {
+        return mapHList(parser, 4, values -> f.apply((A) values[0], (B) values[1], (C) values[2], (D) values[3]));
+    }
+
+    /**
+     * Same as {@code mapN} with a list of 5 elements
+     *
+     * @param parser parser of the list
+     * @param f      function combining the elements
+     * @return a parser that when succeed returns the combined elements
+     */
+    @SuppressWarnings("unchecked")
+    public static <A, B, C, D, E, R> Parser<R> mapN(
+            final Parser<HCons<A, HCons<B, HCons<C, HCons<D, HCons<E, HNil>>>>>> parser,
+            final Function5<A, B, C, D, E, R> f) {
+        return mapHList(parser, 5, values -> f.apply((A) values[0], (B) values[1], (C) values[2], (D) values[3],
+                (E) values[4]));
+    }
+
+    /**
+     * Same as {@code mapN} with a list of 6 elements
+     *
+     * @param parser parser of the list
+     * @param f      function combining the elements
+     * @return a parser that when succeed returns the combined elements
+     */
+    @SuppressWarnings("unchecked")
+    public static <A, B, C, D, E, F, R> Parser<R> mapN(
+            final Parser<HCons<A, HCons<B, HCons<C, HCons<D, HCons<E, HCons<F, HNil>>>>>>> parser,
+            final Function6<A, B, C, D, E, F, R> f) {
+        return mapHList(parser, 6, values -> f.apply((A) values[0], (B) values[1], (C) values[2], (D) values[3],
+                (E) values[4], (F) values[5]));
+    }
+
+    /**
+     * Same as {@code mapN} with a list of 7 elements
+     *
+     * @param parser parser of the list
+     * @param f      function combining the elements
+     * @return a parser that when succeed returns the combined elements
+     */
+    @SuppressWarnings("unchecked")
+    public static <A, B, C, D, E, F, G, R> Parser<R> mapN(
+            final Parser<HCons<A, HCons<B, HCons<C, HCons<D, HCons<E, HCons<F, HCons<G, HNil>>>>>>>> parser,
+            final Function7<A, B, C, D, E, F, G, R> f) {
+        return mapHList(parser, 7, values -> f.apply((A) values[0], (B) values[1], (C) values[2], (D) values[3],
+                (E) values[4], (F) values[5], (G) values[6]));
+    }
+
+    /**
+     * Same as {@code mapN} with a list of 8 elements
+     *
+     * @param parser parser of the list
+     * @param f      function combining the elements
+     * @return a parser that when succeed returns the combined elements
+     */
+    @SuppressWarnings("unchecked")
+    public static <A, B, C, D, E, F, G, H, R> Parser<R> mapN(
+            final Parser<HCons<A, HCons<B, HCons<C, HCons<D, HCons<E, HCons<F, HCons<G, HCons<H, HNil>>>>>>>>> parser,
+            final Function8<A, B, C, D, E, F, G, H, R> f) {
+        return mapHList(parser, 8, values -> f.apply((A) values[0], (B) values[1], (C) values[2], (D) values[3],
+                (E) values[4], (F) values[5], (G) values[6], (H) values[7]));
+    }
+
+    /*
+     * a flat chain of hcons gets the function in place of the list, any
+     * other parser of a list is mapped over the list it returns
+     */
+    @SuppressWarnings("unchecked")
+    private static <R> Parser<R> mapHList(final Parser<?> parser, final int size,
+            final Function<Object[], Object> function) {
+        final Node node = parser.node();
+        if (isHList(node) && ((SeqNode) node).combiner().arity() == size) {
+            return new Parser<>(new SeqNode(node.children(), Combiner.of(function, ((SeqNode) node).combiner().args())));
+        }
+        return parser.map(list -> {
+            final Object[] values = new Object[size];
+            Object rest = list;
+            for (int i = 0; i < size; ++i) {
+                final HCons<?, ?> cons = (HCons<?, ?>) rest;
+                values[i] = cons.head;
+                rest = cons.tail;
             }
-            return new Success<>(new Pair<>(Unit.get(), currentInput));
-        };
-        return new Parser<>(innerFunc);
+            return (R) function.apply(values);
+        });
+    }
+
+    private static boolean isHList(final Node node) {
+        return node instanceof SeqNode && ((SeqNode) node).combiner().function() == TO_HLIST;
+    }
+
+    /**
+     * Same as {@code skipMany(ParserBuilder.satisfy(charClass))} but scans
+     * the input directly instead of running a parser per character
+     *
+     * @param charClass characters to skip
+     * @return a parser that will consume all the leading characters that
+     * belong to the class
+     */
+    public static Parser<Unit> skipWhile(final CharClass charClass) {
+        return new Parser<>(new SkipWhileNode(charClass, false));
     }
 
     /**
@@ -113,8 +542,7 @@ public class Combinator {
      * @return parser that will clean the input stream
      */
     public static Parser<Unit> spaces() {
-        Parser<Character> spaceParser = ParserBuilder.anyCharOf("\n\t \r");
-        return Combinator.skipMany(spaceParser);
+        return Combinator.skipWhile(CharClass.SPACES);
     }
 
     /**
@@ -124,7 +552,8 @@ public class Combinator {
      */
     public static Parser<String> stringParser() {
         String alpha = "abcdefghijklmnopqrstuvwxyz ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789()#@-_+-*&^%$!~?<>,";
-        Parser<Character> charParser = ParserBuilder.anyCharOf(alpha);
-        return Combinator.many(charParser).map(l -> l.foldLeft("", (acc, c) -> acc + String.valueOf(c)));
+        Parser<Character> charParser = ParserBuilder.satisfy(CharClass.of(alpha));
+        return Combinator.skipMany(charParser).slice();
     }
+
 }
@@ -1,17 +1,17 @@
 package edu.parsec.parser.combinators;
 
-import edu.parsec.data.list.IList;
-import edu.parsec.data.pair.Pair;
-import edu.parsec.data.result.Failure;
-import edu.parsec.data.result.Result;
-import edu.parsec.data.result.Success;
 import edu.parsec.data.unit.Unit;
+import edu.parsec.parser.grammar.CharNode;
+import edu.parsec.parser.grammar.LiteralNode;
+import edu.parsec.parser.grammar.LiteralSetNode;
+import edu.parsec.parser.grammar.NumberNode;
+import edu.parsec.parser.grammar.PureNode;
+import edu.parsec.parser.grammar.SatisfyNode;
 import edu.parsec.parser.imp.Parser;
 
 import java.util.List;
-import java.util.Optional;
-import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.function.DoubleFunction;
+import java.util.function.LongFunction;
 
 /**
  * This class is responsible for any parser construction
@@ -31,13 +31,32 @@ public class ParserBuilder {
      * Given a string, this method will return a parser that when run will
      * return success if it manages to parse the string from the input
      * characters or failure otherwise
+     * <p>
+     * The string is compared with the input in place and the returned value
+     * is the interned string itself, so a successful match costs no copy
+     * </p>
      *
      * @param expectedString the target string to parse
      * @return parser that will parse the string when it run
      */
     public static Parser<String> parseString(final String expectedString) {
-        IList<Character> list = IList.of(expectedString);
-        return UnitParser().mapM(ParserBuilder::parseChar, list).map(ParserBuilder::charIListToString);
+        return new Parser<>(new LiteralNode(expectedString));
+    }
+
+    /**
+     * Return a parser that will parse any of the given strings.
+     * <p>
+     * The strings are compiled into a prefix tree, so the input is scanned
+     * once whatever the number of alternatives. when one string is a prefix
+     * of another the longest one found in the input wins
+     * </p>
+     *
+     * @param literals all the possible accepted strings
+     * @return a parser that when run will parse the longest of the given
+     * strings found in the input
+     */
+    public static Parser<String> oneOfLiterals(final String... literals) {
+        return new Parser<>(new LiteralSetNode(literals));
     }
 
     /**
@@ -47,11 +66,7 @@ public class ParserBuilder {
      * @see Unit
      */
     public static Parser<Unit> UnitParser() {
-        final Function<IList<Character>, Result<Pair<Unit, IList<Character>>>> innerFunc = inputChars -> {
-            final Pair<Unit, IList<Character>> unitPair = new Pair<>(Unit.get(), inputChars);
-            return new Success<>(unitPair);
-        };
-        return new Parser<>(innerFunc);
+        return new Parser<>(new PureNode(Unit.get()));
     }
 
     /**
@@ -62,16 +77,22 @@ public class ParserBuilder {
      * @return success if found the character and failure otherwise
      */
     public static Parser<Character> parseChar(final char c) {
-        final Function<IList<Character>, Result<Pair<Character, IList<Character>>>> innerFunc = inputChars -> {
-            if (inputChars.isEmpty()) {
-                return new Failure<>(String.format("Expected: '%c', we reached end of string\n", c));
-            } else if (inputChars.head() != c) {
-                return new Failure<>(String.format("Expected: '%c', found: '%c', in %s", c, inputChars.head(),
-                        inputChars.mkString("")));
-            }
-            return new Success<>(new Pair<>(c, inputChars.tail()));
-        };
-        return new Parser<>(innerFunc);
+        return new Parser<>(new CharNode(c));
+    }
+
+    /**
+     * Given a class of characters this function will return a parser that
+     * when run will parse any character of this class.
+     * <p>
+     * The membership test is a single lookup whatever the size of the class
+     * </p>
+     *
+     * @param charClass accepted characters
+     * @return success if the current character belongs to the class and
+     * failure otherwise
+     */
+    public static Parser<Character> satisfy(final CharClass charClass) {
+        return new Parser<>(new SatisfyNode(charClass));
     }
 
     /**
@@ -81,9 +102,7 @@ public class ParserBuilder {
      * @return parser that will parse any of the given characters
      */
     public static Parser<Character> anyCharOf(final List<Character> validChars) {
-        final Optional<Parser<Character>> result = validChars.stream().map(ParserBuilder::parseChar)
-                .reduce((x, y) -> x.or(() -> y));
-        return result.get();
+        return ParserBuilder.satisfy(CharClass.of(validChars));
     }
 
     /**
@@ -95,9 +114,7 @@ public class ParserBuilder {
      * string
      */
     public static Parser<Character> anyCharOf(final String choices) {
-        List<Character> validChars = choices.chars().mapToObj(e -> (char) e)
-                .collect(Collectors.toList());
-        return ParserBuilder.anyCharOf(validChars);
+        return ParserBuilder.satisfy(CharClass.of(choices));
     }
 
     /**
@@ -106,19 +123,52 @@ public class ParserBuilder {
      * @return a parser that when run will parse a single digit
      */
     public static Parser<Character> digitParser() {
-        return ParserBuilder.anyCharOf("0123456789");
+        return ParserBuilder.satisfy(CharClass.DIGITS);
     }
 
     /**
      * Basic parser that when run will parse a single integer
+     * <p>
+     * A number above {@code Integer.MAX_VALUE} fails the parse where it
+     * starts, expecting a number up to the maximum
+     * </p>
      *
      * @return parser that when run will try to consume an integer from the
      * input stream
      */
     public static <A> Parser<Integer> intParser() {
-        Parser<IList<Character>> digits = Combinator.many1(digitParser());
-        return digits.map(x -> x.foldLeft("", (acc, c) -> acc + String.valueOf(c)))
-                .map(Integer::parseInt);
+        return new Parser<>(NumberNode.integral(Math::toIntExact, Integer.MAX_VALUE));
+    }
+
+    /**
+     * Basic parser that when run will parse a single integer
+     * <p>
+     * A number above {@code Long.MAX_VALUE} fails the parse where it starts,
+     * expecting a number up to the maximum
+     * </p>
+     *
+     * @return parser that when run will try to consume an integer from the
+     * input stream
+     */
+    public static Parser<Long> longParser() {
+        return longParser(Long::valueOf);
+    }
+
+    /**
+     * Parse an integer and give its value to a function.
+     * <p>
+     * The digits are accumulated as they are scanned and the function gets
+     * the primitive value, so a value can be built from the number without
+     * boxing it. a number above {@code Long.MAX_VALUE} fails the parse
+     * </p>
+     *
+     * @param f   function building the value from the number
+     * @param <T> type of the built value
+     * @return parser that when run will try to consume an integer from the
+     * input stream
+     */
+    public static <T> Parser<T> longParser(final LongFunction<T> f) {
+        return new Parser<>(NumberNode.integral(f));
     }
 
     /**
@@ -140,16 +190,25 @@ public class ParserBuilder {
      * stream
      */
     public static <A> Parser<Double> doubleParser() {
-        Parser<Character> dot = ParserBuilder.parseChar('.');
-        Parser<IList<Character>> digits = Combinator.many1(digitParser());
-        Parser<IList<Character>> chars = (digits.and(() -> dot).map(pair -> pair.first.addFront(pair.second))
-                .and(() -> digits).map(pair -> pair.first.append(pair.second))).or(() -> digits);
-        return chars.map(l -> l.foldLeft("", (acc, c) -> acc + String.valueOf(c)))
-                .map(Double::parseDouble);
+        return doubleParser(Double::valueOf);
     }
 
-    private static String charIListToString(final IList<Character> list) {
-        return list.foldLeft("", (acc, c) -> acc + c.toString());
+    /**
+     * Parse a double and give its value to a function.
+     * <p>
+     * A double is digits optionally followed by a point and digits. the
+     * number is accumulated as it is scanned, only numbers with more digits
+     * than a double holds go through {@code Double.parseDouble}, and the
+     * function gets the primitive value
+     * </p>
+     *
+     * @param f   function building the value from the number
+     * @param <T> type of the built value
+     * @return parser that when run will try to consume a double from an input
+     * stream
+     */
+    public static <T> Parser<T> doubleParser(final DoubleFunction<T> f) {
+        return new Parser<>(NumberNode.decimal(f));
     }
 
 }
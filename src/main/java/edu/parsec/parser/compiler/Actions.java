@@ -0,0 +1,125 @@
+package edu.parsec.parser.compiler;
+
+import java.util.function.DoubleFunction;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+
+import edu.parsec.data.list.IList;
+import edu.parsec.data.pair.Pair;
+
+/**
+ * Helpers called by the parsers generated at build time.
+ * <p>
+ * The functions of the maps are copied in the generated source as they are
+ * written in the grammar, so a lambda needs the type of its parameter from
+ * the context it is written in. the type of every value is described by a
+ * witness, an expression of that type that is never evaluated, and these
+ * methods let the compiler infer the type of the lambda from it, the same
+ * way it infers it in the grammar.
+ * </p>
+ *
+ * @author Tarek Nawara
+ */
+public final class Actions {
+
+    private Actions() {
+    }
+
+    /**
+     * Apply the function of a map to a value.
+     *
+     * @param witness  expression of the type of the value, not used
+     * @param function the function of the map
+     * @param value    value parsed by the mapped parser
+     * @return the mapped value
+     */
+    @SuppressWarnings("unchecked")
+    public static <A, B> Object apply(final A witness, final Function<A, B> function, final Object value) {
+        return function.apply((A) value);
+    }
+
+    /**
+     * Witness of the values of a map.
+     *
+     * @param witness  witness of the values of the mapped parser
+     * @param function the function of the map
+     * @return null, only the type matters
+     */
+    public static <A, B> B result(final A witness, final Function<A, B> function) {
+        return null;
+    }
+
+    /**
+     * Apply the function of an integer to its value.
+     *
+     * @param function the function given to {@code longParser}
+     * @param value    the parsed number
+     * @return the value built from the number
+     */
+    public static <B> Object applyLong(final LongFunction<B> function, final long value) {
+        return function.apply(value);
+    }
+
+    /**
+     * Apply the function of a double to its value.
+     *
+     * @param function the function given to {@code doubleParser}
+     * @param value    the parsed number
+     * @return the value built from the number
+     */
+    public static <B> Object applyDouble(final DoubleFunction<B> function, final double value) {
+        return function.apply(value);
+    }
+
+    /**
+     * Witness of the values of {@code longParser}.
+     *
+     * @param function the function given to {@code longParser}
+     * @return null, only the type matters
+     */
+    public static <B> B longResult(final LongFunction<B> function) {
+        return null;
+    }
+
+    /**
+     * Witness of the values of {@code doubleParser}.
+     *
+     * @param function the function given to {@code doubleParser}
+     * @return null, only the type matters
+     */
+    public static <B> B doubleResult(final DoubleFunction<B> function) {
+        return null;
+    }
+
+    /**
+     * Witness of the values of {@code many}.
+     *
+     * @param witness witness of the values of the repeated parser
+     * @return null, only the type matters
+     */
+    public static <A> IList<A> list(final A witness) {
+        return null;
+    }
+
+    /**
+     * Witness of the values of {@code and}.
+     *
+     * @param first  witness of the values of the first parser
+     * @param second witness of the values of the second parser
+     * @return null, only the type matters
+     */
+    public static <A, B> Pair<A, B> pair(final A first, final B second) {
+        return null;
+    }
+
+    /**
+     * Witness of the values of {@code choice}.
+     *
+     * @param witnesses witnesses of the values of the alternatives
+     * @return null, only the common type matters
+     */
+    @SafeVarargs
+    public static <T> T either(final T... witnesses) {
+        return null;
+    }
+}
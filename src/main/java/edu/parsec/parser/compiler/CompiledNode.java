@@ -0,0 +1,75 @@
+package edu.parsec.parser.compiler;
+
+import edu.parsec.data.input.Input;
+import edu.parsec.data.pair.Pair;
+import edu.parsec.data.result.Result;
+import edu.parsec.parser.grammar.Node;
+import edu.parsec.parser.imp.Lookahead;
+
+/**
+ * Node running a grammar through its generated class.
+ * <p>
+ * The node is opaque to the optimizer, its lookahead is the one of the
+ * grammar it was generated from. classes generated at build time don't
+ * carry their grammar, their lookahead is unknown.
+ * </p>
+ *
+ * @author Tarek Nawara
+ */
+public final class CompiledNode extends Node {
+
+    private final GeneratedParser prototype;
+    private final Node grammar;
+    private final String source;
+
+    CompiledNode(final GeneratedParser prototype, final Node grammar, final String source) {
+        this.prototype = prototype;
+        this.grammar = grammar;
+        this.source = source;
+    }
+
+    /**
+     * Node running a parser generated at build time.
+     *
+     * @param prototype an instance of the generated class, the state of its
+     *                  runs is created from it
+     */
+    public CompiledNode(final GeneratedParser prototype) {
+        this(prototype, null, null);
+    }
+
+    /**
+     * The grammar this node was generated from.
+     *
+     * @return the root of the original graph, null if the class was
+     * generated at build time
+     */
+    public Node grammar() {
+        return grammar;
+    }
+
+    /**
+     * The source of the generated class, mostly useful to debug a grammar.
+     *
+     * @return the generated Java source, null if the class was generated
+     * at build time
+     */
+    public String source() {
+        return source;
+    }
+
+    @Override
+    public Result<Pair<Object, Input>> parse(final Input inputChars) {
+        return prototype.newRun(inputChars).parse();
+    }
+
+    @Override
+    protected Lookahead computeLookahead() {
+        return grammar == null ? Lookahead.UNKNOWN : grammar.lookahead();
+    }
+
+    @Override
+    public String toString() {
+        return "Compiled(" + prototype.getClass().getName() + ")";
+    }
+}
@@ -0,0 +1,121 @@
+package edu.parsec.parser.compiler;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import edu.parsec.data.input.Input;
+import edu.parsec.data.list.Cons;
+import edu.parsec.data.list.Empty;
+import edu.parsec.data.list.IList;
+import edu.parsec.data.pair.Pair;
+import edu.parsec.data.result.Result;
+import edu.parsec.parser.grammar.Node;
+import edu.parsec.parser.grammar.ParseState;
+
+/**
+ * Base class of the parsers generated by {@link SourceGenerator}.
+ * <p>
+ * A generated parser has one method per node of the grammar. the methods
+ * take the offset to parse at and return the offset after the consumed
+ * characters, or -1 on failure, like {@code Node.parse(ParseState, int)}.
+ * an instance holds the state of a single run, a new one is created for
+ * every run with {@code newRun}, and nodes that were not generated run on
+ * the same state.
+ * </p>
+ *
+ * @author Tarek Nawara
+ */
+public abstract class GeneratedParser extends ParseState {
+
+    private static final Map<String, Object[]> PENDING_CONSTANTS = new ConcurrentHashMap<>();
+
+    /**
+     * Construct the state of a run.
+     *
+     * @param start cursor the run starts at, null for the prototype of a
+     *              generated class
+     */
+    protected GeneratedParser(final Input start) {
+        super(start);
+    }
+
+    /**
+     * Create the state of a new run of the same grammar.
+     *
+     * @param inputChars cursor the run starts at
+     * @return a fresh parser of the same generated class
+     */
+    protected abstract GeneratedParser newRun(Input inputChars);
+
+    /**
+     * Parse the root of the grammar.
+     *
+     * @param offset where to start
+     * @return the offset after the consumed characters, or -1 on failure
+     */
+    protected abstract int root(int offset);
+
+    /**
+     * Run the grammar from the start cursor of this run.
+     *
+     * @return the same result as the interpreted grammar
+     */
+    public final Result<Pair<Object, Input>> parse() {
+        return result(root(start.offset()));
+    }
+
+    /**
+     * Constants of a generated class, handed over by the compiler before
+     * the class is initialized.
+     *
+     * @param generated the generated class
+     * @return its constants
+     */
+    protected static Object[] constants(final Class<?> generated) {
+        return PENDING_CONSTANTS.remove(generated.getName());
+    }
+
+    static void bind(final String className, final Object[] constants) {
+        PENDING_CONSTANTS.put(className, constants);
+    }
+
+    static void unbind(final String className) {
+        PENDING_CONSTANTS.remove(className);
+    }
+
+    /**
+     * Run a node that was not generated, like a parser given as a function.
+     *
+     * @param node   the node to run
+     * @param offset where to run it
+     * @return the offset after the consumed characters, or -1 on failure
+     */
+    protected final int external(final Node node, final int offset) {
+        return node.parse(this, offset);
+    }
+
+    /**
+     * List of the characters between two offsets.
+     *
+     * @param from first offset, included
+     * @param to   last offset, excluded
+     * @return the characters in order
+     */
+    protected final IList<Character> chars(final int from, final int to) {
+        IList<Character> result = new Empty<>();
+        for (int i = to - 1; i >= from; --i) {
+            result = new Cons<>(source.charAt(i), result);
+        }
+        return result;
+    }
+
+    /**
+     * List of the values collected by a repetition.
+     *
+     * @param values the builder of the values, null if there are none
+     * @return the values as an {@code IList}
+     */
+    protected static IList<Object> list(final IList.Builder<Object> values) {
+        return values == null ? new Empty<>() : values.build();
+    }
+}
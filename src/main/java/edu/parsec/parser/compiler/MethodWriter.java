@@ -0,0 +1,557 @@
+package edu.parsec.parser.compiler;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import edu.parsec.parser.grammar.AltNode;
+import edu.parsec.parser.grammar.CharNode;
+import edu.parsec.parser.grammar.CharSpanNode;
+import edu.parsec.parser.grammar.CollectNode;
+import edu.parsec.parser.grammar.Combiner;
+import edu.parsec.parser.grammar.FlatMapNode;
+import edu.parsec.parser.grammar.LiteralNode;
+import edu.parsec.parser.grammar.LiteralSetNode;
+import edu.parsec.parser.grammar.ManyNode;
+import edu.parsec.parser.grammar.MapNode;
+import edu.parsec.parser.grammar.MemoNode;
+import edu.parsec.parser.grammar.Node;
+import edu.parsec.parser.grammar.NumberNode;
+import edu.parsec.parser.grammar.PureNode;
+import edu.parsec.parser.grammar.RefNode;
+import edu.parsec.parser.grammar.SatisfyNode;
+import edu.parsec.parser.grammar.SeqNode;
+import edu.parsec.parser.grammar.SkipManyNode;
+import edu.parsec.parser.grammar.SkipWhileNode;
+import edu.parsec.parser.grammar.SliceNode;
+import edu.parsec.parser.imp.Lookahead;
+
+/**
+ * Writes the methods of a generated parser, one per node of the grammar.
+ * <p>
+ * The methods only use the members of {@link GeneratedParser} and fully
+ * qualified names, so they can be placed in any class extending it. how the
+ * objects of the grammar, like the character classes or the functions of
+ * the maps, get into the class is left to the subclasses. every type in the
+ * generated code is fully qualified for the same reason.
+ * </p>
+ *
+ * @author Tarek Nawara
+ */
+public abstract class MethodWriter {
+
+    private final Map<Node, Integer> ids = new IdentityHashMap<>();
+    private final List<Node> nodes = new ArrayList<>();
+    private int written;
+
+    /**
+     * Name of the method parsing the given node, the method is written by
+     * the next call to {@code methods}.
+     *
+     * @param node node of the grammar, references are followed
+     * @return name of a method taking the offset and returning the offset
+     * after the parsed characters or -1
+     */
+    public final String call(final Node node) {
+        final Node target = resolve(node);
+        Integer id = ids.get(target);
+        if (id == null) {
+            id = nodes.size();
+            ids.put(target, id);
+            nodes.add(target);
+        }
+        return "p" + id;
+    }
+
+    /**
+     * Write the methods of all the nodes named so far and of the nodes they
+     * call.
+     *
+     * @return the source of the methods
+     */
+    public final String methods() {
+        final StringBuilder out = new StringBuilder();
+        for (; written < nodes.size(); ++written) {
+            method(nodes.get(written), written, out);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Expression of a constant of the grammar.
+     *
+     * @param value the object to refer to
+     * @param type  fully qualified type the expression must have
+     * @return expression evaluating to the constant
+     */
+    protected abstract String constant(Object value, String type);
+
+    /**
+     * Expression applying the function of a map to a value.
+     *
+     * @param function the function of the map
+     * @param argument expression of the value
+     * @return expression of the mapped value
+     */
+    protected String apply(final Object function, final String argument) {
+        return constant(function, "java.util.function.Function<Object, Object>") + ".apply(" + argument + ")";
+    }
+
+    /**
+     * Expression applying the function of a number to its value.
+     *
+     * @param function a {@code LongFunction} or a {@code DoubleFunction}
+     * @param decimal  whether the function takes a double
+     * @param argument expression of the primitive value
+     * @return expression of the value of the number
+     */
+    protected String applyNumber(final Object function, final boolean decimal, final String argument) {
+        final String type = decimal ? "java.util.function.DoubleFunction<?>" : "java.util.function.LongFunction<?>";
+        return constant(function, type) + ".apply(" + argument + ")";
+    }
+
+    /**
+     * Expression building the value of a sequence.
+     *
+     * @param combiner  combiner of the sequence, never a pick
+     * @param arguments expressions of the values of its arguments in order
+     * @return expression of the value of the sequence
+     */
+    protected String combine(final Combiner combiner, final List<String> arguments) {
+        return constant(combiner, "edu.parsec.parser.grammar.Combiner") + ".combine(new Object[]{"
+                + String.join(", ", arguments) + "})";
+    }
+
+    private void method(final Node node, final int id, final StringBuilder out) {
+        out.append("\n    // ").append(node.getClass().getSimpleName()).append('\n');
+        out.append("    private int p").append(id).append("(final int pos) {\n");
+        final Body body = new Body(out);
+        if (node instanceof CharNode) {
+            charNode((CharNode) node, body);
+        } else if (node instanceof SatisfyNode) {
+            satisfy((SatisfyNode) node, body);
+        } else if (node instanceof LiteralNode) {
+            literal((LiteralNode) node, body);
+        } else if (node instanceof LiteralSetNode) {
+            literalSet((LiteralSetNode) node, body);
+        } else if (node instanceof PureNode) {
+            body.line("value = " + constant(((PureNode) node).value(), "Object") + ";");
+            body.line("return pos;");
+        } else if (node instanceof SeqNode) {
+            sequence((SeqNode) node, body);
+        } else if (node instanceof AltNode) {
+            choice((AltNode) node, id, body, out);
+            return;
+        } else if (node instanceof MapNode) {
+            map((MapNode) node, body);
+        } else if (node instanceof FlatMapNode) {
+            flatMap((FlatMapNode) node, body);
+        } else if (node instanceof ManyNode) {
+            many((ManyNode) node, body);
+        } else if (node instanceof CollectNode) {
+            collect((CollectNode) node, body);
+        } else if (node instanceof SkipManyNode) {
+            skipMany((SkipManyNode) node, body);
+        } else if (node instanceof SkipWhileNode) {
+            skipWhile((SkipWhileNode) node, body);
+        } else if (node instanceof CharSpanNode) {
+            charSpan((CharSpanNode) node, body);
+        } else if (node instanceof NumberNode) {
+            number((NumberNode) node, body);
+        } else if (node instanceof SliceNode) {
+            slice((SliceNode) node, body);
+        } else if (node instanceof MemoNode) {
+            memo((MemoNode) node, body);
+        } else {
+            body.line("return external(" + constant(node, "edu.parsec.parser.grammar.Node") + ", pos);");
+        }
+        out.append("    }\n");
+    }
+
+    private void charNode(final CharNode node, final Body body) {
+        final String expected = expected(node);
+        body.open("if (pos < length && source.charAt(pos) == " + (int) node.character() + ")");
+        body.line("value = " + constant(node.character(), "Character") + ";");
+        body.line("return pos + 1;");
+        body.close();
+        body.line("return fail(pos, " + expected + ");");
+    }
+
+    private void satisfy(final SatisfyNode node, final Body body) {
+        final String expected = expected(node);
+        final String charClass = constant(node.charClass(), "edu.parsec.parser.combinators.CharClass");
+        body.open("if (pos < length)");
+        body.line("final char c = source.charAt(pos);");
+        body.open("if (" + charClass + ".contains(c))");
+        body.line("value = c;");
+        body.line("return pos + 1;");
+        body.close();
+        body.close();
+        body.line("return fail(pos, " + expected + ");");
+    }
+
+    private void literal(final LiteralNode node, final Body body) {
+        final String literal = constant(node.literal(), "String");
+        body.open("if (startsWith(pos, " + literal + "))");
+        body.line("value = " + literal + ";");
+        body.line("return pos + " + node.literal().length() + ";");
+        body.close();
+        body.line("return fail(pos, " + expected(node) + ");");
+    }
+
+    private void literalSet(final LiteralSetNode node, final Body body) {
+        body.line("final String match = " + constant(node, "edu.parsec.parser.grammar.LiteralSetNode")
+                + ".longestMatch(source, pos);");
+        body.open("if (match != null)");
+        body.line("value = match;");
+        body.line("return pos + match.length();");
+        body.close();
+        body.line("return fail(pos, " + expected(node) + ");");
+    }
+
+    private void sequence(final SeqNode node, final Body body) {
+        final List<Node> items = node.children();
+        final Combiner combiner = node.combiner();
+        for (int slot = 0; slot < combiner.arity(); ++slot) {
+            body.line("Object a" + slot + " = null;");
+        }
+        body.line("int at = pos;");
+        for (int i = 0; i < items.size(); ++i) {
+            body.line("at = " + call(items.get(i)) + "(at);");
+            body.open("if (at < 0)");
+            body.line("return -1;");
+            body.close();
+            final int slot = combiner.slot(i);
+            if (slot >= 0) {
+                body.line("a" + slot + " = value;");
+            }
+        }
+        if (combiner.isPick()) {
+            body.line("value = a0;");
+        } else {
+            final List<String> args = new ArrayList<>(combiner.arity());
+            for (int slot = 0; slot < combiner.arity(); ++slot) {
+                args.add("a" + slot);
+            }
+            body.line("value = " + combine(combiner, args) + ";");
+        }
+        body.line("return at;");
+    }
+
+    private void choice(final AltNode node, final int id, final Body body, final StringBuilder out) {
+        final List<Node> alternatives = node.children();
+        final List<String> guards = new ArrayList<>(alternatives.size());
+        boolean alwaysTried = false;
+        for (final Node alternative : alternatives) {
+            final String guard = node.isDispatched() ? guard(alternative.lookahead()) : null;
+            alwaysTried |= guard == null;
+            guards.add(guard);
+        }
+        final boolean reports = guards.stream().anyMatch(guard -> guard != null);
+        final boolean grouped = !node.groups().isEmpty();
+        body.line("final int c = pos < length ? source.charAt(pos) : -1;");
+        body.line("int end;");
+        for (int i = 0; i < alternatives.size(); ++i) {
+            if (guards.get(i) != null) {
+                body.open("if (" + guards.get(i) + ")");
+            }
+            body.line("end = " + call(alternatives.get(i)) + "(pos);");
+            body.open("if (end >= 0)");
+            if (reports) {
+                body.open("if (end == pos)");
+                body.line("s" + id + "(pos, c" + (grouped ? ", " + i : "") + ");");
+                body.close();
+            }
+            body.line("return end;");
+            body.close();
+            if (guards.get(i) != null) {
+                body.close();
+            }
+        }
+        if (reports) {
+            body.line("s" + id + "(pos, c" + (grouped ? ", " + alternatives.size() : "") + ");");
+        }
+        if (!alwaysTried) {
+            body.open("if (!(" + String.join(" || ", guards) + "))");
+            body.line("return fail(pos, " + expected(node) + ");");
+            body.close();
+        }
+        body.line("return -1;");
+        out.append("    }\n");
+        if (reports) {
+            out.append("\n    private void s").append(id).append("(final int pos, final int c")
+                    .append(grouped ? ", final int w" : "").append(") {\n");
+            final Body skipped = new Body(out);
+            for (int i = 0; i < alternatives.size(); ++i) {
+                if (guards.get(i) != null) {
+                    skipped.open("if (!(" + guards.get(i) + ")" + hidden(node, i, guards) + ")");
+                    skipped.line("report(pos, " + expected(alternatives.get(i)) + ");");
+                    skipped.close();
+                }
+            }
+            out.append("    }\n");
+        }
+    }
+
+    /*
+     * conditions under which the groups hide a skipped alternative, given
+     * the winner w, see AltNode.Group
+     */
+    private static String hidden(final AltNode node, final int alternative, final List<String> guards) {
+        final StringBuilder conditions = new StringBuilder();
+        for (final AltNode.Group group : node.groups()) {
+            if (alternative < group.from() || alternative >= group.to()) {
+                continue;
+            }
+            final List<String> members = guards.subList(group.from(), group.to());
+            final String tried = members.contains(null) ? "true" : "(" + String.join(" || ", members) + ")";
+            conditions.append(" && !(w >= ").append(group.parentFrom()).append(" && w < ").append(group.from())
+                    .append(" && ").append(tried).append(")");
+        }
+        return conditions.toString();
+    }
+
+    /*
+     * condition under which an alternative is tried, null if it always is
+     */
+    private String guard(final Lookahead lookahead) {
+        if (lookahead.isNullable() || lookahead.first() == null) {
+            return null;
+        }
+        return "(c >= 0 && " + constant(lookahead.first(), "edu.parsec.parser.combinators.CharClass")
+                + ".contains((char) c))";
+    }
+
+    private void map(final MapNode node, final Body body) {
+        body.line("final int end = " + call(node.parser()) + "(pos);");
+        body.open("if (end >= 0)");
+        body.line("value = " + apply(node.function(), "value") + ";");
+        body.close();
+        body.line("return end;");
+    }
+
+    private void flatMap(final FlatMapNode node, final Body body) {
+        final String function = constant(node.function(),
+                "java.util.function.Function<Object, ? extends edu.parsec.parser.imp.Parser<?>>");
+        body.line("final int end = " + call(node.parser()) + "(pos);");
+        body.open("if (end < 0)");
+        body.line("return -1;");
+        body.close();
+        body.line("return external(" + function + ".apply(value).node(), end);");
+    }
+
+    private void many(final ManyNode node, final Body body) {
+        body.line("edu.parsec.data.list.IList.Builder<Object> values = null;");
+        body.line("int at = pos;");
+        body.open("while (true)");
+        body.line("final int end = " + call(node.parser()) + "(at);");
+        body.open("if (end < 0)");
+        if (node.atLeastOne()) {
+            body.open("if (values == null)");
+            body.line("return -1;");
+            body.close();
+        }
+        body.line("break;");
+        body.close();
+        body.open("if (values == null)");
+        body.line("values = new edu.parsec.data.list.IList.Builder<>();");
+        body.close();
+        body.line("values.add(value);");
+        body.open("if (end == at)");
+        body.line("break;");
+        body.close();
+        body.line("at = end;");
+        body.close();
+        body.line("value = list(values);");
+        body.line("return at;");
+    }
+
+    private void collect(final CollectNode node, final Body body) {
+        final String collector = constant(node.collector(), "java.util.stream.Collector<Object, Object, Object>");
+        body.line("final java.util.function.BiConsumer<Object, Object> accumulator = " + collector
+                + ".accumulator();");
+        body.line("final Object container = " + collector + ".supplier().get();");
+        if (node.atLeastOne()) {
+            body.line("boolean any = false;");
+        }
+        body.line("int at = pos;");
+        body.open("while (true)");
+        body.line("final int end = " + call(node.parser()) + "(at);");
+        body.open("if (end < 0)");
+        if (node.atLeastOne()) {
+            body.open("if (!any)");
+            body.line("return -1;");
+            body.close();
+        }
+        body.line("break;");
+        body.close();
+        body.line("accumulator.accept(container, value);");
+        if (node.atLeastOne()) {
+            body.line("any = true;");
+        }
+        body.open("if (end == at)");
+        body.line("break;");
+        body.close();
+        body.line("at = end;");
+        body.close();
+        body.line("value = " + collector + ".finisher().apply(container);");
+        body.line("return at;");
+    }
+
+    private void skipMany(final SkipManyNode node, final Body body) {
+        body.line("int at = pos;");
+        body.open("while (true)");
+        body.line("final int end = " + call(node.parser()) + "(at);");
+        body.open("if (end < 0 || end == at)");
+        body.line("break;");
+        body.close();
+        body.line("at = end;");
+        body.close();
+        body.line("value = edu.parsec.data.unit.Unit.get();");
+        body.line("return at;");
+    }
+
+    private void skipWhile(final SkipWhileNode node, final Body body) {
+        scan(node.charClass(), body);
+        if (node.reportsStop()) {
+            final Collection<String> reported = Collections.singletonList(node.charClass().toString());
+            body.line("report(at, " + constant(reported, "java.util.Collection<String>") + ");");
+        }
+        body.line("value = edu.parsec.data.unit.Unit.get();");
+        body.line("return at;");
+    }
+
+    private void charSpan(final CharSpanNode node, final Body body) {
+        final String expected = expected(node);
+        scan(node.charClass(), body);
+        if (node.atLeastOne()) {
+            body.open("if (at == pos)");
+            body.line("return fail(at, " + expected + ");");
+            body.close();
+        }
+        body.line("report(at, " + expected + ");");
+        body.line(node.isCharList() ? "value = edu.parsec.data.list.CharList.of(source, pos, at);"
+                : "value = chars(pos, at);");
+        body.line("return at;");
+    }
+
+    private void number(final NumberNode node, final Body body) {
+        final String numbers = "edu.parsec.parser.grammar.NumberNode";
+        final String digits = constant(NumberNode.DIGITS, "java.util.Collection<String>");
+        body.line("final int whole = " + numbers + ".digits(source, pos);");
+        body.open("if (whole == pos)");
+        body.line("return fail(pos, " + digits + ");");
+        body.close();
+        if (!node.isDecimal()) {
+            body.open("if (!" + numbers + ".fits(source, pos, whole, " + node.max() + "L))");
+            body.line("return fail(pos, " + constant(node.overflow(), "java.util.Collection<String>") + ");");
+            body.close();
+        }
+        body.line("report(whole, " + digits + ");");
+        if (node.function() == null) {
+            body.line("value = null;");
+        }
+        if (!node.isDecimal()) {
+            if (node.function() != null) {
+                body.line("value = " + applyNumber(node.function(), false, numbers + ".toLong(source, pos, whole)")
+                        + ";");
+            }
+            body.line("return whole;");
+            return;
+        }
+        body.line("final boolean point = whole < length && source.charAt(whole) == '.';");
+        body.open("if (!point)");
+        body.line("report(whole, " + constant(NumberNode.POINT, "java.util.Collection<String>") + ");");
+        body.close();
+        body.line("int end = whole;");
+        body.open("if (point)");
+        body.line("final int fraction = " + numbers + ".digits(source, whole + 1);");
+        body.line("report(fraction, " + digits + ");");
+        body.open("if (fraction > whole + 1)");
+        body.line("end = fraction;");
+        body.close();
+        body.close();
+        if (node.function() != null) {
+            body.line("value = " + applyNumber(node.function(), true, numbers + ".toDouble(source, pos, end)") + ";");
+        }
+        body.line("return end;");
+    }
+
+    private void slice(final SliceNode node, final Body body) {
+        body.line("final int end = " + call(node.parser()) + "(pos);");
+        body.open("if (end >= 0)");
+        body.line("value = source.subSequence(pos, end).toString();");
+        body.close();
+        body.line("return end;");
+    }
+
+    private void scan(final Object charClass, final Body body) {
+        final String name = constant(charClass, "edu.parsec.parser.combinators.CharClass");
+        body.line("int at = pos;");
+        body.open("while (at < length && " + name + ".contains(source.charAt(at)))");
+        body.line("++at;");
+        body.close();
+    }
+
+    private void memo(final MemoNode node, final Body body) {
+        final String owner = constant(new Object(), "Object");
+        body.line("final java.util.Map<Integer, Object> table = memoTable(" + owner + ", " + node.maxEntries()
+                + ");");
+        body.line("final Object saved = table.get(pos);");
+        body.open("if (saved != null)");
+        body.line("return restore(saved);");
+        body.close();
+        body.line("final int end = " + call(node.parser()) + "(pos);");
+        body.line("table.put(pos, save(end));");
+        body.line("return end;");
+    }
+
+    private String expected(final Node node) {
+        return constant(node.lookahead().expected(), "java.util.Collection<String>");
+    }
+
+    private static Node resolve(final Node node) {
+        Node current = node;
+        final Set<Node> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        while (current instanceof RefNode) {
+            if (!seen.add(current)) {
+                throw new IllegalStateException("Parser reference refers to itself");
+            }
+            current = ((RefNode) current).target();
+        }
+        return current;
+    }
+
+    /*
+     * indented lines of a method body
+     */
+    private static final class Body {
+        private final StringBuilder out;
+        private int depth = 2;
+
+        Body(final StringBuilder out) {
+            this.out = out;
+        }
+
+        void line(final String line) {
+            for (int i = 0; i < depth; ++i) {
+                out.append("    ");
+            }
+            out.append(line).append('\n');
+        }
+
+        void open(final String header) {
+            line(header + " {");
+            ++depth;
+        }
+
+        void close() {
+            --depth;
+            line("}");
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package edu.parsec.parser.compiler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.security.CodeSource;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import edu.parsec.parser.grammar.Node;
+import edu.parsec.parser.imp.Parser;
+
+/**
+ * Compiles grammars to JVM classes at run time.
+ * <p>
+ * The grammar is translated to Java source by {@link SourceGenerator}, the
+ * source is compiled in memory by the compiler of the running JDK and the
+ * class is loaded by a class loader of its own. each grammar gets its own
+ * class, with straight calls between its methods, which the JIT can inline
+ * like a hand written recursive-descent parser.
+ * </p>
+ * <p>
+ * The backend is used by {@code Parser.compile} when the
+ * {@code edu.parsec.parser.codegen} system property is true. on a JRE that
+ * has no compiler, or when the generated class cannot be compiled or
+ * loaded, the grammars keep running on the interpreter.
+ * </p>
+ *
+ * @author Tarek Nawara
+ */
+public final class ParserCompiler {
+
+    /**
+     * System property enabling the backend in {@code Parser.compile}.
+     */
+    public static final String CODEGEN_PROPERTY = "edu.parsec.parser.codegen";
+
+    private static final String PACKAGE = "edu.parsec.parser.compiler.generated";
+    private static final AtomicInteger COUNTER = new AtomicInteger();
+
+    private ParserCompiler() {
+    }
+
+    /**
+     * Tests whether {@code Parser.compile} should generate classes.
+     *
+     * @return the value of the {@code edu.parsec.parser.codegen} property
+     */
+    public static boolean isEnabled() {
+        return Boolean.getBoolean(CODEGEN_PROPERTY);
+    }
+
+    /**
+     * Tests whether classes can be generated in this JVM.
+     *
+     * @return false if the running Java has no compiler
+     */
+    public static boolean isAvailable() {
+        return ToolProvider.getSystemJavaCompiler() != null;
+    }
+
+    /**
+     * Generate the class of a parser.
+     * <p>
+     * The parser should be optimized first, see {@code Parser.compile}. the
+     * generated parser gives the same results and reports the same errors as
+     * the given one
+     * </p>
+     *
+     * @param parser the parser to compile, its grammar must be complete
+     * @return a parser running the generated class, or the given parser if
+     * no compiler is available
+     */
+    public static <T> Parser<T> generate(final Parser<T> parser) {
+        return new Parser<>(generate(parser.node()));
+    }
+
+    /**
+     * Same as {@code generate(Parser)} for a grammar node.
+     *
+     * @param grammar the root of the grammar
+     * @return a node running the generated class, or the given node if no
+     * compiler is available or the class cannot be compiled or loaded
+     */
+    public static Node generate(final Node grammar) {
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            return grammar;
+        }
+        final SourceGenerator generator = new SourceGenerator(PACKAGE, "Grammar" + COUNTER.incrementAndGet(), grammar);
+        final Map<String, byte[]> classes = compile(compiler, generator);
+        if (classes.isEmpty()) {
+            return grammar;
+        }
+        final ClassLoader loader = new GeneratedClassLoader(classes);
+        GeneratedParser.bind(generator.qualifiedName(), generator.constants());
+        try {
+            final Class<?> generated = Class.forName(generator.qualifiedName(), true, loader);
+            final GeneratedParser prototype = (GeneratedParser) generated
+                    .getConstructor(edu.parsec.data.input.Input.class)
+                    .newInstance((Object) null);
+            return new CompiledNode(prototype, grammar, generator.source());
+        } catch (ReflectiveOperationException | LinkageError | ClassCastException e) {
+            return grammar;
+        } finally {
+            GeneratedParser.unbind(generator.qualifiedName());
+        }
+    }
+
+    /*
+     * the classes of the generated source, or none if javac rejects it,
+     * which happens when the library is not on a file system path javac can
+     * read, like inside a nested jar
+     */
+    private static Map<String, byte[]> compile(final JavaCompiler compiler, final SourceGenerator generator) {
+        final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        final StandardJavaFileManager standard = compiler.getStandardFileManager(diagnostics, null,
+                StandardCharsets.UTF_8);
+        try (MemoryFileManager files = new MemoryFileManager(standard)) {
+            final JavaFileObject unit = new SourceFile(generator.qualifiedName(), generator.source());
+            final List<String> options = Arrays.asList("-classpath", classpath(), "-g:none", "-nowarn");
+            final Boolean compiled = compiler.getTask(null, files, diagnostics, options, null,
+                    Collections.singletonList(unit)).call();
+            return Boolean.TRUE.equals(compiled) ? files.classes : Collections.<String, byte[]>emptyMap();
+        } catch (IOException | RuntimeException e) {
+            return Collections.emptyMap();
+        }
+    }
+
+    /*
+     * the class path of the application plus wherever this library was
+     * loaded from, the generated class only depends on the library
+     */
+    private static String classpath() {
+        final String classpath = System.getProperty("java.class.path", "");
+        final CodeSource codeSource = ParserCompiler.class.getProtectionDomain().getCodeSource();
+        if (codeSource == null) {
+            return classpath;
+        }
+        try {
+            final String library = new File(codeSource.getLocation().toURI()).getPath();
+            return classpath.isEmpty() ? library : library + File.pathSeparator + classpath;
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            return classpath;
+        }
+    }
+
+    private static final class SourceFile extends SimpleJavaFileObject {
+        private final String source;
+
+        SourceFile(final String className, final String source) {
+            super(URI.create("string:///" + className.replace('.', '/') + Kind.SOURCE.extension), Kind.SOURCE);
+            this.source = source;
+        }
+
+        @Override
+        public CharSequence getCharContent(final boolean ignoreEncodingErrors) {
+            return source;
+        }
+    }
+
+    private static final class ClassFile extends SimpleJavaFileObject {
+        private final String className;
+        private final Map<String, byte[]> classes;
+
+        ClassFile(final String className, final Map<String, byte[]> classes) {
+            super(URI.create("bytes:///" + className.replace('.', '/') + Kind.CLASS.extension), Kind.CLASS);
+            this.className = className;
+            this.classes = classes;
+        }
+
+        @Override
+        public OutputStream openOutputStream() {
+            return new ByteArrayOutputStream() {
+                @Override
+                public void close() {
+                    classes.put(className, toByteArray());
+                }
+            };
+        }
+    }
+
+    private static final class MemoryFileManager extends ForwardingJavaFileManager<JavaFileManager> {
+        private final Map<String, byte[]> classes = new ConcurrentHashMap<>();
+
+        MemoryFileManager(final JavaFileManager fileManager) {
+            super(fileManager);
+        }
+
+        @Override
+        public JavaFileObject getJavaFileForOutput(final Location location, final String className,
+                                                   final JavaFileObject.Kind kind, final FileObject sibling) {
+            return new ClassFile(className, classes);
+        }
+    }
+
+    private static final class GeneratedClassLoader extends ClassLoader {
+        private final Map<String, byte[]> classes;
+
+        GeneratedClassLoader(final Map<String, byte[]> classes) {
+            super(GeneratedParser.class.getClassLoader());
+            this.classes = classes;
+        }
+
+        @Override
+        protected Class<?> findClass(final String name) throws ClassNotFoundException {
+            final byte[] bytes = classes.get(name);
+            if (bytes == null) {
+                throw new ClassNotFoundException(name);
+            }
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+}
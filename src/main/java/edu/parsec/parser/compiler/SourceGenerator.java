@@ -0,0 +1,111 @@
+package edu.parsec.parser.compiler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.parsec.parser.grammar.Node;
+
+/**
+ * Translates a grammar graph into the Java source of a recursive-descent
+ * parser.
+ * <p>
+ * Every node reachable from the root becomes a method of a subclass of
+ * {@link GeneratedParser}, references become plain calls to the method of
+ * their target, so a recursive grammar becomes recursive methods. the
+ * objects the grammar is built from, like the functions of the maps or the
+ * character classes, can't be written as source, they are the constants of
+ * the class, given to it when it is loaded. nodes the generator doesn't
+ * know, like parsers given as functions, are run through the interpreter.
+ * the methods themselves are written by {@link MethodWriter}.
+ * </p>
+ *
+ * @author Tarek Nawara
+ */
+public final class SourceGenerator {
+
+    private final String packageName;
+    private final String className;
+    private final List<Object> constants = new ArrayList<>();
+    private final List<String> constantTypes = new ArrayList<>();
+    private final String source;
+
+    /**
+     * Generate the parser of the given grammar.
+     *
+     * @param packageName package of the generated class
+     * @param className   simple name of the generated class
+     * @param root        the grammar to translate, must be complete
+     */
+    public SourceGenerator(final String packageName, final String className, final Node root) {
+        this.packageName = packageName;
+        this.className = className;
+        this.source = generate(root);
+    }
+
+    /**
+     * The generated source.
+     *
+     * @return the source of a single compilation unit
+     */
+    public String source() {
+        return source;
+    }
+
+    /**
+     * Fully qualified name of the generated class.
+     *
+     * @return the class name
+     */
+    public String qualifiedName() {
+        return packageName + "." + className;
+    }
+
+    /**
+     * The constants the generated class must be loaded with.
+     *
+     * @return the constants in the order of their fields
+     */
+    public Object[] constants() {
+        return constants.toArray();
+    }
+
+    private String generate(final Node root) {
+        final MethodWriter writer = new MethodWriter() {
+            @Override
+            protected String constant(final Object value, final String type) {
+                constants.add(value);
+                constantTypes.add(type);
+                return "K" + (constants.size() - 1);
+            }
+        };
+        final String rootMethod = writer.call(root);
+        final String methods = writer.methods();
+        final StringBuilder out = new StringBuilder();
+        out.append("package ").append(packageName).append(";\n\n");
+        out.append("import edu.parsec.data.input.Input;\n");
+        out.append("import edu.parsec.parser.compiler.GeneratedParser;\n\n");
+        out.append("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n");
+        out.append("public final class ").append(className).append(" extends GeneratedParser {\n\n");
+        out.append("    private static final Object[] K = GeneratedParser.constants(").append(className)
+                .append(".class);\n");
+        for (int i = 0; i < constants.size(); ++i) {
+            final String type = constantTypes.get(i);
+            out.append("    private static final ").append(type).append(" K").append(i)
+                    .append(" = (").append(type).append(") K[").append(i).append("];\n");
+        }
+        out.append("\n    public ").append(className).append("(final Input start) {\n");
+        out.append("        super(start);\n");
+        out.append("    }\n\n");
+        out.append("    @Override\n");
+        out.append("    protected GeneratedParser newRun(final Input inputChars) {\n");
+        out.append("        return new ").append(className).append("(inputChars);\n");
+        out.append("    }\n\n");
+        out.append("    @Override\n");
+        out.append("    protected int root(final int pos) {\n");
+        out.append("        return ").append(rootMethod).append("(pos);\n");
+        out.append("    }\n");
+        out.append(methods);
+        out.append("}\n");
+        return out.toString();
+    }
+}
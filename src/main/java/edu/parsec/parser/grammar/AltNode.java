@@ -0,0 +1,268 @@
+package edu.parsec.parser.grammar;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import edu.parsec.parser.imp.Lookahead;
+
+/**
+ * Ordered choice between nodes, see {@code Parser.or} and
+ * {@code Combinator.choice}.
+ * <p>
+ * The alternatives are tried in order and the first success wins. only the
+ * alternatives that can start with the current character are run, they are
+ * picked from a {@link ChoiceTable} built from their lookahead. the others
+ * are still reported as expected when the choice fails or matches nothing.
+ * </p>
+ * <p>
+ * A choice built by the optimizer out of nested choices keeps the
+ * {@link Group}s they formed, so it reports the same skipped alternatives as
+ * the nested choices did.
+ * </p>
+ *
+ * @author Tarek Nawara
+ */
+public final class AltNode extends Node {
+
+    private final List<Node> alternatives;
+    private final List<Group> groups;
+    private final boolean dispatched;
+    private final ChoiceTable table;
+
+    /**
+     * Construct a choice between the given nodes.
+     *
+     * @param alternatives the nodes to try, in order
+     */
+    public AltNode(final List<Node> alternatives) {
+        this(alternatives, Collections.emptyList());
+    }
+
+    /**
+     * Construct a choice between the given nodes, reporting the skipped
+     * alternatives like the nested choices described by the groups.
+     *
+     * @param alternatives the nodes to try, in order
+     * @param groups       the nested choices the alternatives came from
+     */
+    public AltNode(final List<Node> alternatives, final List<Group> groups) {
+        this(alternatives, groups, true);
+    }
+
+    AltNode(final List<Node> alternatives, final List<Group> groups, final boolean dispatched) {
+        this.alternatives = Collections.unmodifiableList(new ArrayList<>(alternatives));
+        this.groups = Collections.unmodifiableList(new ArrayList<>(groups));
+        this.dispatched = dispatched;
+        this.table = new ChoiceTable(this.alternatives, this.groups, dispatched);
+    }
+
+    /**
+     * A choice trying every alternative in order without looking at the
+     * input first, so none is ever skipped. this is how the rests of
+     * alternatives sharing their first parsers ran before being factored.
+     *
+     * @param alternatives the nodes to try, in order
+     * @return a choice between the nodes
+     */
+    public static AltNode sequential(final List<Node> alternatives) {
+        return new AltNode(alternatives, Collections.emptyList(), false);
+    }
+
+    /**
+     * Merge the choice at the given index into this one.
+     *
+     * @param index position of an alternative that is an {@code AltNode}
+     *              dispatched like this one
+     * @return a single choice reporting the same skipped alternatives
+     */
+    public AltNode inline(final int index) {
+        final AltNode inner = (AltNode) alternatives.get(index);
+        final int size = inner.alternatives.size();
+        final List<Node> merged = new ArrayList<>(alternatives.subList(0, index));
+        merged.addAll(inner.alternatives);
+        merged.addAll(alternatives.subList(index + 1, alternatives.size()));
+        final List<Group> result = new ArrayList<>();
+        // the innermost group around the index is the choice the inner one was part of
+        int parentFrom = 0;
+        for (final Group group : groups) {
+            if (group.from <= index && index < group.to) {
+                parentFrom = Math.max(parentFrom, group.from);
+            }
+            result.add(group.expand(index, size));
+        }
+        add(result, new Group(parentFrom, index, index + size));
+        for (final Group group : inner.groups) {
+            add(result, group.shift(index));
+        }
+        return new AltNode(merged, result, dispatched);
+    }
+
+    /**
+     * Tests whether the alternatives are picked by the current character.
+     *
+     * @return false for a {@code sequential} choice
+     */
+    public boolean isDispatched() {
+        return dispatched;
+    }
+
+    /**
+     * The nested choices the alternatives came from.
+     *
+     * @return the groups of this choice, empty for a plain choice
+     */
+    public List<Group> groups() {
+        return groups;
+    }
+
+    @Override
+    public int parse(final ParseState state, final int offset) {
+        final int[] candidates = table.candidates(state, offset);
+        int end = -1;
+        int winner = alternatives.size();
+        for (final int candidate : candidates) {
+            end = alternatives.get(candidate).parse(state, offset);
+            if (end >= 0) {
+                winner = candidate;
+                break;
+            }
+        }
+        if (end < 0 || end == offset) {
+            table.reportSkipped(state, offset, candidates, winner);
+        }
+        if (candidates.length == 0) {
+            return state.fail(offset, lookahead().expected());
+        }
+        return end;
+    }
+
+    /*
+     * the table dispatching the alternatives, for TrampolineNode
+     */
+    ChoiceTable table() {
+        return table;
+    }
+
+    @Override
+    public List<Node> children() {
+        return alternatives;
+    }
+
+    @Override
+    public Node withChildren(final List<Node> children) {
+        return new AltNode(children, groups, dispatched);
+    }
+
+    @Override
+    protected Lookahead computeLookahead() {
+        return table.lookahead();
+    }
+
+    @Override
+    public String toString() {
+        return "Alt" + alternatives;
+    }
+
+    /*
+     * groups that never hide anything are left out
+     */
+    static void add(final List<Group> groups, final Group group) {
+        if (group.parentFrom < group.from && group.to - group.from > 1) {
+            groups.add(group);
+        }
+    }
+
+    /**
+     * Alternatives {@code from} to {@code to} that formed a single
+     * alternative of a nested choice, whose own alternatives started at
+     * {@code parentFrom}.
+     * <p>
+     * When the winner of the choice is an alternative of the enclosing
+     * nested choice that comes before the group, the nested choice never ran
+     * the group: its skipped alternatives are not reported if the group had
+     * a candidate.
+     * </p>
+     */
+    public static final class Group {
+        private final int parentFrom;
+        private final int from;
+        private final int to;
+
+        /**
+         * Construct a group of alternatives.
+         *
+         * @param parentFrom first alternative of the enclosing choice
+         * @param from       first alternative of the group
+         * @param to         index after the last alternative of the group
+         */
+        public Group(final int parentFrom, final int from, final int to) {
+            this.parentFrom = parentFrom;
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * First alternative of the enclosing choice.
+         *
+         * @return an index in the choice
+         */
+        public int parentFrom() {
+            return parentFrom;
+        }
+
+        /**
+         * First alternative of the group.
+         *
+         * @return an index in the choice
+         */
+        public int from() {
+            return from;
+        }
+
+        /**
+         * Index after the last alternative of the group.
+         *
+         * @return an index in the choice
+         */
+        public int to() {
+            return to;
+        }
+
+        /**
+         * Tests whether the skipped alternative is hidden by this group.
+         *
+         * @param alternative skipped alternative
+         * @param winner      alternative that succeeded, the number of
+         *                    alternatives if none did
+         * @param candidates  the alternatives that were tried, in order
+         * @return true if the alternative must not be reported
+         */
+        boolean hides(final int alternative, final int winner, final int[] candidates) {
+            if (alternative < from || alternative >= to || winner < parentFrom || winner >= from) {
+                return false;
+            }
+            for (final int candidate : candidates) {
+                if (candidate >= from && candidate < to) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        Group shift(final int by) {
+            return new Group(parentFrom + by, from + by, to + by);
+        }
+
+        /*
+         * the alternative at index replaced by size alternatives
+         */
+        Group expand(final int index, final int size) {
+            return new Group(moved(parentFrom, index, size), moved(from, index, size), moved(to, index, size));
+        }
+
+        private static int moved(final int index, final int at, final int size) {
+            return index <= at ? index : index + size - 1;
+        }
+    }
+}
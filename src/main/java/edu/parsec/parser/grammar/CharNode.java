@@ -0,0 +1,59 @@
+package edu.parsec.parser.grammar;
+
+import java.util.Collection;
+import java.util.Collections;
+
+import edu.parsec.data.result.ParseError;
+import edu.parsec.parser.combinators.CharClass;
+import edu.parsec.parser.imp.Lookahead;
+
+/**
+ * Parses one given character, see {@code ParserBuilder.parseChar}.
+ *
+ * @author Tarek Nawara
+ */
+public final class CharNode extends Node {
+
+    private final char c;
+    private final Character value;
+    private final Collection<String> expected;
+
+    /**
+     * Construct a node parsing the given character.
+     *
+     * @param c the character to parse
+     */
+    public CharNode(final char c) {
+        this.c = c;
+        this.value = c;
+        this.expected = Collections.singletonList(ParseError.describe(c));
+    }
+
+    /**
+     * The character this node parses.
+     *
+     * @return the expected character
+     */
+    public char character() {
+        return c;
+    }
+
+    @Override
+    public int parse(final ParseState state, final int offset) {
+        if (offset >= state.length || state.source.charAt(offset) != c) {
+            return state.fail(offset, expected);
+        }
+        state.value = value;
+        return offset + 1;
+    }
+
+    @Override
+    protected Lookahead computeLookahead() {
+        return Lookahead.of(CharClass.of(String.valueOf(c)), expected);
+    }
+
+    @Override
+    public String toString() {
+        return "Char(" + ParseError.describe(c) + ")";
+    }
+}
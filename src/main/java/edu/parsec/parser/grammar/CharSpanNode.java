@@ -0,0 +1,116 @@
+package edu.parsec.parser.grammar;
+
+import java.util.Collection;
+import java.util.Collections;
+
+import edu.parsec.data.list.CharList;
+import edu.parsec.data.list.Cons;
+import edu.parsec.data.list.Empty;
+import edu.parsec.data.list.IList;
+import edu.parsec.parser.combinators.CharClass;
+import edu.parsec.parser.imp.Lookahead;
+
+/**
+ * Parses the leading characters of a class into a list with a single scan.
+ * <p>
+ * This is what {@code many} and {@code many1} of a single character parser
+ * are rewritten to. the span is found first, then the list is built from its
+ * end, so there is no parser run nor reverse per character. the span of
+ * {@code Combinator.manyChar} is copied into a {@code CharList} at once.
+ * </p>
+ *
+ * @author Tarek Nawara
+ */
+public final class CharSpanNode extends Node {
+
+    private final CharClass charClass;
+    private final boolean atLeastOne;
+    private final boolean charList;
+    private final Collection<String> expected;
+
+    /**
+     * Construct a node parsing the given characters into an {@code IList}.
+     *
+     * @param charClass  accepted characters
+     * @param atLeastOne whether the node fails when no character matches
+     */
+    public CharSpanNode(final CharClass charClass, final boolean atLeastOne) {
+        this(charClass, atLeastOne, false);
+    }
+
+    /**
+     * Construct a node parsing the given characters.
+     *
+     * @param charClass  accepted characters
+     * @param atLeastOne whether the node fails when no character matches
+     * @param charList   whether the value is a {@code CharList} copied from
+     *                   the input rather than an {@code IList}
+     */
+    public CharSpanNode(final CharClass charClass, final boolean atLeastOne, final boolean charList) {
+        this.charClass = charClass;
+        this.atLeastOne = atLeastOne;
+        this.charList = charList;
+        this.expected = Collections.singletonList(charClass.toString());
+    }
+
+    /**
+     * The characters this node accepts.
+     *
+     * @return the accepted class
+     */
+    public CharClass charClass() {
+        return charClass;
+    }
+
+    /**
+     * Tests whether the node needs at least one character.
+     *
+     * @return true for {@code many1}, false for {@code many}
+     */
+    public boolean atLeastOne() {
+        return atLeastOne;
+    }
+
+    /**
+     * Tests whether the value is a {@code CharList}.
+     *
+     * @return true for {@code Combinator.manyChar}, false for {@code many}
+     */
+    public boolean isCharList() {
+        return charList;
+    }
+
+    @Override
+    public int parse(final ParseState state, final int offset) {
+        final CharSequence source = state.source;
+        int end = offset;
+        while (end < state.length && charClass.contains(source.charAt(end))) {
+            ++end;
+        }
+        if (atLeastOne && end == offset) {
+            return state.fail(end, expected);
+        }
+        state.report(end, expected);
+        if (charList) {
+            state.value = CharList.of(source, offset, end);
+            return end;
+        }
+        IList<Character> result = new Empty<>();
+        for (int i = end - 1; i >= offset; --i) {
+            result = new Cons<>(source.charAt(i), result);
+        }
+        state.value = result;
+        return end;
+    }
+
+    @Override
+    protected Lookahead computeLookahead() {
+        final Lookahead first = Lookahead.of(charClass, expected);
+        return atLeastOne ? first : first.optional();
+    }
+
+    @Override
+    public String toString() {
+        return (atLeastOne ? "Span1(" : "Span(") + charClass + (charList ? ", chars)" : ")");
+    }
+}
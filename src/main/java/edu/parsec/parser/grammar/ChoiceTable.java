@@ -0,0 +1,155 @@
+package edu.parsec.parser.grammar;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import edu.parsec.parser.combinators.CharClass;
+import edu.parsec.parser.imp.Lookahead;
+
+/**
+ * Dispatch table of an {@link AltNode}.
+ * <p>
+ * For every ASCII character the table holds the indices of the alternatives
+ * that may start with it, in their original order, plus a row for the end of
+ * the input and a row of the alternatives that may start with a character
+ * above ASCII. that last row is used as is when all its alternatives may
+ * start with the current character, and filtered otherwise. the table is
+ * built the first time the choice runs, when all the parsers of a recursive
+ * grammar are tied.
+ * </p>
+ *
+ * @author Tarek Nawara
+ */
+final class ChoiceTable {
+
+    private static final int TABLE_SIZE = 128;
+    private static final int END_OF_INPUT = -1;
+    private static final int END_ROW = TABLE_SIZE;
+    private static final int WIDE_ROW = TABLE_SIZE + 1;
+
+    private final List<Node> alternatives;
+    private final List<AltNode.Group> groups;
+    private final int[] all;
+    private volatile int[][] table;
+
+    ChoiceTable(final List<Node> alternatives, final List<AltNode.Group> groups, final boolean dispatched) {
+        this.alternatives = alternatives;
+        this.groups = groups;
+        this.all = dispatched ? null : IntStream.range(0, alternatives.size()).toArray();
+    }
+
+    /**
+     * Lookahead of the whole choice, cached by the {@code AltNode}.
+     *
+     * @return the union of the lookahead of the alternatives
+     */
+    Lookahead lookahead() {
+        Lookahead result = Lookahead.of(CharClass.NONE, Collections.emptyList());
+        for (final Node alternative : alternatives) {
+            result = result.or(alternative.lookahead());
+        }
+        return result;
+    }
+
+    /**
+     * Indices of the alternatives that may succeed at the given offset.
+     *
+     * @param state  state of the run
+     * @param offset where the choice runs
+     * @return the candidate alternatives in their original order
+     */
+    int[] candidates(final ParseState state, final int offset) {
+        if (all != null) {
+            return all;
+        }
+        final int[][] rows = table();
+        if (offset >= state.length) {
+            return rows[END_ROW];
+        }
+        final char c = state.source.charAt(offset);
+        if (c < TABLE_SIZE) {
+            return rows[c];
+        }
+        final int[] wide = rows[WIDE_ROW];
+        for (final int candidate : wide) {
+            final Lookahead first = alternatives.get(candidate).lookahead();
+            if (!first.isNullable() && !first.mayStartWith(c)) {
+                return compute(c);
+            }
+        }
+        return wide;
+    }
+
+    /**
+     * Report the alternatives that were not tried as expected at the offset,
+     * except the ones hidden by a group.
+     *
+     * @param state      state of the run
+     * @param offset     where the choice ran
+     * @param candidates the alternatives that were tried
+     * @param winner     the alternative that succeeded, the number of
+     *                   alternatives if none did
+     */
+    void reportSkipped(final ParseState state, final int offset, final int[] candidates, final int winner) {
+        int next = 0;
+        for (int i = 0; i < alternatives.size(); ++i) {
+            if (next < candidates.length && candidates[next] == i) {
+                ++next;
+            } else if (!hidden(i, winner, candidates)) {
+                state.report(offset, alternatives.get(i).lookahead().expected());
+            }
+        }
+    }
+
+    private boolean hidden(final int alternative, final int winner, final int[] candidates) {
+        for (final AltNode.Group group : groups) {
+            if (group.hides(alternative, winner, candidates)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int[][] table() {
+        int[][] result = table;
+        if (result == null) {
+            result = new int[TABLE_SIZE + 2][];
+            for (int c = 0; c < TABLE_SIZE; ++c) {
+                result[c] = compute(c);
+            }
+            result[END_ROW] = compute(END_OF_INPUT);
+            result[WIDE_ROW] = wide();
+            table = result;
+        }
+        return result;
+    }
+
+    /*
+     * the alternatives that may start with a character above ASCII
+     */
+    private int[] wide() {
+        final int[] candidates = new int[alternatives.size()];
+        int count = 0;
+        for (int i = 0; i < alternatives.size(); ++i) {
+            final Lookahead first = alternatives.get(i).lookahead();
+            if (first.isNullable() || first.first() == null || !first.first().isAscii()) {
+                candidates[count++] = i;
+            }
+        }
+        return Arrays.copyOf(candidates, count);
+    }
+
+    private int[] compute(final int c) {
+        final int[] candidates = new int[alternatives.size()];
+        int count = 0;
+        for (int i = 0; i < alternatives.size(); ++i) {
+            final Lookahead first = alternatives.get(i).lookahead();
+            if (first.isNullable() || (c != END_OF_INPUT && first.mayStartWith((char) c))) {
+                candidates[count++] = i;
+            }
+        }
+        return count == candidates.length ? candidates : Arrays.copyOf(candidates, count);
+    }
+}
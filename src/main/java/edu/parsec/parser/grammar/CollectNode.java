@@ -0,0 +1,112 @@
+package edu.parsec.parser.grammar;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.stream.Collector;
+
+import edu.parsec.parser.imp.Lookahead;
+
+/**
+ * Runs a node as many times as it succeeds and collects its values, see
+ * {@code Combinator.many(Parser, Collector)}.
+ * <p>
+ * The values go straight into the container of the collector, so the
+ * repetition costs whatever the container costs, a growing array for the
+ * collectors of the library. it stops like {@link ManyNode}.
+ * </p>
+ *
+ * @author Tarek Nawara
+ */
+public final class CollectNode extends Node {
+
+    private final Node parser;
+    private final boolean atLeastOne;
+    private final Collector<Object, Object, Object> collector;
+
+    /**
+     * Construct a node collecting the values of the given node.
+     *
+     * @param parser     the node to repeat
+     * @param atLeastOne whether the node must succeed at least once
+     * @param collector  collector of the values
+     */
+    @SuppressWarnings("unchecked")
+    public CollectNode(final Node parser, final boolean atLeastOne, final Collector<?, ?, ?> collector) {
+        this.parser = parser;
+        this.atLeastOne = atLeastOne;
+        this.collector = (Collector<Object, Object, Object>) collector;
+    }
+
+    /**
+     * The repeated node.
+     *
+     * @return the node run at each iteration
+     */
+    public Node parser() {
+        return parser;
+    }
+
+    /**
+     * Tests whether the node must succeed at least once.
+     *
+     * @return true for {@code many1}, false for {@code many}
+     */
+    public boolean atLeastOne() {
+        return atLeastOne;
+    }
+
+    /**
+     * The collector of the values.
+     *
+     * @return the collector given to {@code many}
+     */
+    public Collector<Object, Object, Object> collector() {
+        return collector;
+    }
+
+    @Override
+    public int parse(final ParseState state, final int offset) {
+        final BiConsumer<Object, Object> accumulator = collector.accumulator();
+        final Object container = collector.supplier().get();
+        boolean any = false;
+        int at = offset;
+        while (true) {
+            final int end = parser.parse(state, at);
+            if (end < 0) {
+                if (atLeastOne && !any) {
+                    return -1;
+                }
+                break;
+            }
+            accumulator.accept(container, state.value);
+            any = true;
+            if (end == at) {
+                break;
+            }
+            at = end;
+        }
+        state.value = collector.finisher().apply(container);
+        return at;
+    }
+
+    @Override
+    public List<Node> children() {
+        return Collections.singletonList(parser);
+    }
+
+    @Override
+    public Node withChildren(final List<Node> children) {
+        return new CollectNode(children.get(0), atLeastOne, collector);
+    }
+
+    @Override
+    protected Lookahead computeLookahead() {
+        return atLeastOne ? parser.lookahead() : parser.lookahead().optional();
+    }
+
+    @Override
+    public String toString() {
+        return (atLeastOne ? "Collect1(" : "Collect(") + parser + ")";
+    }
+}
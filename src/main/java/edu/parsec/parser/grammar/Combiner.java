@@ -0,0 +1,146 @@
+package edu.parsec.parser.grammar;
+
+import java.util.Arrays;
+import java.util.function.Function;
+import java.util.function.IntUnaryOperator;
+
+import edu.parsec.data.pair.Pair;
+
+/**
+ * How a {@link SeqNode} builds its value from the values of its items.
+ * <p>
+ * The combiner names the items whose values it needs, its arguments. either
+ * it returns the value of its single argument as it is, which is what
+ * {@code then} and {@code skip} do, or it applies a function to the values
+ * of its arguments in order. the values of the other items are dropped,
+ * which lets the optimizer rearrange them freely.
+ * </p>
+ *
+ * @author Tarek Nawara
+ */
+public final class Combiner {
+
+    /**
+     * Pair of the values of the first two items, used by {@code Parser.and}.
+     */
+    public static final Combiner PAIR = Combiner.of(values -> new Pair<>(values[0], values[1]), 0, 1);
+
+    private final int[] args;
+    private final Function<Object[], Object> function;
+
+    private Combiner(final int[] args, final Function<Object[], Object> function) {
+        this.args = args;
+        this.function = function;
+    }
+
+    /**
+     * Combiner returning the value of one item.
+     *
+     * @param index position of the item
+     * @return a combiner picking this item
+     */
+    public static Combiner pick(final int index) {
+        return new Combiner(new int[]{index}, null);
+    }
+
+    /**
+     * Combiner applying a function to the values of some items.
+     *
+     * @param function gets the values of the items in the order of
+     *                 {@code args}
+     * @param args     distinct positions of the items
+     * @return a combiner calling the function
+     */
+    public static Combiner of(final Function<Object[], Object> function, final int... args) {
+        if (Arrays.stream(args).distinct().count() != args.length) {
+            throw new IllegalArgumentException("Duplicate arguments: " + Arrays.toString(args));
+        }
+        return new Combiner(args.clone(), function);
+    }
+
+    /**
+     * Tests whether this combiner returns the value of one item as it is.
+     *
+     * @return true if this combiner was built with {@code pick}
+     */
+    public boolean isPick() {
+        return function == null;
+    }
+
+    /**
+     * Positions of the items this combiner needs.
+     *
+     * @return the arguments, in the order their values are passed
+     */
+    public int[] args() {
+        return args.clone();
+    }
+
+    /**
+     * Number of values this combiner needs.
+     *
+     * @return the number of arguments
+     */
+    public int arity() {
+        return args.length;
+    }
+
+    /**
+     * The function applied to the values.
+     *
+     * @return the function, or null for a {@code pick}
+     */
+    public Function<Object[], Object> function() {
+        return function;
+    }
+
+    /**
+     * Tests whether the value of an item is needed.
+     *
+     * @param index position of the item
+     * @return true if the item is one of the arguments
+     */
+    public boolean uses(final int index) {
+        return slot(index) >= 0;
+    }
+
+    /**
+     * Position of an item among the arguments.
+     *
+     * @param index position of the item
+     * @return where its value is passed, or -1 if it isn't needed
+     */
+    public int slot(final int index) {
+        for (int i = 0; i < args.length; ++i) {
+            if (args[i] == index) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Same combiner after the items were moved.
+     *
+     * @param mapping new position of each argument
+     * @return a combiner over the moved items
+     */
+    public Combiner remap(final IntUnaryOperator mapping) {
+        return new Combiner(Arrays.stream(args).map(mapping).toArray(), function);
+    }
+
+    /**
+     * Build the value of the sequence.
+     *
+     * @param values values of the arguments, in order
+     * @return the value of the sequence
+     */
+    public Object combine(final Object[] values) {
+        return function == null ? values[0] : function.apply(values);
+    }
+
+    @Override
+    public String toString() {
+        return (function == null ? "pick" : "combine") + Arrays.toString(args);
+    }
+}
@@ -0,0 +1,83 @@
+package edu.parsec.parser.grammar;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+import edu.parsec.parser.imp.Lookahead;
+import edu.parsec.parser.imp.Parser;
+
+/**
+ * Picks the parser to run next from the value of another node, see
+ * {@code Parser.flatMap}.
+ * <p>
+ * The next parser is only known at run time, so the optimizer can rewrite
+ * the first node but not what comes after it.
+ * </p>
+ *
+ * @author Tarek Nawara
+ */
+public final class FlatMapNode extends Node {
+
+    private final Node parser;
+    private final Function<Object, ? extends Parser<?>> function;
+
+    /**
+     * Construct a node running the given node then the parser built from its
+     * value.
+     *
+     * @param parser   the node to run first
+     * @param function builds the parser to run next
+     */
+    public FlatMapNode(final Node parser, final Function<Object, ? extends Parser<?>> function) {
+        this.parser = parser;
+        this.function = function;
+    }
+
+    /**
+     * The node that runs first.
+     *
+     * @return the first node
+     */
+    public Node parser() {
+        return parser;
+    }
+
+    /**
+     * The function building the next parser.
+     *
+     * @return the continuation
+     */
+    public Function<Object, ? extends Parser<?>> function() {
+        return function;
+    }
+
+    @Override
+    public int parse(final ParseState state, final int offset) {
+        final int end = parser.parse(state, offset);
+        if (end < 0) {
+            return -1;
+        }
+        return function.apply(state.value).node().parse(state, end);
+    }
+
+    @Override
+    public List<Node> children() {
+        return Collections.singletonList(parser);
+    }
+
+    @Override
+    public Node withChildren(final List<Node> children) {
+        return new FlatMapNode(children.get(0), function);
+    }
+
+    @Override
+    protected Lookahead computeLookahead() {
+        return parser.lookahead().then(Lookahead.UNKNOWN);
+    }
+
+    @Override
+    public String toString() {
+        return "FlatMap(" + parser + ")";
+    }
+}
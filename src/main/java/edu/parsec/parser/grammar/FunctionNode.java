@@ -0,0 +1,62 @@
+package edu.parsec.parser.grammar;
+
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import edu.parsec.data.input.Input;
+import edu.parsec.data.pair.Pair;
+import edu.parsec.data.result.Result;
+import edu.parsec.parser.imp.Lookahead;
+
+/**
+ * Parser given as a plain function.
+ * <p>
+ * The optimizer can't look inside the function, so the node is kept as it
+ * is. its lookahead is whatever the supplier says, {@code Lookahead.UNKNOWN}
+ * by default.
+ * </p>
+ *
+ * @author Tarek Nawara
+ */
+public final class FunctionNode extends Node {
+
+    private final Function<Input, ? extends Result<? extends Pair<?, Input>>> function;
+    private final Supplier<Lookahead> lookaheadFunc;
+
+    /**
+     * Construct a node from the function that does the parsing.
+     *
+     * @param function      parses the input
+     * @param lookaheadFunc computes the lookahead, called at most once
+     */
+    public FunctionNode(final Function<Input, ? extends Result<? extends Pair<?, Input>>> function,
+                        final Supplier<Lookahead> lookaheadFunc) {
+        this.function = function;
+        this.lookaheadFunc = lookaheadFunc;
+    }
+
+    /**
+     * The function that does the parsing.
+     *
+     * @return the wrapped function
+     */
+    public Function<Input, ? extends Result<? extends Pair<?, Input>>> function() {
+        return function;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Result<Pair<Object, Input>> parse(final Input inputChars) {
+        return (Result<Pair<Object, Input>>) function.apply(inputChars);
+    }
+
+    @Override
+    protected Lookahead computeLookahead() {
+        return lookaheadFunc.get();
+    }
+
+    @Override
+    public String toString() {
+        return "Function";
+    }
+}
@@ -0,0 +1,326 @@
+package edu.parsec.parser.grammar;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+/**
+ * The left factoring pass, see {@code Passes.LEFT_FACTOR}.
+ * <p>
+ * Every alternative of a choice is seen as a flat sequence of items by
+ * looking through its maps and the first item of its sequences. consecutive
+ * alternatives starting with the same items are grouped and replaced by the
+ * shared items followed by a choice between what remains of each one, so the
+ * shared items run once whatever alternative succeeds. the rest of each
+ * alternative is factored again the same way.
+ * </p>
+ * <p>
+ * When some alternative needs the values of the shared items, the remaining
+ * part of each alternative returns a function waiting for them, otherwise it
+ * builds the value of the alternative directly.
+ * </p>
+ *
+ * @author Tarek Nawara
+ */
+final class LeftFactoring {
+
+    private static final Object[] NO_VALUES = new Object[0];
+
+    private LeftFactoring() {
+    }
+
+    static Node apply(final Node node) {
+        if (!(node instanceof AltNode)) {
+            return node;
+        }
+        final List<Node> alternatives = node.children();
+        final List<AltNode.Group> groups = ((AltNode) node).groups();
+        final List<Spine> spines = new ArrayList<>(alternatives.size());
+        for (final Node alternative : alternatives) {
+            spines.add(Spine.of(alternative));
+        }
+        final List<Node> result = new ArrayList<>();
+        final int[] moved = new int[alternatives.size() + 1];
+        int i = 0;
+        while (i < spines.size()) {
+            int j = i + 1;
+            while (j < spines.size() && sameNode(spines.get(i).items.get(0), spines.get(j).items.get(0))) {
+                ++j;
+            }
+            if (j - i > 1 && (splitsGroup(groups, i, j) || !consumes(spines.get(i).items.get(0)))) {
+                j = i + 1;
+            }
+            for (int k = i; k < j; ++k) {
+                moved[k] = result.size();
+            }
+            result.add(j - i == 1 ? alternatives.get(i) : factor(spines.subList(i, j)));
+            i = j;
+        }
+        moved[alternatives.size()] = result.size();
+        if (result.size() == alternatives.size()) {
+            return node;
+        }
+        if (result.size() == 1) {
+            return result.get(0);
+        }
+        final List<AltNode.Group> kept = new ArrayList<>();
+        for (final AltNode.Group group : groups) {
+            // the groups inside a factored run only concern its tails
+            if (group.from() == 0 || moved[group.from() - 1] != moved[group.from()]) {
+                AltNode.add(kept, new AltNode.Group(moved[group.parentFrom()], moved[group.from()],
+                        moved[group.to() - 1] + 1));
+            }
+        }
+        return new AltNode(result, kept, ((AltNode) node).isDispatched());
+    }
+
+    /*
+     * alternatives start to end can't be merged into one if a group
+     * separates some of them from the others
+     */
+    private static boolean splitsGroup(final List<AltNode.Group> groups, final int start, final int end) {
+        for (final AltNode.Group group : groups) {
+            final boolean inside = start <= group.from() && group.to() <= end;
+            if (!inside && (within(group.parentFrom(), start, end) || within(group.from(), start, end)
+                    || within(group.to(), start, end))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /*
+     * whether the node can only succeed by consuming input. when the shared
+     * items match nothing, the choice between the rests runs where the
+     * choice itself ran and must report like it, so they are not factored
+     */
+    static boolean consumes(final Node node) {
+        if (node instanceof CharNode || node instanceof SatisfyNode || node instanceof NumberNode) {
+            return true;
+        }
+        if (node instanceof LiteralNode) {
+            return !((LiteralNode) node).literal().isEmpty();
+        }
+        if (node instanceof LiteralSetNode) {
+            return ((LiteralSetNode) node).literals().stream().noneMatch(String::isEmpty);
+        }
+        if (node instanceof CharSpanNode) {
+            return ((CharSpanNode) node).atLeastOne();
+        }
+        if (node instanceof ManyNode) {
+            return ((ManyNode) node).atLeastOne() && consumes(((ManyNode) node).parser());
+        }
+        if (node instanceof CollectNode) {
+            return ((CollectNode) node).atLeastOne() && consumes(((CollectNode) node).parser());
+        }
+        if (node instanceof MapNode || node instanceof SliceNode || node instanceof MemoNode) {
+            return consumes(node.children().get(0));
+        }
+        if (node instanceof SeqNode) {
+            return node.children().stream().anyMatch(LeftFactoring::consumes);
+        }
+        if (node instanceof AltNode) {
+            return node.children().stream().allMatch(LeftFactoring::consumes);
+        }
+        if (node instanceof FunctionNode) {
+            return !node.lookahead().isNullable();
+        }
+        return false;
+    }
+
+    private static boolean within(final int index, final int start, final int end) {
+        return start < index && index < end;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Node factor(final List<Spine> group) {
+        final int shared = sharedItems(group);
+        boolean usesShared = false;
+        for (final Spine spine : group) {
+            usesShared |= spine.uses(shared);
+        }
+        final List<Node> tails = new ArrayList<>(group.size());
+        for (final Spine spine : group) {
+            tails.add(usesShared ? spine.tailWaitingFor(shared) : spine.tail(shared));
+        }
+        final List<Node> items = new ArrayList<>(group.get(0).items.subList(0, shared));
+        // the rests ran one after the other once the shared items matched
+        items.add(apply(AltNode.sequential(tails)));
+        if (!usesShared) {
+            return new SeqNode(items, Combiner.pick(shared));
+        }
+        final int[] args = IntStream.rangeClosed(0, shared).toArray();
+        return new SeqNode(items, Combiner.of(values -> ((Function<Object[], Object>) values[shared]).apply(values), args));
+    }
+
+    private static int sharedItems(final List<Spine> group) {
+        final List<Node> first = group.get(0).items;
+        int shared = 1;
+        while (shared < first.size()) {
+            for (final Spine spine : group) {
+                if (spine.items.size() <= shared || !sameNode(first.get(shared), spine.items.get(shared))) {
+                    return shared;
+                }
+            }
+            ++shared;
+        }
+        return shared;
+    }
+
+    /*
+     * nodes built by separate calls to the same combinator are different
+     * objects, the leaves are compared by what they parse
+     */
+    static boolean sameNode(final Node a, final Node b) {
+        if (a == b) {
+            return true;
+        }
+        if (a.getClass() != b.getClass()) {
+            return false;
+        }
+        if (a instanceof CharNode) {
+            return ((CharNode) a).character() == ((CharNode) b).character();
+        }
+        if (a instanceof SatisfyNode) {
+            return ((SatisfyNode) a).charClass().equals(((SatisfyNode) b).charClass());
+        }
+        if (a instanceof LiteralNode) {
+            return ((LiteralNode) a).literal().equals(((LiteralNode) b).literal());
+        }
+        if (a instanceof LiteralSetNode) {
+            return ((LiteralSetNode) a).literals().equals(((LiteralSetNode) b).literals());
+        }
+        if (a instanceof SkipWhileNode) {
+            final SkipWhileNode x = (SkipWhileNode) a;
+            final SkipWhileNode y = (SkipWhileNode) b;
+            return x.charClass().equals(y.charClass()) && x.reportsStop() == y.reportsStop();
+        }
+        if (a instanceof CharSpanNode) {
+            final CharSpanNode x = (CharSpanNode) a;
+            final CharSpanNode y = (CharSpanNode) b;
+            return x.charClass().equals(y.charClass()) && x.atLeastOne() == y.atLeastOne()
+                    && x.isCharList() == y.isCharList();
+        }
+        return false;
+    }
+
+    /*
+     * an alternative seen as a flat sequence of items and the function
+     * building its value from the values of all the items
+     */
+    private static final class Spine {
+        final List<Node> items;
+        final boolean[] used;
+        final Function<Object[], Object> build;
+        final boolean leaf;
+        final SeqNode seq;
+        final Function<Object, Object> mapping;
+
+        private Spine(final List<Node> items, final boolean[] used, final Function<Object[], Object> build,
+                      final boolean leaf, final SeqNode seq, final Function<Object, Object> mapping) {
+            this.items = items;
+            this.used = used;
+            this.build = build;
+            this.leaf = leaf;
+            this.seq = seq;
+            this.mapping = mapping;
+        }
+
+        static Spine of(final Node node) {
+            if (node instanceof MapNode) {
+                final MapNode map = (MapNode) node;
+                final Spine inner = Spine.of(map.parser());
+                final Function<Object, Object> mapping = inner.mapping == null ? map.function()
+                        : inner.mapping.andThen(map.function());
+                return new Spine(inner.items, inner.used, inner.build.andThen(map.function()), false,
+                        inner.seq, mapping);
+            }
+            if (node instanceof SeqNode) {
+                return Spine.of((SeqNode) node);
+            }
+            return new Spine(Collections.singletonList(node), new boolean[]{true}, values -> values[0], true,
+                    null, null);
+        }
+
+        private static Spine of(final SeqNode seq) {
+            final List<Node> children = seq.children();
+            final Combiner combiner = seq.combiner();
+            final Spine first = Spine.of(children.get(0));
+            final int firstSize = first.items.size();
+            final List<Node> items = new ArrayList<>(first.items);
+            items.addAll(children.subList(1, children.size()));
+            final boolean[] used = new boolean[items.size()];
+            for (int i = 0; i < firstSize; ++i) {
+                used[i] = combiner.uses(0) && first.used[i];
+            }
+            for (int i = 1; i < children.size(); ++i) {
+                used[firstSize + i - 1] = combiner.uses(i);
+            }
+            final int[] args = combiner.args();
+            final Function<Object[], Object> build = values -> {
+                final Object[] combined = new Object[args.length];
+                for (int a = 0; a < args.length; ++a) {
+                    if (args[a] != 0) {
+                        combined[a] = values[firstSize + args[a] - 1];
+                    } else if (first.leaf) {
+                        combined[a] = values[0];
+                    } else {
+                        combined[a] = first.build.apply(Arrays.copyOfRange(values, 0, firstSize));
+                    }
+                }
+                return combiner.combine(combined);
+            };
+            return new Spine(items, used, build, false, first.leaf ? seq : null, null);
+        }
+
+        boolean uses(final int shared) {
+            for (int i = 0; i < shared; ++i) {
+                if (used[i]) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /*
+         * what remains after the shared items, building the whole value.
+         * only called when the shared values are not needed
+         */
+        Node tail(final int shared) {
+            if (seq != null) {
+                final List<Node> rest = seq.children().subList(shared, seq.children().size());
+                final Combiner combiner = seq.combiner();
+                final Node tail = rest.size() == 1 && combiner.isPick() ? rest.get(0)
+                        : new SeqNode(rest, combiner.remap(a -> a - shared));
+                return mapping == null ? tail : new MapNode(tail, mapping);
+            }
+            return new MapNode(collect(shared), values -> build.apply(join(new Object[shared], (Object[]) values)));
+        }
+
+        /*
+         * what remains after the shared items, returning a function that
+         * builds the whole value from the values of the shared items
+         */
+        Node tailWaitingFor(final int shared) {
+            return new MapNode(collect(shared), values -> (Function<Object[], Object>) sharedValues ->
+                    build.apply(join(Arrays.copyOf(sharedValues, shared), (Object[]) values)));
+        }
+
+        private Node collect(final int shared) {
+            final List<Node> rest = items.subList(shared, items.size());
+            if (rest.isEmpty()) {
+                return new PureNode(NO_VALUES);
+            }
+            return new SeqNode(rest, Combiner.of(values -> values, IntStream.range(0, rest.size()).toArray()));
+        }
+
+        private static Object[] join(final Object[] head, final Object[] rest) {
+            final Object[] all = Arrays.copyOf(head, head.length + rest.length);
+            System.arraycopy(rest, 0, all, head.length, rest.length);
+            return all;
+        }
+    }
+}
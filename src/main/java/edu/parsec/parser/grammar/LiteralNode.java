@@ -0,0 +1,64 @@
+package edu.parsec.parser.grammar;
+
+import java.util.Collection;
+import java.util.Collections;
+
+import edu.parsec.parser.combinators.CharClass;
+import edu.parsec.parser.imp.Lookahead;
+
+/**
+ * Parses a string literal, see {@code ParserBuilder.parseString}.
+ * <p>
+ * The literal is compared with the input in place and the parsed value is
+ * the interned literal itself.
+ * </p>
+ *
+ * @author Tarek Nawara
+ */
+public final class LiteralNode extends Node {
+
+    private final String literal;
+    private final Collection<String> expected;
+
+    /**
+     * Construct a node parsing the given literal.
+     *
+     * @param literal the string to parse
+     */
+    public LiteralNode(final String literal) {
+        this.literal = literal.intern();
+        this.expected = Collections.singletonList(quote(this.literal));
+    }
+
+    /**
+     * The string this node parses.
+     *
+     * @return the interned literal
+     */
+    public String literal() {
+        return literal;
+    }
+
+    @Override
+    public int parse(final ParseState state, final int offset) {
+        if (!state.startsWith(offset, literal)) {
+            return state.fail(offset, expected);
+        }
+        state.value = literal;
+        return offset + literal.length();
+    }
+
+    @Override
+    protected Lookahead computeLookahead() {
+        return literal.isEmpty() ? Lookahead.EMPTY : Lookahead.of(CharClass.of(literal.substring(0, 1)), expected);
+    }
+
+    @Override
+    public String toString() {
+        return "Literal(" + quote(literal) + ")";
+    }
+
+    static String quote(final String literal) {
+        return "\"" + literal + "\"";
+    }
+}
@@ -0,0 +1,85 @@
+package edu.parsec.parser.grammar;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import edu.parsec.parser.combinators.CharClass;
+import edu.parsec.parser.imp.Lookahead;
+
+/**
+ * Parses the longest of a set of literals, see
+ * {@code ParserBuilder.oneOfLiterals}.
+ *
+ * @author Tarek Nawara
+ */
+public final class LiteralSetNode extends Node {
+
+    private final List<String> literals;
+    private final LiteralTrie trie;
+    private final Collection<String> expected;
+
+    /**
+     * Construct a node parsing any of the given literals.
+     *
+     * @param literals the accepted strings
+     */
+    public LiteralSetNode(final String... literals) {
+        this.literals = Collections.unmodifiableList(Arrays.asList(literals.clone()));
+        this.trie = LiteralTrie.of(literals);
+        this.expected = Collections.unmodifiableList(
+                this.literals.stream().map(LiteralNode::quote).collect(Collectors.toList()));
+    }
+
+    /**
+     * The strings this node accepts.
+     *
+     * @return the literals in the order they were given
+     */
+    public List<String> literals() {
+        return literals;
+    }
+
+    /**
+     * Find the longest literal the characters at {@code offset} begin with.
+     *
+     * @param source characters to match
+     * @param offset where to start matching
+     * @return the matched literal, or null if none matches
+     */
+    public String longestMatch(final CharSequence source, final int offset) {
+        return trie.longestMatch(source, offset);
+    }
+
+    @Override
+    public int parse(final ParseState state, final int offset) {
+        final String literal = trie.longestMatch(state.source, offset);
+        if (literal == null) {
+            return state.fail(offset, expected);
+        }
+        state.value = literal;
+        return offset + literal.length();
+    }
+
+    @Override
+    protected Lookahead computeLookahead() {
+        final StringBuilder firstChars = new StringBuilder();
+        boolean nullable = false;
+        for (final String literal : literals) {
+            if (literal.isEmpty()) {
+                nullable = true;
+            } else {
+                firstChars.append(literal.charAt(0));
+            }
+        }
+        final Lookahead first = Lookahead.of(CharClass.of(firstChars.toString()), expected);
+        return nullable ? first.optional() : first;
+    }
+
+    @Override
+    public String toString() {
+        return "Literals" + expected;
+    }
+}
@@ -0,0 +1,86 @@
+package edu.parsec.parser.grammar;
+
+import java.util.Arrays;
+
+/**
+ * Prefix tree of string literals used by {@link LiteralSetNode}.
+ * <p>
+ * Each node keeps its outgoing characters sorted so the next node is found
+ * with a binary search. matching walks the input once and remembers the
+ * longest literal seen on the way.
+ * </p>
+ *
+ * @author Tarek Nawara
+ */
+final class LiteralTrie {
+
+    private char[] keys = new char[0];
+    private LiteralTrie[] children = new LiteralTrie[0];
+    private String literal;
+
+    /**
+     * Build a trie of the given literals.
+     *
+     * @param literals the literals to match
+     * @return the root of the trie
+     */
+    static LiteralTrie of(final String... literals) {
+        final LiteralTrie root = new LiteralTrie();
+        for (final String literal : literals) {
+            LiteralTrie node = root;
+            for (int i = 0; i < literal.length(); ++i) {
+                node = node.child(literal.charAt(i));
+            }
+            node.literal = literal.intern();
+        }
+        return root;
+    }
+
+    /**
+     * Find the longest literal the characters starting at {@code offset}
+     * begin with.
+     *
+     * @param source characters to match
+     * @param offset where to start matching
+     * @return the matched literal, or null if no literal matches
+     */
+    String longestMatch(final CharSequence source, final int offset) {
+        LiteralTrie node = this;
+        String longest = node.literal;
+        for (int i = offset; i < source.length(); ++i) {
+            final int index = Arrays.binarySearch(node.keys, source.charAt(i));
+            if (index < 0) {
+                break;
+            }
+            node = node.children[index];
+            if (node.literal != null) {
+                longest = node.literal;
+            }
+        }
+        return longest;
+    }
+
+    private LiteralTrie child(final char c) {
+        int index = Arrays.binarySearch(keys, c);
+        if (index >= 0) {
+            return children[index];
+        }
+        index = -index - 1;
+        final LiteralTrie child = new LiteralTrie();
+        keys = insert(keys, index, c);
+        final LiteralTrie[] grown = new LiteralTrie[children.length + 1];
+        System.arraycopy(children, 0, grown, 0, index);
+        System.arraycopy(children, index, grown, index + 1, children.length - index);
+        grown[index] = child;
+        children = grown;
+        return child;
+    }
+
+    private static char[] insert(final char[] keys, final int index, final char c) {
+        final char[] grown = new char[keys.length + 1];
+        System.arraycopy(keys, 0, grown, 0, index);
+        System.arraycopy(keys, index, grown, index + 1, keys.length - index);
+        grown[index] = c;
+        return grown;
+    }
+}
@@ -0,0 +1,100 @@
+package edu.parsec.parser.grammar;
+
+import java.util.Collections;
+import java.util.List;
+
+import edu.parsec.data.list.Empty;
+import edu.parsec.data.list.IList;
+import edu.parsec.parser.imp.Lookahead;
+
+/**
+ * Runs a node as many times as it succeeds and returns the list of its
+ * values, see {@code Combinator.many} and {@code Combinator.many1}.
+ * <p>
+ * The repetition also stops when the node succeeds without consuming
+ * anything, it would match the same empty input forever otherwise.
+ * </p>
+ *
+ * @author Tarek Nawara
+ */
+public final class ManyNode extends Node {
+
+    private final Node parser;
+    private final boolean atLeastOne;
+
+    /**
+     * Construct a node repeating the given node.
+     *
+     * @param parser     the node to repeat
+     * @param atLeastOne whether the node must succeed at least once
+     */
+    public ManyNode(final Node parser, final boolean atLeastOne) {
+        this.parser = parser;
+        this.atLeastOne = atLeastOne;
+    }
+
+    /**
+     * The repeated node.
+     *
+     * @return the node run at each iteration
+     */
+    public Node parser() {
+        return parser;
+    }
+
+    /**
+     * Tests whether the node must succeed at least once.
+     *
+     * @return true for {@code many1}, false for {@code many}
+     */
+    public boolean atLeastOne() {
+        return atLeastOne;
+    }
+
+    @Override
+    public int parse(final ParseState state, final int offset) {
+        // the list is filled from the front, instead of prepending the values
+        // and reversing it
+        IList.Builder<Object> values = null;
+        int at = offset;
+        while (true) {
+            final int end = parser.parse(state, at);
+            if (end < 0) {
+                if (atLeastOne && values == null) {
+                    return -1;
+                }
+                break;
+            }
+            if (values == null) {
+                values = new IList.Builder<>();
+            }
+            values.add(state.value);
+            if (end == at) {
+                break;
+            }
+            at = end;
+        }
+        state.value = values == null ? new Empty<>() : values.build();
+        return at;
+    }
+
+    @Override
+    public List<Node> children() {
+        return Collections.singletonList(parser);
+    }
+
+    @Override
+    public Node withChildren(final List<Node> children) {
+        return new ManyNode(children.get(0), atLeastOne);
+    }
+
+    @Override
+    protected Lookahead computeLookahead() {
+        return atLeastOne ? parser.lookahead() : parser.lookahead().optional();
+    }
+
+    @Override
+    public String toString() {
+        return (atLeastOne ? "Many1(" : "Many(") + parser + ")";
+    }
+}
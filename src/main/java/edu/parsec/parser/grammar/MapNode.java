@@ -0,0 +1,76 @@
+package edu.parsec.parser.grammar;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+import edu.parsec.parser.imp.Lookahead;
+
+/**
+ * Applies a function to the value of another node, see {@code Parser.map}.
+ *
+ * @author Tarek Nawara
+ */
+public final class MapNode extends Node {
+
+    private final Node parser;
+    private final Function<Object, Object> function;
+
+    /**
+     * Construct a node mapping the value of the given node.
+     *
+     * @param parser   the node to run
+     * @param function applied to its value
+     */
+    public MapNode(final Node parser, final Function<Object, Object> function) {
+        this.parser = parser;
+        this.function = function;
+    }
+
+    /**
+     * The node whose value is mapped.
+     *
+     * @return the mapped node
+     */
+    public Node parser() {
+        return parser;
+    }
+
+    /**
+     * The function applied to the value.
+     *
+     * @return the mapping function
+     */
+    public Function<Object, Object> function() {
+        return function;
+    }
+
+    @Override
+    public int parse(final ParseState state, final int offset) {
+        final int end = parser.parse(state, offset);
+        if (end >= 0) {
+            state.value = function.apply(state.value);
+        }
+        return end;
+    }
+
+    @Override
+    public List<Node> children() {
+        return Collections.singletonList(parser);
+    }
+
+    @Override
+    public Node withChildren(final List<Node> children) {
+        return new MapNode(children.get(0), function);
+    }
+
+    @Override
+    protected Lookahead computeLookahead() {
+        return parser.lookahead();
+    }
+
+    @Override
+    public String toString() {
+        return "Map(" + parser + ")";
+    }
+}
@@ -0,0 +1,81 @@
+package edu.parsec.parser.grammar;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import edu.parsec.parser.imp.Lookahead;
+
+/**
+ * Caches the results of a node by offset for the duration of a run, see
+ * {@code Parser.memo}. the node itself is the key of its table in the
+ * {@code MemoTable} of the run.
+ *
+ * @author Tarek Nawara
+ */
+public final class MemoNode extends Node {
+
+    private final Node parser;
+    private final int maxEntries;
+
+    /**
+     * Construct a node memoizing the given node.
+     *
+     * @param parser     the node to memoize
+     * @param maxEntries maximum number of offsets cached per run
+     */
+    public MemoNode(final Node parser, final int maxEntries) {
+        this.parser = parser;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * The memoized node.
+     *
+     * @return the node whose results are cached
+     */
+    public Node parser() {
+        return parser;
+    }
+
+    /**
+     * Size of the cache of a run.
+     *
+     * @return maximum number of offsets cached per run
+     */
+    public int maxEntries() {
+        return maxEntries;
+    }
+
+    @Override
+    public int parse(final ParseState state, final int offset) {
+        final Map<Integer, Object> table = state.memoTable(this, maxEntries);
+        final Object saved = table.get(offset);
+        if (saved != null) {
+            return state.restore(saved);
+        }
+        final int end = parser.parse(state, offset);
+        table.put(offset, state.save(end));
+        return end;
+    }
+
+    @Override
+    public List<Node> children() {
+        return Collections.singletonList(parser);
+    }
+
+    @Override
+    public Node withChildren(final List<Node> children) {
+        return new MemoNode(children.get(0), maxEntries);
+    }
+
+    @Override
+    protected Lookahead computeLookahead() {
+        return parser.lookahead();
+    }
+
+    @Override
+    public String toString() {
+        return "Memo(" + parser + ")";
+    }
+}
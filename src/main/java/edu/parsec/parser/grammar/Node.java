@@ -0,0 +1,152 @@
+package edu.parsec.parser.grammar;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.parsec.data.input.Input;
+import edu.parsec.data.pair.Pair;
+import edu.parsec.data.result.Result;
+import edu.parsec.parser.imp.Lookahead;
+
+/**
+ * Node of the grammar graph behind a {@code Parser}.
+ * <p>
+ * The combinators don't wrap each other in opaque functions, they build a
+ * graph of nodes that says what each parser is made of: a character, a
+ * sequence, a choice, a repetition... the graph can be inspected with
+ * {@code children} and rewritten by the {@link Optimizer} before it runs.
+ * </p>
+ * <p>
+ * Nodes are immutable, except for {@link RefNode} which is tied once to
+ * close the cycles of recursive grammars. every node also knows how to run
+ * itself, {@code parse} is the reference interpreter of the grammar. values
+ * are untyped at this level, the type parameter lives in {@code Parser}.
+ * </p>
+ *
+ * @author Tarek Nawara
+ */
+public abstract class Node {
+
+    private static final ThreadLocal<LookaheadScope> LOOKAHEAD_SCOPE = ThreadLocal.withInitial(LookaheadScope::new);
+
+    private volatile Lookahead lookahead;
+
+    /**
+     * Run the node on the given input.
+     * <p>
+     * By default the node runs on a new {@link ParseState}, the result is
+     * only built once it is done. nodes that can only work on cursors, like
+     * the parsers given as functions, override this method instead
+     * </p>
+     *
+     * @param inputChars cursor pointing at the characters to parse
+     * @return if success, a pair of the parsed value and the cursor after the
+     * consumed characters, otherwise a failure
+     */
+    public Result<Pair<Object, Input>> parse(final Input inputChars) {
+        final ParseState state = new ParseState(inputChars);
+        return state.result(parse(state, inputChars.offset()));
+    }
+
+    /**
+     * Run the node at an offset of the input of a run.
+     * <p>
+     * On success the parsed value is left in the state. by default the node
+     * runs on a cursor, every node overrides at least one of the two
+     * {@code parse} methods
+     * </p>
+     *
+     * @param state  state of the run
+     * @param offset where to parse
+     * @return the offset after the consumed characters, or -1 on failure
+     */
+    public int parse(final ParseState state, final int offset) {
+        final Result<Pair<Object, Input>> result = parse(state.at(offset));
+        if (result.isFailure()) {
+            return state.fail(result.getError());
+        }
+        state.value = result.get().first;
+        return result.get().second.offset();
+    }
+
+    /**
+     * The nodes this node is built from, in the order they run.
+     *
+     * @return the direct children of this node
+     */
+    public List<Node> children() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * Same node built from other children. used by the optimizer to rebuild
+     * the graph after rewriting the children.
+     *
+     * @param children replacement of {@code children()}, same size and order
+     * @return a node of the same kind over the given children
+     */
+    public Node withChildren(final List<Node> children) {
+        return this;
+    }
+
+    /**
+     * What this node can start with, computed once from its children. a
+     * grammar that reaches the same node again before consuming any character
+     * gets {@code Lookahead.UNKNOWN} for it.
+     * <p>
+     * The nodes being computed are tracked per thread, so a grammar shared
+     * between threads never sees the computation of another thread. a node
+     * reached from inside a cycle that started above it is not cached, its
+     * lookahead is only final once it is computed from the node itself
+     * </p>
+     *
+     * @return the lookahead of this node
+     */
+    public final Lookahead lookahead() {
+        final Lookahead cached = lookahead;
+        if (cached != null) {
+            return cached;
+        }
+        final LookaheadScope scope = LOOKAHEAD_SCOPE.get();
+        final Integer active = scope.depths.get(this);
+        if (active != null) {
+            scope.cut = Math.min(scope.cut, active);
+            return Lookahead.UNKNOWN;
+        }
+        final int depth = scope.depths.size();
+        final int outerCut = scope.cut;
+        scope.depths.put(this, depth);
+        scope.cut = Integer.MAX_VALUE;
+        Lookahead result = null;
+        int cut = Integer.MAX_VALUE;
+        try {
+            result = computeLookahead();
+        } finally {
+            scope.depths.remove(this);
+            cut = scope.cut;
+            scope.cut = Math.min(outerCut, cut < depth ? cut : Integer.MAX_VALUE);
+        }
+        if (cut >= depth) {
+            lookahead = result;
+        }
+        return result;
+    }
+
+    /**
+     * Compute the lookahead of this node, see {@code lookahead()}.
+     *
+     * @return the lookahead of this node
+     */
+    protected abstract Lookahead computeLookahead();
+
+    /*
+     * the nodes whose lookahead is being computed by a thread, with their
+     * depth, and the smallest depth a cycle went back to
+     */
+    private static final class LookaheadScope {
+        private final Map<Node, Integer> depths = new IdentityHashMap<>();
+        private int cut = Integer.MAX_VALUE;
+    }
+}
@@ -0,0 +1,278 @@
+package edu.parsec.parser.grammar;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.function.DoubleFunction;
+import java.util.function.LongFunction;
+
+import edu.parsec.data.result.ParseError;
+import edu.parsec.parser.combinators.CharClass;
+import edu.parsec.parser.imp.Lookahead;
+
+/**
+ * Parses a number and gives its primitive value to a function, see
+ * {@code ParserBuilder.longParser} and {@code ParserBuilder.doubleParser}.
+ * <p>
+ * The digits are scanned once and accumulated in place, without building a
+ * list nor a string, and the function gets a {@code long} or a
+ * {@code double} so the value is never boxed. a decimal number is digits
+ * optionally followed by a point and digits, it reports the same failures
+ * as the combinators it replaces. an integer above the largest value the
+ * node accepts fails where it starts instead of overflowing.
+ * </p>
+ *
+ * @author Tarek Nawara
+ */
+public final class NumberNode extends Node {
+
+    /**
+     * What a number expects in place of a digit.
+     */
+    public static final Collection<String> DIGITS = Collections.singletonList(CharClass.DIGITS.toString());
+
+    /**
+     * What a decimal number expects after its integer part.
+     */
+    public static final Collection<String> POINT = Collections.singletonList(ParseError.describe('.'));
+
+    /*
+     * the longest runs of digits that can't overflow a long, or lose
+     * precision in a double
+     */
+    private static final int LONG_DIGITS = 18;
+    private static final int DOUBLE_DIGITS = 15;
+
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15};
+
+    private final boolean decimal;
+    private final Object function;
+    private final long max;
+    private final Collection<String> overflow;
+
+    private NumberNode(final boolean decimal, final Object function, final long max) {
+        this.decimal = decimal;
+        this.function = function;
+        this.max = max;
+        this.overflow = Collections.singletonList("a number up to " + max);
+    }
+
+    /**
+     * Construct a node parsing an integer that fits in a long.
+     *
+     * @param function applied to the value of the number
+     * @return a node parsing digits
+     */
+    public static NumberNode integral(final LongFunction<?> function) {
+        return integral(function, Long.MAX_VALUE);
+    }
+
+    /**
+     * Construct a node parsing an integer up to a maximum.
+     *
+     * @param function applied to the value of the number
+     * @param max      the largest accepted value, a larger number fails
+     * @return a node parsing digits
+     */
+    public static NumberNode integral(final LongFunction<?> function, final long max) {
+        return new NumberNode(false, function, max);
+    }
+
+    /**
+     * Construct a node parsing a decimal number.
+     *
+     * @param function applied to the value of the number
+     * @return a node parsing digits with an optional fraction
+     */
+    public static NumberNode decimal(final DoubleFunction<?> function) {
+        return new NumberNode(true, function, Long.MAX_VALUE);
+    }
+
+    /**
+     * The same number without its value, for a recognizer.
+     *
+     * @return a node consuming the same input whose value is null, the
+     * digits are not converted
+     */
+    public NumberNode withoutValue() {
+        return function == null ? this : new NumberNode(decimal, null, max);
+    }
+
+    /**
+     * Tests whether the number may have a fraction.
+     *
+     * @return true for a {@code double}, false for a {@code long}
+     */
+    public boolean isDecimal() {
+        return decimal;
+    }
+
+    /**
+     * The largest integer this node accepts.
+     *
+     * @return the maximum of an integer, unused by a decimal number
+     */
+    public long max() {
+        return max;
+    }
+
+    /**
+     * What an integer above the maximum expects instead.
+     *
+     * @return the description of the accepted range
+     */
+    public Collection<String> overflow() {
+        return overflow;
+    }
+
+    /**
+     * The function applied to the number.
+     *
+     * @return a {@code DoubleFunction} for a decimal number, a
+     * {@code LongFunction} otherwise, null if the value is dropped
+     */
+    public Object function() {
+        return function;
+    }
+
+    @Override
+    public int parse(final ParseState state, final int offset) {
+        final CharSequence source = state.source;
+        final int digits = digits(source, offset);
+        if (digits == offset) {
+            return state.fail(offset, DIGITS);
+        }
+        if (!decimal && !fits(source, offset, digits, max)) {
+            return state.fail(offset, overflow);
+        }
+        state.report(digits, DIGITS);
+        if (!decimal) {
+            state.value = function == null ? null : ((LongFunction<?>) function).apply(toLong(source, offset, digits));
+            return digits;
+        }
+        int end = digits;
+        if (digits < state.length && source.charAt(digits) == '.') {
+            final int fraction = digits(source, digits + 1);
+            state.report(fraction, DIGITS);
+            if (fraction > digits + 1) {
+                end = fraction;
+            }
+        } else {
+            state.report(digits, POINT);
+        }
+        state.value = function == null ? null : ((DoubleFunction<?>) function).apply(toDouble(source, offset, end));
+        return end;
+    }
+
+    /**
+     * The end of the digits starting at an offset.
+     *
+     * @param source the input
+     * @param from   offset of the first digit
+     * @return the offset after the last digit, {@code from} if there is none
+     */
+    public static int digits(final CharSequence source, final int from) {
+        int at = from;
+        while (at < source.length() && isDigit(source.charAt(at))) {
+            ++at;
+        }
+        return at;
+    }
+
+    /**
+     * Tests whether a run of digits is at most a maximum, without converting
+     * it.
+     *
+     * @param source the input
+     * @param from   offset of the first digit
+     * @param to     offset after the last digit
+     * @param max    the largest accepted value
+     * @return true if the value of the digits is at most {@code max}
+     */
+    public static boolean fits(final CharSequence source, final int from, final int to, final long max) {
+        int start = from;
+        while (start < to - 1 && source.charAt(start) == '0') {
+            ++start;
+        }
+        if (to - start <= LONG_DIGITS) {
+            return toLong(source, start, to) <= max;
+        }
+        final String limit = Long.toString(max);
+        if (to - start != limit.length()) {
+            return to - start < limit.length();
+        }
+        for (int i = 0; i < limit.length(); ++i) {
+            final char c = source.charAt(start + i);
+            if (c != limit.charAt(i)) {
+                return c < limit.charAt(i);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The value of a run of digits.
+     *
+     * @param source the input
+     * @param from   offset of the first digit
+     * @param to     offset after the last digit
+     * @return the value of the digits
+     * @throws NumberFormatException if the value overflows a long, see
+     *                               {@code fits}
+     */
+    public static long toLong(final CharSequence source, final int from, final int to) {
+        if (to - from > LONG_DIGITS) {
+            return Long.parseLong(source.subSequence(from, to).toString());
+        }
+        long value = 0;
+        for (int i = from; i < to; ++i) {
+            value = value * 10 + (source.charAt(i) - '0');
+        }
+        return value;
+    }
+
+    /**
+     * The value of digits with an optional point.
+     * <p>
+     * When the digits fit in the precision of a double, the value is their
+     * integer divided by a power of ten, both exact so the division is
+     * correctly rounded. longer numbers go through {@code Double.parseDouble}
+     * </p>
+     *
+     * @param source the input
+     * @param from   offset of the first digit
+     * @param to     offset after the last digit
+     * @return the closest double to the number
+     */
+    public static double toDouble(final CharSequence source, final int from, final int to) {
+        long mantissa = 0;
+        int digits = 0;
+        int point = -1;
+        for (int i = from; i < to; ++i) {
+            final char c = source.charAt(i);
+            if (c == '.') {
+                point = i;
+            } else {
+                mantissa = mantissa * 10 + (c - '0');
+                if (++digits > DOUBLE_DIGITS) {
+                    return Double.parseDouble(source.subSequence(from, to).toString());
+                }
+            }
+        }
+        return point < 0 ? mantissa : mantissa / POWERS_OF_TEN[to - point - 1];
+    }
+
+    private static boolean isDigit(final char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    @Override
+    protected Lookahead computeLookahead() {
+        return Lookahead.of(CharClass.DIGITS, DIGITS);
+    }
+
+    @Override
+    public String toString() {
+        return decimal ? "Decimal" : "Integral";
+    }
+}
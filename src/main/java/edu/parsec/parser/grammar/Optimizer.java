@@ -0,0 +1,130 @@
+package edu.parsec.parser.grammar;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rewrites a grammar graph with a pipeline of passes.
+ * <p>
+ * The graph is walked from the leaves up, every node is rebuilt over its
+ * optimized children then handed to the passes until none of them changes
+ * it. shared nodes are rewritten once and stay shared. references are
+ * followed: a reference that is not part of a cycle is replaced by its
+ * optimized target, the others are copied into new references tied to the
+ * optimized graph, so the original grammar is never modified.
+ * </p>
+ *
+ * @author Tarek Nawara
+ */
+public final class Optimizer {
+
+    private static final int MAX_ROUNDS = 16;
+
+    private static final Optimizer DEFAULT = new Optimizer(Arrays.asList(
+            Passes.FUSE_MAPS,
+            Passes.SPAN_SCANS,
+            Passes.SLICE_VALUES,
+            Passes.FLATTEN_ALTERNATIVES,
+            Passes.LEFT_FACTOR,
+            Passes.FLATTEN_SEQUENCES,
+            Passes.MERGE_SKIPS));
+
+    private final List<Pass> passes;
+
+    /**
+     * Construct an optimizer running the given passes in order.
+     *
+     * @param passes the rewrite rules
+     */
+    public Optimizer(final List<Pass> passes) {
+        this.passes = Collections.unmodifiableList(new ArrayList<>(passes));
+    }
+
+    /**
+     * The optimizer used by {@code Parser.compile}.
+     *
+     * @return the default pipeline
+     */
+    public static Optimizer defaultPipeline() {
+        return DEFAULT;
+    }
+
+    /**
+     * The passes of this optimizer.
+     *
+     * @return the passes in the order they run
+     */
+    public List<Pass> passes() {
+        return passes;
+    }
+
+    /**
+     * Optimize the graph reachable from the given node.
+     *
+     * @param root the node to optimize
+     * @return the optimized graph
+     */
+    public Node optimize(final Node root) {
+        return new Rewrite().rewrite(root);
+    }
+
+    private final class Rewrite {
+        private final Map<Node, Node> done = new IdentityHashMap<>();
+        private final Map<RefNode, Boolean> cyclic = new IdentityHashMap<>();
+
+        Node rewrite(final Node node) {
+            final Node known = done.get(node);
+            if (known != null) {
+                if (known instanceof RefNode && cyclic.containsKey(known)) {
+                    cyclic.put((RefNode) known, Boolean.TRUE);
+                }
+                return known;
+            }
+            if (node instanceof RefNode) {
+                return rewriteRef((RefNode) node);
+            }
+            final List<Node> children = node.children();
+            final List<Node> rewritten = new ArrayList<>(children.size());
+            boolean changed = false;
+            for (final Node child : children) {
+                final Node result = rewrite(child);
+                changed |= result != child;
+                rewritten.add(result);
+            }
+            final Node result = applyPasses(changed ? node.withChildren(rewritten) : node);
+            done.put(node, result);
+            return result;
+        }
+
+        private Node rewriteRef(final RefNode ref) {
+            final RefNode copy = new RefNode();
+            done.put(ref, copy);
+            cyclic.put(copy, Boolean.FALSE);
+            final Node target = rewrite(ref.target());
+            if (!cyclic.remove(copy)) {
+                done.put(ref, target);
+                return target;
+            }
+            copy.set(target);
+            return copy;
+        }
+
+        private Node applyPasses(final Node node) {
+            Node current = node;
+            for (int round = 0; round < MAX_ROUNDS; ++round) {
+                final Node start = current;
+                for (final Pass pass : passes) {
+                    current = pass.apply(current);
+                }
+                if (current == start) {
+                    break;
+                }
+            }
+            return current;
+        }
+    }
+}
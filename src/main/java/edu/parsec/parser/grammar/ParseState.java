@@ -0,0 +1,193 @@
+package edu.parsec.parser.grammar;
+
+import java.util.Collection;
+import java.util.Map;
+
+import edu.parsec.data.input.Input;
+import edu.parsec.data.pair.Pair;
+import edu.parsec.data.result.ErrorAccumulator;
+import edu.parsec.data.result.Failure;
+import edu.parsec.data.result.ParseError;
+import edu.parsec.data.result.Result;
+import edu.parsec.data.result.Success;
+
+/**
+ * The mutable state of a single run of a grammar.
+ * <p>
+ * Nodes run with {@code Node.parse(ParseState, int)} take the offset to
+ * parse at and return the offset after the consumed characters, or -1 on
+ * failure. the parsed value is left in {@code value} and the failure is kept
+ * here until someone asks for it, so a step allocates neither a cursor, nor
+ * a pair, nor a result. these are only built once, by {@code result}, when
+ * the run ends.
+ * </p>
+ * <p>
+ * A state is not thread safe, a new one is created for every run.
+ * </p>
+ *
+ * @author Tarek Nawara
+ */
+public class ParseState {
+
+    protected final Input start;
+    protected final CharSequence source;
+    protected final int length;
+    protected Object value;
+
+    private final ErrorAccumulator errors;
+    private int failOffset;
+    private Collection<String> failExpected;
+    private ParseError failError;
+
+    /**
+     * Construct the state of a run.
+     *
+     * @param start cursor the run starts at, null for a state that never
+     *              runs
+     */
+    public ParseState(final Input start) {
+        this.start = start;
+        this.source = start == null ? null : start.source();
+        this.length = start == null ? 0 : source.length();
+        this.errors = start == null ? null : start.errors();
+    }
+
+    /**
+     * The result of the run, built from what the last parse returned.
+     *
+     * @param end the offset returned by the last parse
+     * @return the parsed value and the cursor at {@code end}, or the last
+     * failure
+     */
+    public final Result<Pair<Object, Input>> result(final int end) {
+        if (end >= 0) {
+            return new Success<>(new Pair<>(value, at(end)));
+        }
+        return new Failure<>(lastFailure());
+    }
+
+    /**
+     * Report a failure and make it the failure of the run.
+     *
+     * @param offset   where the failure happened
+     * @param expected items that were expected there
+     * @return -1
+     */
+    protected final int fail(final int offset, final Collection<String> expected) {
+        errors.record(offset, expected, found(offset));
+        failOffset = offset;
+        failExpected = expected;
+        failError = null;
+        return -1;
+    }
+
+    /**
+     * Make an error built elsewhere the failure of the run.
+     *
+     * @param error the failure of a parser run on a cursor
+     * @return -1
+     */
+    protected final int fail(final ParseError error) {
+        failError = error;
+        return -1;
+    }
+
+    /**
+     * Report what was expected where a parser stopped, without failing.
+     *
+     * @param offset   where the parser stopped
+     * @param expected items that were expected there
+     */
+    protected final void report(final int offset, final Collection<String> expected) {
+        errors.record(offset, expected, found(offset));
+    }
+
+    /**
+     * Tests whether the input starts with a literal at the given offset.
+     *
+     * @param offset  where to compare
+     * @param literal the expected string
+     * @return true if the characters match the literal
+     */
+    protected final boolean startsWith(final int offset, final String literal) {
+        if (length - offset < literal.length()) {
+            return false;
+        }
+        if (source instanceof String) {
+            return ((String) source).startsWith(literal, offset);
+        }
+        for (int i = 0; i < literal.length(); ++i) {
+            if (source.charAt(offset + i) != literal.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Cursor at an offset of the input of this run.
+     *
+     * @param offset offset in the source
+     * @return a cursor sharing the errors and the memo tables of the run
+     */
+    protected final Input at(final int offset) {
+        return start.advance(offset - start.offset());
+    }
+
+    /**
+     * Table of a memoized node for this run.
+     *
+     * @param owner      the memoized node
+     * @param maxEntries maximum number of offsets kept
+     * @return the saved results keyed by offset
+     */
+    protected final Map<Integer, Object> memoTable(final Object owner, final int maxEntries) {
+        return start.memo().tableFor(owner, maxEntries);
+    }
+
+    /**
+     * Save the outcome of the last parse for a memo table.
+     *
+     * @param end what the parse returned
+     * @return the saved outcome
+     */
+    protected final Object save(final int end) {
+        return end >= 0 ? new Saved(end, value, null) : new Saved(end, null, lastFailure());
+    }
+
+    /**
+     * Restore an outcome saved by {@code save}.
+     *
+     * @param saved the saved outcome
+     * @return what the parse returned
+     */
+    protected final int restore(final Object saved) {
+        final Saved outcome = (Saved) saved;
+        if (outcome.end >= 0) {
+            value = outcome.value;
+        } else {
+            failError = outcome.failure;
+        }
+        return outcome.end;
+    }
+
+    private ParseError lastFailure() {
+        return failError != null ? failError : new ParseError(failOffset, failExpected, found(failOffset));
+    }
+
+    private int found(final int offset) {
+        return offset < length ? source.charAt(offset) : ParseError.END_OF_INPUT;
+    }
+
+    private static final class Saved {
+        final int end;
+        final Object value;
+        final ParseError failure;
+
+        Saved(final int end, final Object value, final ParseError failure) {
+            this.end = end;
+            this.value = value;
+            this.failure = failure;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package edu.parsec.parser.grammar;
+
+/**
+ * One rewrite rule of the {@link Optimizer}.
+ * <p>
+ * A pass looks at a single node whose children are already optimized and
+ * returns an equivalent node: same values, same consumed input and the same
+ * failures reported. it returns the node itself when it doesn't apply.
+ * </p>
+ *
+ * @author Tarek Nawara
+ */
+@FunctionalInterface
+public interface Pass {
+
+    /**
+     * Rewrite a node.
+     *
+     * @param node the node to rewrite, with optimized children
+     * @return an equivalent node, or {@code node} if nothing changed
+     */
+    Node apply(Node node);
+}
@@ -0,0 +1,222 @@
+package edu.parsec.parser.grammar;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.parsec.data.list.CharList;
+import edu.parsec.parser.combinators.CharClass;
+
+/**
+ * The passes of the default {@link Optimizer} pipeline.
+ *
+ * @author Tarek Nawara
+ */
+public final class Passes {
+
+    /**
+     * {@code p.map(f).map(g)} becomes {@code p.map(f.andThen(g))}.
+     */
+    public static final Pass FUSE_MAPS = Passes::fuseMaps;
+
+    /**
+     * {@code many}, {@code many1}, {@code manyChar} and {@code skipMany} of a
+     * single character parser become a scan of the input, see
+     * {@link CharSpanNode} and {@link SkipWhileNode}.
+     */
+    public static final Pass SPAN_SCANS = Passes::spanScans;
+
+    /**
+     * The value of a node under a {@code slice} is never used, so its maps
+     * are dropped and its repetitions stop collecting their values.
+     */
+    public static final Pass SLICE_VALUES = Passes::sliceValues;
+
+    /**
+     * A choice nested in a choice is merged into it, so a chain of
+     * {@code or} is dispatched by a single table. the merged choice keeps
+     * the nesting as groups, see {@link AltNode#inline}.
+     */
+    public static final Pass FLATTEN_ALTERNATIVES = Passes::flattenAlternatives;
+
+    /**
+     * Consecutive alternatives of a choice that start with the same parsers
+     * run these parsers once, then choose between what remains of each
+     * alternative. see {@link LeftFactoring}.
+     */
+    public static final Pass LEFT_FACTOR = LeftFactoring::apply;
+
+    /**
+     * A sequence nested in a sequence is merged into it when the outer one
+     * needs at most one value of the inner one, which is the case of the
+     * chains of {@code then} and {@code skip} like {@code noSpacesParser}.
+     */
+    public static final Pass FLATTEN_SEQUENCES = Passes::flattenSequences;
+
+    /**
+     * Two scans of the same class in a row only need the first one, the
+     * second can't consume anything. this removes the extra space skipping
+     * between two {@code noSpacesParser} once their sequences are flattened.
+     */
+    public static final Pass MERGE_SKIPS = Passes::mergeSkips;
+
+    private Passes() {
+    }
+
+    private static Node fuseMaps(final Node node) {
+        if (node instanceof MapNode && ((MapNode) node).parser() instanceof MapNode) {
+            final MapNode outer = (MapNode) node;
+            final MapNode inner = (MapNode) outer.parser();
+            return new MapNode(inner.parser(), inner.function().andThen(outer.function()));
+        }
+        return node;
+    }
+
+    private static Node spanScans(final Node node) {
+        if (node instanceof ManyNode) {
+            final ManyNode many = (ManyNode) node;
+            final CharClass charClass = charClassOf(many.parser());
+            return charClass == null ? node : new CharSpanNode(charClass, many.atLeastOne());
+        }
+        if (node instanceof CollectNode && (Object) ((CollectNode) node).collector() == CharList.collector()) {
+            final CollectNode collect = (CollectNode) node;
+            final CharClass charClass = charClassOf(collect.parser());
+            return charClass == null ? node : new CharSpanNode(charClass, collect.atLeastOne(), true);
+        }
+        if (node instanceof SkipManyNode) {
+            final CharClass charClass = charClassOf(((SkipManyNode) node).parser());
+            return charClass == null ? node : new SkipWhileNode(charClass, true);
+        }
+        return node;
+    }
+
+    private static CharClass charClassOf(final Node node) {
+        if (node instanceof SatisfyNode) {
+            return ((SatisfyNode) node).charClass();
+        }
+        if (node instanceof CharNode) {
+            return CharClass.of(String.valueOf(((CharNode) node).character()));
+        }
+        return null;
+    }
+
+    private static Node flattenAlternatives(final Node node) {
+        if (!(node instanceof AltNode)) {
+            return node;
+        }
+        AltNode alt = (AltNode) node;
+        // from the end, so the indices still to merge don't move
+        for (int i = alt.children().size() - 1; i >= 0; --i) {
+            final Node alternative = alt.children().get(i);
+            if (alternative instanceof AltNode && ((AltNode) alternative).isDispatched() == alt.isDispatched()) {
+                alt = alt.inline(i);
+            }
+        }
+        return alt;
+    }
+
+    private static Node sliceValues(final Node node) {
+        if (!(node instanceof SliceNode)) {
+            return node;
+        }
+        final Node inner = ((SliceNode) node).parser();
+        final Node dropped = dropValue(inner);
+        return dropped == inner ? node : new SliceNode(dropped);
+    }
+
+    /*
+     * a node consuming the same input, whose value is not needed
+     */
+    private static Node dropValue(final Node node) {
+        if (node instanceof MapNode) {
+            return dropValue(((MapNode) node).parser());
+        }
+        if (node instanceof SliceNode) {
+            return dropValue(((SliceNode) node).parser());
+        }
+        if (node instanceof ManyNode && !((ManyNode) node).atLeastOne()) {
+            return new SkipManyNode(((ManyNode) node).parser());
+        }
+        if (node instanceof CollectNode && !((CollectNode) node).atLeastOne()) {
+            return new SkipManyNode(((CollectNode) node).parser());
+        }
+        if (node instanceof CharSpanNode && !((CharSpanNode) node).atLeastOne()) {
+            return new SkipWhileNode(((CharSpanNode) node).charClass(), true);
+        }
+        if (node instanceof SeqNode || node instanceof AltNode) {
+            final List<Node> children = node.children();
+            final List<Node> dropped = new ArrayList<>(children.size());
+            boolean changed = false;
+            for (final Node child : children) {
+                final Node result = dropValue(child);
+                changed |= result != child;
+                dropped.add(result);
+            }
+            if (node instanceof AltNode) {
+                return changed ? node.withChildren(dropped) : node;
+            }
+            return changed || !((SeqNode) node).combiner().isPick()
+                    ? new SeqNode(dropped, Combiner.pick(0)) : node;
+        }
+        return node;
+    }
+
+    private static Node flattenSequences(final Node node) {
+        if (!(node instanceof SeqNode)) {
+            return node;
+        }
+        final SeqNode seq = (SeqNode) node;
+        final List<Node> items = seq.children();
+        final Combiner combiner = seq.combiner();
+        if (items.size() == 1 && combiner.isPick()) {
+            return items.get(0);
+        }
+        final List<Node> flat = new ArrayList<>();
+        final int[] moved = new int[items.size()];
+        boolean changed = false;
+        for (int i = 0; i < items.size(); ++i) {
+            final Node item = items.get(i);
+            if (item instanceof SeqNode
+                    && (((SeqNode) item).combiner().isPick() || !combiner.uses(i))) {
+                final Combiner inner = ((SeqNode) item).combiner();
+                moved[i] = inner.isPick() ? flat.size() + inner.args()[0] : -1;
+                flat.addAll(item.children());
+                changed = true;
+            } else {
+                moved[i] = flat.size();
+                flat.add(item);
+            }
+        }
+        return changed ? new SeqNode(flat, combiner.remap(i -> moved[i])) : node;
+    }
+
+    private static Node mergeSkips(final Node node) {
+        if (!(node instanceof SeqNode)) {
+            return node;
+        }
+        final SeqNode seq = (SeqNode) node;
+        final List<Node> items = seq.children();
+        final Combiner combiner = seq.combiner();
+        final List<Node> kept = new ArrayList<>();
+        final int[] moved = new int[items.size()];
+        for (int i = 0; i < items.size(); ++i) {
+            final Node item = items.get(i);
+            final Node previous = kept.isEmpty() ? null : kept.get(kept.size() - 1);
+            if (previous instanceof SkipWhileNode && item instanceof SkipWhileNode && !combiner.uses(i)
+                    && sameScan((SkipWhileNode) previous, (SkipWhileNode) item)) {
+                moved[i] = -1;
+            } else {
+                moved[i] = kept.size();
+                kept.add(item);
+            }
+        }
+        return kept.size() == items.size() ? node : new SeqNode(kept, combiner.remap(i -> moved[i]));
+    }
+
+    /*
+     * the second scan stops where the first one stopped, so it only matters
+     * if it reports something the first one doesn't
+     */
+    private static boolean sameScan(final SkipWhileNode first, final SkipWhileNode second) {
+        return first.charClass().equals(second.charClass()) && (first.reportsStop() || !second.reportsStop());
+    }
+}
@@ -0,0 +1,47 @@
+package edu.parsec.parser.grammar;
+
+import edu.parsec.parser.imp.Lookahead;
+
+/**
+ * Succeeds with a given value without consuming anything.
+ *
+ * @author Tarek Nawara
+ */
+public final class PureNode extends Node {
+
+    private final Object value;
+
+    /**
+     * Construct a node that always returns the given value.
+     *
+     * @param value the value to return
+     */
+    public PureNode(final Object value) {
+        this.value = value;
+    }
+
+    /**
+     * The value this node returns.
+     *
+     * @return the returned value
+     */
+    public Object value() {
+        return value;
+    }
+
+    @Override
+    public int parse(final ParseState state, final int offset) {
+        state.value = value;
+        return offset;
+    }
+
+    @Override
+    protected Lookahead computeLookahead() {
+        return Lookahead.EMPTY;
+    }
+
+    @Override
+    public String toString() {
+        return "Pure(" + value + ")";
+    }
+}
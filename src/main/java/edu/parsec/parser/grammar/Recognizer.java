@@ -0,0 +1,101 @@
+package edu.parsec.parser.grammar;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Copies a grammar graph into one that consumes the same input without
+ * building values, see {@code Parser.recognize}.
+ * <p>
+ * The maps and the slices are removed, the repetitions skip instead of
+ * collecting, the numbers are not converted and the sequences keep no
+ * value. references are followed and copied, so the recursive rules are
+ * stripped too. a {@code flatMap} needs the value of its parser to go on,
+ * it is kept as it is with everything below it. the original graph is
+ * never modified.
+ * </p>
+ *
+ * @author Tarek Nawara
+ */
+public final class Recognizer {
+
+    private final Map<Node, Node> done = new IdentityHashMap<>();
+
+    private Recognizer() {
+    }
+
+    /**
+     * The recognizer of the graph reachable from the given node.
+     *
+     * @param root the node to strip
+     * @return a graph consuming the same input as {@code root}, whose values
+     * are meaningless
+     */
+    public static Node of(final Node root) {
+        return new Recognizer().strip(root);
+    }
+
+    private Node strip(final Node node) {
+        final Node known = done.get(node);
+        if (known != null) {
+            return known;
+        }
+        if (node instanceof RefNode) {
+            // tied after the target is stripped, the cycles come back here
+            final RefNode copy = new RefNode();
+            done.put(node, copy);
+            copy.set(strip(((RefNode) node).target()));
+            return copy;
+        }
+        final Node result = rewrite(node);
+        done.put(node, result);
+        return result;
+    }
+
+    private Node rewrite(final Node node) {
+        if (node instanceof MapNode) {
+            return strip(((MapNode) node).parser());
+        }
+        if (node instanceof SliceNode) {
+            return strip(((SliceNode) node).parser());
+        }
+        if (node instanceof ManyNode) {
+            return skipMany(strip(((ManyNode) node).parser()), ((ManyNode) node).atLeastOne());
+        }
+        if (node instanceof CollectNode) {
+            return skipMany(strip(((CollectNode) node).parser()), ((CollectNode) node).atLeastOne());
+        }
+        if (node instanceof CharSpanNode && !((CharSpanNode) node).atLeastOne()) {
+            return new SkipWhileNode(((CharSpanNode) node).charClass(), true);
+        }
+        if (node instanceof NumberNode) {
+            return ((NumberNode) node).withoutValue();
+        }
+        if (node instanceof FlatMapNode) {
+            return node;
+        }
+        final List<Node> children = node.children();
+        final List<Node> stripped = new ArrayList<>(children.size());
+        boolean changed = false;
+        for (final Node child : children) {
+            final Node result = strip(child);
+            changed |= result != child;
+            stripped.add(result);
+        }
+        if (node instanceof SeqNode) {
+            return changed || !((SeqNode) node).combiner().isPick() ? new SeqNode(stripped, Combiner.pick(0)) : node;
+        }
+        return changed ? node.withChildren(stripped) : node;
+    }
+
+    /*
+     * many1 is its parser followed by many
+     */
+    private static Node skipMany(final Node parser, final boolean atLeastOne) {
+        final Node skip = new SkipManyNode(parser);
+        return atLeastOne ? new SeqNode(Arrays.asList(parser, skip), Combiner.pick(0)) : skip;
+    }
+}
@@ -0,0 +1,98 @@
+package edu.parsec.parser.grammar;
+
+import java.util.Objects;
+import java.util.function.Supplier;
+
+import edu.parsec.parser.imp.Lookahead;
+
+/**
+ * Forward reference to another node, behind {@code ParserRef}.
+ * <p>
+ * This is the only way to build a cycle in the graph. the target is either
+ * tied once with {@code set} or built by a supplier the first time it is
+ * needed. the target is not one of the {@code children} of the node, the
+ * optimizer follows it explicitly so it doesn't loop on the cycles.
+ * </p>
+ *
+ * @author Tarek Nawara
+ */
+public final class RefNode extends Node {
+
+    private volatile Node target;
+    private Supplier<Node> supplier;
+
+    /**
+     * Construct a reference that must be tied with {@code set} before it runs.
+     */
+    public RefNode() {
+    }
+
+    /**
+     * Construct a reference that builds its target on first use.
+     *
+     * @param supplier builds the target, called at most once
+     */
+    public RefNode(final Supplier<Node> supplier) {
+        this.supplier = Objects.requireNonNull(supplier);
+    }
+
+    /**
+     * The referenced node, built by the supplier if needed.
+     *
+     * @return the target of the reference
+     * @throws IllegalStateException if the reference is used before being set
+     */
+    public Node target() {
+        Node result = target;
+        if (result == null) {
+            synchronized (this) {
+                if (target == null) {
+                    if (supplier == null) {
+                        throw new IllegalStateException("Parser reference used before being set");
+                    }
+                    target = Objects.requireNonNull(supplier.get());
+                    supplier = null;
+                }
+                result = target;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Tie the reference to its target.
+     *
+     * @param node the referenced node
+     * @throws IllegalStateException if the reference is already tied
+     */
+    public synchronized void set(final Node node) {
+        if (target != null || supplier != null) {
+            throw new IllegalStateException("Parser reference is already set");
+        }
+        target = Objects.requireNonNull(node);
+    }
+
+    /**
+     * Tests whether the target is known.
+     *
+     * @return true if the reference is tied, false otherwise
+     */
+    public boolean isResolved() {
+        return target != null;
+    }
+
+    @Override
+    public int parse(final ParseState state, final int offset) {
+        return target().parse(state, offset);
+    }
+
+    @Override
+    protected Lookahead computeLookahead() {
+        return target().lookahead();
+    }
+
+    @Override
+    public String toString() {
+        return "Ref@" + Integer.toHexString(System.identityHashCode(this));
+    }
+}
@@ -0,0 +1,56 @@
+package edu.parsec.parser.grammar;
+
+import java.util.Collection;
+import java.util.Collections;
+
+import edu.parsec.parser.combinators.CharClass;
+import edu.parsec.parser.imp.Lookahead;
+
+/**
+ * Parses one character of a class, see {@code ParserBuilder.satisfy}.
+ *
+ * @author Tarek Nawara
+ */
+public final class SatisfyNode extends Node {
+
+    private final CharClass charClass;
+    private final Collection<String> expected;
+
+    /**
+     * Construct a node parsing any character of the given class.
+     *
+     * @param charClass accepted characters
+     */
+    public SatisfyNode(final CharClass charClass) {
+        this.charClass = charClass;
+        this.expected = Collections.singletonList(charClass.toString());
+    }
+
+    /**
+     * The characters this node accepts.
+     *
+     * @return the accepted class
+     */
+    public CharClass charClass() {
+        return charClass;
+    }
+
+    @Override
+    public int parse(final ParseState state, final int offset) {
+        if (offset >= state.length || !charClass.contains(state.source.charAt(offset))) {
+            return state.fail(offset, expected);
+        }
+        state.value = state.source.charAt(offset);
+        return offset + 1;
+    }
+
+    @Override
+    protected Lookahead computeLookahead() {
+        return Lookahead.of(charClass, expected);
+    }
+
+    @Override
+    public String toString() {
+        return "Satisfy(" + charClass + ")";
+    }
+}
@@ -0,0 +1,113 @@
+package edu.parsec.parser.grammar;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import edu.parsec.parser.imp.Lookahead;
+
+/**
+ * Runs nodes one after the other, see {@code Parser.and}, {@code skip} and
+ * {@code then}.
+ * <p>
+ * The sequence fails as soon as one of its items fails. its value is built
+ * by a {@link Combiner} from the values of some of the items.
+ * </p>
+ *
+ * @author Tarek Nawara
+ */
+public final class SeqNode extends Node {
+
+    private final List<Node> items;
+    private final Combiner combiner;
+    private final int[] slots;
+
+    /**
+     * Construct a sequence of the given nodes.
+     *
+     * @param items    the nodes to run, in order
+     * @param combiner builds the value of the sequence
+     */
+    public SeqNode(final List<Node> items, final Combiner combiner) {
+        if (items.isEmpty()) {
+            throw new IllegalArgumentException("Empty sequence");
+        }
+        this.items = Collections.unmodifiableList(new ArrayList<>(items));
+        this.combiner = combiner;
+        this.slots = new int[items.size()];
+        for (int i = 0; i < slots.length; ++i) {
+            slots[i] = combiner.slot(i);
+        }
+        for (final int arg : combiner.args()) {
+            if (arg < 0 || arg >= items.size()) {
+                throw new IllegalArgumentException("No item at " + arg + " in a sequence of " + items.size());
+            }
+        }
+    }
+
+    /**
+     * The combiner building the value of the sequence.
+     *
+     * @return the combiner
+     */
+    public Combiner combiner() {
+        return combiner;
+    }
+
+    @Override
+    public int parse(final ParseState state, final int offset) {
+        final Object[] values = combiner.isPick() ? null : new Object[combiner.arity()];
+        Object picked = null;
+        int at = offset;
+        for (int i = 0; i < slots.length; ++i) {
+            at = items.get(i).parse(state, at);
+            if (at < 0) {
+                return -1;
+            }
+            if (slots[i] >= 0) {
+                if (values == null) {
+                    picked = state.value;
+                } else {
+                    values[slots[i]] = state.value;
+                }
+            }
+        }
+        state.value = values == null ? picked : combiner.combine(values);
+        return at;
+    }
+
+    /*
+     * the slot of the value of each item in the arguments of the combiner,
+     * -1 when it isn't used. shared with TrampolineNode, never modified
+     */
+    int[] slots() {
+        return slots;
+    }
+
+    @Override
+    public List<Node> children() {
+        return items;
+    }
+
+    @Override
+    public Node withChildren(final List<Node> children) {
+        return new SeqNode(children, combiner);
+    }
+
+    @Override
+    protected Lookahead computeLookahead() {
+        Lookahead result = Lookahead.EMPTY;
+        for (final Node item : items) {
+            result = result.then(item.lookahead());
+            if (!result.isNullable()) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "Seq" + items + "." + combiner;
+    }
+}
@@ -0,0 +1,70 @@
+package edu.parsec.parser.grammar;
+
+import java.util.Collections;
+import java.util.List;
+
+import edu.parsec.data.unit.Unit;
+import edu.parsec.parser.imp.Lookahead;
+
+/**
+ * Runs a node as many times as it succeeds and drops its values, see
+ * {@code Combinator.skipMany}.
+ *
+ * @author Tarek Nawara
+ */
+public final class SkipManyNode extends Node {
+
+    private final Node parser;
+
+    /**
+     * Construct a node skipping what the given node parses.
+     *
+     * @param parser the node to repeat
+     */
+    public SkipManyNode(final Node parser) {
+        this.parser = parser;
+    }
+
+    /**
+     * The repeated node.
+     *
+     * @return the node run at each iteration
+     */
+    public Node parser() {
+        return parser;
+    }
+
+    @Override
+    public int parse(final ParseState state, final int offset) {
+        int at = offset;
+        while (true) {
+            final int end = parser.parse(state, at);
+            if (end < 0 || end == at) {
+                break;
+            }
+            at = end;
+        }
+        state.value = Unit.get();
+        return at;
+    }
+
+    @Override
+    public List<Node> children() {
+        return Collections.singletonList(parser);
+    }
+
+    @Override
+    public Node withChildren(final List<Node> children) {
+        return new SkipManyNode(children.get(0));
+    }
+
+    @Override
+    protected Lookahead computeLookahead() {
+        return parser.lookahead().optional();
+    }
+
+    @Override
+    public String toString() {
+        return "SkipMany(" + parser + ")";
+    }
+}
@@ -0,0 +1,78 @@
+package edu.parsec.parser.grammar;
+
+import java.util.Collection;
+import java.util.Collections;
+
+import edu.parsec.data.unit.Unit;
+import edu.parsec.parser.combinators.CharClass;
+import edu.parsec.parser.imp.Lookahead;
+
+/**
+ * Skips the leading characters of a class with a single scan, see
+ * {@code Combinator.skipWhile}.
+ * <p>
+ * When the node replaces a {@code skipMany} of a single character parser,
+ * it also reports the class as expected where the scan stops, like the
+ * failed iteration of the {@code skipMany} did.
+ * </p>
+ *
+ * @author Tarek Nawara
+ */
+public final class SkipWhileNode extends Node {
+
+    private final CharClass charClass;
+    private final Collection<String> reported;
+
+    /**
+     * Construct a node skipping the given characters.
+     *
+     * @param charClass characters to skip
+     * @param reportStop whether the class is reported as expected where the
+     *                   scan stops
+     */
+    public SkipWhileNode(final CharClass charClass, final boolean reportStop) {
+        this.charClass = charClass;
+        this.reported = reportStop ? Collections.singletonList(charClass.toString()) : null;
+    }
+
+    /**
+     * The characters this node skips.
+     *
+     * @return the skipped class
+     */
+    public CharClass charClass() {
+        return charClass;
+    }
+
+    /**
+     * Tests whether the class is reported as expected where the scan stops.
+     *
+     * @return true if the stop is reported
+     */
+    public boolean reportsStop() {
+        return reported != null;
+    }
+
+    @Override
+    public int parse(final ParseState state, final int offset) {
+        int end = offset;
+        while (end < state.length && charClass.contains(state.source.charAt(end))) {
+            ++end;
+        }
+        if (reported != null) {
+            state.report(end, reported);
+        }
+        state.value = Unit.get();
+        return end;
+    }
+
+    @Override
+    protected Lookahead computeLookahead() {
+        return Lookahead.of(charClass, reported == null ? Collections.emptyList() : reported).optional();
+    }
+
+    @Override
+    public String toString() {
+        return "SkipWhile(" + charClass + ")";
+    }
+}
@@ -0,0 +1,69 @@
+package edu.parsec.parser.grammar;
+
+import java.util.Collections;
+import java.util.List;
+
+import edu.parsec.parser.imp.Lookahead;
+
+/**
+ * Returns the characters another node consumed instead of its value, see
+ * {@code Parser.slice}.
+ * <p>
+ * The characters are copied once from the input when the node succeeds, the
+ * value of the inner node is dropped, so the optimizer is free to skip
+ * building it.
+ * </p>
+ *
+ * @author Tarek Nawara
+ */
+public final class SliceNode extends Node {
+
+    private final Node parser;
+
+    /**
+     * Construct a node returning what the given node consumes.
+     *
+     * @param parser the node to run
+     */
+    public SliceNode(final Node parser) {
+        this.parser = parser;
+    }
+
+    /**
+     * The node whose input is returned.
+     *
+     * @return the sliced node
+     */
+    public Node parser() {
+        return parser;
+    }
+
+    @Override
+    public int parse(final ParseState state, final int offset) {
+        final int end = parser.parse(state, offset);
+        if (end >= 0) {
+            state.value = state.source.subSequence(offset, end).toString();
+        }
+        return end;
+    }
+
+    @Override
+    public List<Node> children() {
+        return Collections.singletonList(parser);
+    }
+
+    @Override
+    public Node withChildren(final List<Node> children) {
+        return new SliceNode(children.get(0));
+    }
+
+    @Override
+    protected Lookahead computeLookahead() {
+        return parser.lookahead();
+    }
+
+    @Override
+    public String toString() {
+        return "Slice(" + parser + ")";
+    }
+}
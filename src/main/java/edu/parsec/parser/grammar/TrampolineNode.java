@@ -0,0 +1,349 @@
+package edu.parsec.parser.grammar;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import edu.parsec.data.list.Empty;
+import edu.parsec.data.list.IList;
+import edu.parsec.data.unit.Unit;
+import edu.parsec.parser.imp.Lookahead;
+
+/**
+ * Runs a graph on a stack of its own instead of the stack of the thread,
+ * see {@code Parser.stackSafe}.
+ * <p>
+ * The other nodes parse their children by calling them, so every level of
+ * nesting in the input costs a few frames of the thread and a deep input
+ * overflows it. this node walks the graph itself: entering a sequence, a
+ * choice, a repetition, a map or a memo pushes a frame on an array it owns,
+ * the value of the child is handed to the frame on top when the child
+ * returns. references and the continuations of {@code flatMap} take the
+ * place of the node that leads to them instead of pushing a frame. the
+ * depth is bounded by the heap, and the frames are reused from one level to
+ * the next, so a run allocates nothing more than the recursive nodes do.
+ * </p>
+ * <p>
+ * The leaves, and the nodes this engine doesn't know, are run by their own
+ * {@code parse}. the results and the failures are the same as the graph run
+ * directly.
+ * </p>
+ *
+ * @author Tarek Nawara
+ */
+public final class TrampolineNode extends Node {
+
+    private static final int SEQ = 0;
+    private static final int ALT = 1;
+    private static final int MAP = 2;
+    private static final int FLAT_MAP = 3;
+    private static final int MANY = 4;
+    private static final int COLLECT = 5;
+    private static final int SKIP_MANY = 6;
+    private static final int SLICE = 7;
+    private static final int MEMO = 8;
+    private static final int TAIL = 9;
+
+    private static final int INITIAL_DEPTH = 32;
+
+    private final Node root;
+
+    /**
+     * Construct a node running the given graph on its own stack.
+     *
+     * @param root the graph to run
+     */
+    public TrampolineNode(final Node root) {
+        this.root = root;
+    }
+
+    /**
+     * The graph run by this node.
+     *
+     * @return the root of the graph
+     */
+    public Node root() {
+        return root;
+    }
+
+    @Override
+    public int parse(final ParseState state, final int offset) {
+        return new Run(state).run(root, offset);
+    }
+
+    @Override
+    public List<Node> children() {
+        return Collections.singletonList(root);
+    }
+
+    @Override
+    public Node withChildren(final List<Node> children) {
+        return new TrampolineNode(children.get(0));
+    }
+
+    @Override
+    protected Lookahead computeLookahead() {
+        return root.lookahead();
+    }
+
+    @Override
+    public String toString() {
+        return "Trampoline(" + root + ")";
+    }
+
+    /*
+     * the suspended parse of a node waiting for the result of a child. only
+     * the fields its kind needs are used
+     */
+    private static final class Frame {
+        int kind;
+        Node node;
+        int index;
+        int offset;
+        int at;
+        Object data;
+        Object picked;
+
+        void clear() {
+            node = null;
+            data = null;
+            picked = null;
+        }
+    }
+
+    private static final class Run {
+        private final ParseState state;
+        private Frame[] frames = new Frame[INITIAL_DEPTH];
+        private int depth;
+
+        Run(final ParseState state) {
+            this.state = state;
+        }
+
+        int run(final Node start, final int offset) {
+            Node node = start;
+            int at = offset;
+            while (true) {
+                // descend to a node parsed directly
+                int result;
+                while (true) {
+                    if (node instanceof SeqNode) {
+                        final SeqNode seq = (SeqNode) node;
+                        final Frame frame = push(SEQ, node, at);
+                        frame.index = 0;
+                        frame.data = seq.combiner().isPick() ? null : new Object[seq.combiner().arity()];
+                        node = seq.children().get(0);
+                    } else if (node instanceof AltNode) {
+                        final ChoiceTable table = ((AltNode) node).table();
+                        final int[] candidates = table.candidates(state, at);
+                        if (candidates.length == 0) {
+                            table.reportSkipped(state, at, candidates, node.children().size());
+                            result = state.fail(at, node.lookahead().expected());
+                            break;
+                        }
+                        final Frame frame = push(ALT, node, at);
+                        frame.index = 0;
+                        frame.data = candidates;
+                        node = node.children().get(candidates[0]);
+                    } else if (node instanceof RefNode) {
+                        node = ((RefNode) node).target();
+                    } else if (node instanceof MapNode) {
+                        push(MAP, node, at);
+                        node = ((MapNode) node).parser();
+                    } else if (node instanceof FlatMapNode) {
+                        push(FLAT_MAP, node, at);
+                        node = ((FlatMapNode) node).parser();
+                    } else if (node instanceof ManyNode) {
+                        push(MANY, node, at);
+                        node = ((ManyNode) node).parser();
+                    } else if (node instanceof CollectNode) {
+                        final Frame frame = push(COLLECT, node, at);
+                        frame.index = 0;
+                        frame.data = ((CollectNode) node).collector().supplier().get();
+                        node = ((CollectNode) node).parser();
+                    } else if (node instanceof SkipManyNode) {
+                        push(SKIP_MANY, node, at);
+                        node = ((SkipManyNode) node).parser();
+                    } else if (node instanceof SliceNode) {
+                        push(SLICE, node, at);
+                        node = ((SliceNode) node).parser();
+                    } else if (node instanceof MemoNode) {
+                        final MemoNode memo = (MemoNode) node;
+                        final Map<Integer, Object> table = state.memoTable(memo, memo.maxEntries());
+                        final Object saved = table.get(at);
+                        if (saved != null) {
+                            result = state.restore(saved);
+                            break;
+                        }
+                        push(MEMO, node, at).data = table;
+                        node = memo.parser();
+                    } else if (node instanceof TrampolineNode) {
+                        node = ((TrampolineNode) node).root();
+                    } else {
+                        result = node.parse(state, at);
+                        break;
+                    }
+                }
+                // hand the result to the frames until one runs another child
+                while (true) {
+                    if (depth == 0) {
+                        return result;
+                    }
+                    final Frame frame = frames[depth - 1];
+                    final Node next = resume(frame, result);
+                    if (next != null) {
+                        node = next;
+                        at = frame.at;
+                        if (frame.kind == TAIL) {
+                            frame.clear();
+                            --depth;
+                        }
+                        break;
+                    }
+                    result = frame.at;
+                    frame.clear();
+                    --depth;
+                }
+            }
+        }
+
+        /*
+         * continue the frame with the result of its child. returns the next
+         * child to run at frame.at, or null when the frame is done with its
+         * own result in frame.at
+         */
+        @SuppressWarnings("unchecked")
+        private Node resume(final Frame frame, final int result) {
+            switch (frame.kind) {
+                case SEQ: {
+                    if (result < 0) {
+                        return done(frame, -1);
+                    }
+                    final SeqNode seq = (SeqNode) frame.node;
+                    final int slot = seq.slots()[frame.index];
+                    if (slot >= 0) {
+                        if (frame.data == null) {
+                            frame.picked = state.value;
+                        } else {
+                            ((Object[]) frame.data)[slot] = state.value;
+                        }
+                    }
+                    frame.at = result;
+                    if (++frame.index < seq.children().size()) {
+                        return seq.children().get(frame.index);
+                    }
+                    state.value = frame.data == null ? frame.picked : seq.combiner().combine((Object[]) frame.data);
+                    return done(frame, result);
+                }
+                case ALT: {
+                    final int[] candidates = (int[]) frame.data;
+                    if (result < 0 && ++frame.index < candidates.length) {
+                        return frame.node.children().get(candidates[frame.index]);
+                    }
+                    if (result < 0 || result == frame.offset) {
+                        final int winner = result < 0 ? frame.node.children().size() : candidates[frame.index];
+                        ((AltNode) frame.node).table().reportSkipped(state, frame.offset, candidates, winner);
+                    }
+                    return done(frame, result);
+                }
+                case MAP:
+                    if (result >= 0) {
+                        state.value = ((MapNode) frame.node).function().apply(state.value);
+                    }
+                    return done(frame, result);
+                case FLAT_MAP: {
+                    if (result < 0) {
+                        return done(frame, -1);
+                    }
+                    // the continuation takes the place of the frame
+                    final Node next = ((FlatMapNode) frame.node).function().apply(state.value).node();
+                    frame.kind = TAIL;
+                    frame.at = result;
+                    return next;
+                }
+                case MANY: {
+                    final ManyNode many = (ManyNode) frame.node;
+                    if (result < 0) {
+                        if (many.atLeastOne() && frame.data == null) {
+                            return done(frame, -1);
+                        }
+                        return done(frame, toList((IList.Builder<Object>) frame.data, frame.at));
+                    }
+                    if (frame.data == null) {
+                        frame.data = new IList.Builder<>();
+                    }
+                    ((IList.Builder<Object>) frame.data).add(state.value);
+                    if (result == frame.at) {
+                        return done(frame, toList((IList.Builder<Object>) frame.data, result));
+                    }
+                    frame.at = result;
+                    return many.parser();
+                }
+                case COLLECT: {
+                    final CollectNode collect = (CollectNode) frame.node;
+                    if (result < 0) {
+                        if (collect.atLeastOne() && frame.index == 0) {
+                            return done(frame, -1);
+                        }
+                        state.value = collect.collector().finisher().apply(frame.data);
+                        return done(frame, frame.at);
+                    }
+                    collect.collector().accumulator().accept(frame.data, state.value);
+                    frame.index = 1;
+                    if (result == frame.at) {
+                        state.value = collect.collector().finisher().apply(frame.data);
+                        return done(frame, result);
+                    }
+                    frame.at = result;
+                    return collect.parser();
+                }
+                case SKIP_MANY:
+                    if (result < 0 || result == frame.at) {
+                        state.value = Unit.get();
+                        return done(frame, frame.at);
+                    }
+                    frame.at = result;
+                    return ((SkipManyNode) frame.node).parser();
+                case SLICE:
+                    if (result >= 0) {
+                        state.value = state.source.subSequence(frame.offset, result).toString();
+                    }
+                    return done(frame, result);
+                case MEMO:
+                    ((Map<Integer, Object>) frame.data).put(frame.offset, state.save(result));
+                    return done(frame, result);
+                default:
+                    throw new IllegalStateException("Unknown frame " + frame.kind);
+            }
+        }
+
+        private Node done(final Frame frame, final int result) {
+            frame.at = result;
+            return null;
+        }
+
+        private int toList(final IList.Builder<Object> values, final int end) {
+            state.value = values == null ? new Empty<>() : values.build();
+            return end;
+        }
+
+        private Frame push(final int kind, final Node node, final int offset) {
+            if (depth == frames.length) {
+                frames = Arrays.copyOf(frames, depth * 2);
+            }
+            Frame frame = frames[depth];
+            if (frame == null) {
+                frame = new Frame();
+                frames[depth] = frame;
+            }
+            ++depth;
+            frame.kind = kind;
+            frame.node = node;
+            frame.offset = offset;
+            frame.at = offset;
+            frame.data = null;
+            return frame;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package edu.parsec.parser.imp;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+
+import edu.parsec.data.input.Input;
+import edu.parsec.parser.combinators.CharClass;
+
+/**
+ * What a parser can start with.
+ * <p>
+ * This is the {@code FIRST} set of the parser: the characters it may consume
+ * first, whether it may succeed without consuming anything (nullable), and
+ * the items it reports as expected when the input starts with something
+ * else. a parser whose first characters can't be computed, like a parser
+ * built from a plain function, has the {@code UNKNOWN} lookahead, which may
+ * start with anything and may be empty, so it is never skipped.
+ * </p>
+ *
+ * @author Tarek Nawara
+ */
+public final class Lookahead {
+
+    /**
+     * Lookahead of a parser that may start with anything.
+     */
+    public static final Lookahead UNKNOWN = new Lookahead(null, true, Collections.emptyList());
+
+    /**
+     * Lookahead of a parser that always succeeds without consuming anything.
+     */
+    public static final Lookahead EMPTY = new Lookahead(CharClass.NONE, true, Collections.emptyList());
+
+    private final CharClass first;
+    private final boolean nullable;
+    private final Collection<String> expected;
+
+    private Lookahead(final CharClass first, final boolean nullable, final Collection<String> expected) {
+        this.first = first;
+        this.nullable = nullable;
+        this.expected = expected;
+    }
+
+    /**
+     * Lookahead of a parser that must consume one of the given characters.
+     *
+     * @param first    the characters the parser may start with
+     * @param expected items reported when the input starts with something else
+     * @return a non nullable lookahead
+     */
+    public static Lookahead of(final CharClass first, final Collection<String> expected) {
+        return new Lookahead(first, false, expected);
+    }
+
+    /**
+     * The characters the parser may start with.
+     *
+     * @return the first characters, or null if they are unknown
+     */
+    public CharClass first() {
+        return first;
+    }
+
+    /**
+     * Tests whether the parser may succeed without consuming anything.
+     *
+     * @return true if the parser may be empty
+     */
+    public boolean isNullable() {
+        return nullable;
+    }
+
+    /**
+     * Items the parser expects at its first character.
+     *
+     * @return descriptions of the expected items
+     */
+    public Collection<String> expected() {
+        return expected;
+    }
+
+    /**
+     * Tests whether the parser may start with the given character.
+     *
+     * @param c the character under the cursor
+     * @return false only if the parser can't consume this character first
+     */
+    public boolean mayStartWith(final char c) {
+        return first == null || first.contains(c);
+    }
+
+    /**
+     * Tests whether the parser is certain to fail on the given input.
+     *
+     * @param inputChars cursor the parser would run on
+     * @return true if running the parser there can't succeed
+     */
+    public boolean excludes(final Input inputChars) {
+        return !nullable && first != null && (inputChars.isEmpty() || !first.contains(inputChars.head()));
+    }
+
+    /**
+     * Lookahead of this parser followed by another one.
+     *
+     * @param next lookahead of the parser that runs after this one
+     * @return the lookahead of the sequence
+     */
+    public Lookahead then(final Lookahead next) {
+        if (!nullable) {
+            return this;
+        }
+        return new Lookahead(union(first, next.first), next.nullable, merge(expected, next.expected));
+    }
+
+    /**
+     * Lookahead of a choice between this parser and another one.
+     *
+     * @param other lookahead of the alternative
+     * @return the lookahead of the choice
+     */
+    public Lookahead or(final Lookahead other) {
+        return new Lookahead(union(first, other.first), nullable || other.nullable, merge(expected, other.expected));
+    }
+
+    /**
+     * Lookahead of this parser when it is allowed to match nothing.
+     *
+     * @return the same lookahead but nullable
+     */
+    public Lookahead optional() {
+        return nullable ? this : new Lookahead(first, true, expected);
+    }
+
+    @Override
+    public String toString() {
+        return "Lookahead(" + (first == null ? "unknown" : first.toString()) + (nullable ? ", nullable)" : ")");
+    }
+
+    private static CharClass union(final CharClass a, final CharClass b) {
+        return a == null || b == null ? null : a.union(b);
+    }
+
+    private static Collection<String> merge(final Collection<String> a, final Collection<String> b) {
+        if (a.isEmpty()) {
+            return b;
+        }
+        if (b.isEmpty()) {
+            return a;
+        }
+        final LinkedHashSet<String> items = new LinkedHashSet<>(a);
+        items.addAll(b);
+        return Collections.unmodifiableList(new ArrayList<>(items));
+    }
+}
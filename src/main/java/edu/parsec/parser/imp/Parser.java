@@ -1,24 +1,53 @@
 package edu.parsec.parser.imp;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
+import edu.parsec.data.input.Input;
+import edu.parsec.data.list.Cons;
+import edu.parsec.data.list.Empty;
 import edu.parsec.data.list.IList;
 import edu.parsec.data.pair.Pair;
+import edu.parsec.data.result.ErrorAccumulator;
 import edu.parsec.data.result.Failure;
+import edu.parsec.data.result.ParseError;
 import edu.parsec.data.result.Result;
-import edu.parsec.data.result.Success;
+import edu.parsec.data.unit.Unit;
+import edu.parsec.parser.compiler.ParserCompiler;
+import edu.parsec.parser.grammar.AltNode;
+import edu.parsec.parser.grammar.Combiner;
+import edu.parsec.parser.grammar.FlatMapNode;
+import edu.parsec.parser.grammar.FunctionNode;
+import edu.parsec.parser.grammar.MapNode;
+import edu.parsec.parser.grammar.MemoNode;
+import edu.parsec.parser.grammar.Node;
+import edu.parsec.parser.grammar.Optimizer;
+import edu.parsec.parser.grammar.PureNode;
+import edu.parsec.parser.grammar.Recognizer;
+import edu.parsec.parser.grammar.RefNode;
+import edu.parsec.parser.grammar.SeqNode;
+import edu.parsec.parser.grammar.SliceNode;
+import edu.parsec.parser.grammar.TrampolineNode;
 import edu.parsec.typeclass.Monad;
 
 /**
  * This is implementation of a parser combinators.
  * <p>
- * The parser type is simply a function that when run on a given input
- * characters will return <code>success of pair</code>. if it managed to parse
- * the input characters, {@code first }of the pair is {@code T}the object
- * created from the parsed characters, the <code>second</code> of the pair is
- * the remaining characters. will return <code>failure of error message</code>
+ * A parser is something that when run on a given input characters will
+ * return <code>success of pair</code>. if it managed to parse the input
+ * characters, {@code first }of the pair is {@code T}the object created from
+ * the parsed characters, the <code>second</code> of the pair is the
+ * {@link Input} cursor after the consumed characters. will return
+ * <code>failure of error message</code>
+ * </p>
+ * <p>
+ * Behind the parser is a graph of {@link Node} describing what it is built
+ * from, the combinators only add nodes to it. {@code compile} rewrites the
+ * graph into a faster equivalent one before running it
  * </p>
  *
  * @param <T> the object will the parser return if it managed to parse the input
@@ -27,7 +56,12 @@ import edu.parsec.typeclass.Monad;
  */
 public class Parser<T> implements Monad<T, Parser<?>> {
 
-    private final Function<IList<Character>, Result<Pair<T, IList<Character>>>> parserFunc;
+    /**
+     * Number of offsets cached per run by {@code memo()}.
+     */
+    public static final int DEFAULT_MEMO_ENTRIES = 4096;
+
+    private final Node node;
 
     /**
      * Construct a parser object given a function that takes a stream of
@@ -36,31 +70,159 @@ public class Parser<T> implements Monad<T, Parser<?>> {
      *
      * @param parserFunc the function used in the construction
      */
-    public Parser(Function<IList<Character>, Result<Pair<T, IList<Character>>>> parserFunc) {
-        this.parserFunc = parserFunc;
+    public Parser(Function<Input, Result<Pair<T, Input>>> parserFunc) {
+        this(parserFunc, () -> Lookahead.UNKNOWN);
+    }
+
+    /**
+     * Same as {@code Parser(Function)} but also tells what the parser can
+     * start with, which lets {@code or} and {@code Combinator.choice} skip it
+     * when the input can't match
+     *
+     * @param parserFunc    the function used in the construction
+     * @param lookaheadFunc computes the lookahead of the parser, called at most
+     *                      once and only when the lookahead is needed
+     */
+    public Parser(Function<Input, Result<Pair<T, Input>>> parserFunc, Supplier<Lookahead> lookaheadFunc) {
+        this(new FunctionNode(parserFunc, lookaheadFunc));
+    }
+
+    /**
+     * Construct a parser running the given grammar node. the node must
+     * return values of type {@code T}
+     *
+     * @param node the root of the grammar of this parser
+     */
+    public Parser(Node node) {
+        this.node = node;
+    }
+
+    /**
+     * The grammar of this parser.
+     *
+     * @return the root node of the graph behind this parser
+     */
+    public Node node() {
+        return node;
+    }
+
+    /**
+     * What this parser can start with.
+     * <p>
+     * The lookahead is computed from the parsers this one is built from the
+     * first time it is asked for. a grammar that reaches the same parser again
+     * before consuming any character gets {@code Lookahead.UNKNOWN} for it
+     * </p>
+     *
+     * @return the lookahead of this parser
+     */
+    public Lookahead lookahead() {
+        return node.lookahead();
+    }
+
+    /**
+     * Same as {@code compile(Optimizer)} with the default pipeline of
+     * {@code Optimizer}.
+     *
+     * @return an equivalent parser over the optimized grammar
+     */
+    public Parser<T> compile() {
+        return this.compile(Optimizer.defaultPipeline());
+    }
+
+    /**
+     * Optimize the grammar of this parser.
+     * <p>
+     * The returned parser gives the same results and the same errors as this
+     * one, but the graph behind it is rewritten by the passes of the
+     * optimizer: chains of {@code map} are fused, repetitions of a single
+     * character become scans, nested choices and sequences are merged...
+     * this parser is left as it is. the grammar must be complete, all the
+     * references it goes through are resolved
+     * </p>
+     * <p>
+     * When the {@code edu.parsec.parser.codegen} system property is true, the
+     * optimized grammar is also compiled to a class of its own, see
+     * {@code ParserCompiler}
+     * </p>
+     *
+     * @param optimizer the passes to run
+     * @return an equivalent parser over the optimized grammar
+     */
+    public Parser<T> compile(final Optimizer optimizer) {
+        final Parser<T> optimized = new Parser<>(optimizer.optimize(node));
+        return ParserCompiler.isEnabled() ? ParserCompiler.generate(optimized) : optimized;
     }
 
     /**
      * Run the parser on the given input characters.
      *
-     * @param inputChars the stream of characters that we want to parse.
-     * @return if success, a pair of {@code T} and {@code IList<Character>}
+     * @param inputChars cursor pointing at the characters that we want to parse.
+     * @return if success, a pair of {@code T} and the cursor after the
+     * consumed characters, otherwise a failure of error message
+     */
+    @SuppressWarnings("unchecked")
+    public Result<Pair<T, Input>> run(Input inputChars) {
+        return (Result<Pair<T, Input>>) (Result<?>) node.parse(inputChars);
+    }
+
+    /**
+     * Run the parser from the beginning of the given characters.
+     * <p>
+     * On failure the error is the farthest one reached during the run, with
+     * the items expected by all the alternatives that failed there
+     * </p>
+     *
+     * @param inputChars the characters that we want to parse.
+     * @return if success, a pair of {@code T} and the remaining input
+     * otherwise a failure of error message
+     */
+    public Result<Pair<T, Input>> run(CharSequence inputChars) {
+        return this.runFromStart(Input.of(inputChars));
+    }
+
+    /**
+     * Same as {@code run(CharSequence)} but parses the array in place.
+     *
+     * @param inputChars the characters that we want to parse.
+     * @return if success, a pair of {@code T} and the remaining input
      * otherwise a failure of error message
      */
-    public Result<Pair<T, IList<Character>>> run(IList<Character> inputChars) {
-        return this.parserFunc.apply(inputChars);
+    public Result<Pair<T, Input>> run(char[] inputChars) {
+        return this.runFromStart(Input.of(inputChars));
     }
 
-    public Result<Pair<T, IList<Character>>> run(String inputChars) {
-        IList<Character> chars = IList.of(inputChars);
-        return this.run(chars);
+    private Result<Pair<T, Input>> runFromStart(final Input input) {
+        final Result<Pair<T, Input>> result = this.run(input);
+        if (result.isSuccess() || result.getError().offset == ParseError.UNKNOWN_OFFSET) {
+            return result;
+        }
+        final ErrorAccumulator errors = input.errors();
+        errors.record(result.getError());
+        return new Failure<>(errors.toError());
+    }
+
+    /**
+     * Build a parser from a supplier the first time it runs.
+     * <p>
+     * This is the way to write recursive grammars: the parser can refer to
+     * itself through the returned reference, which is resolved once and then
+     * shared by all the runs
+     * </p>
+     *
+     * @param supplier builds the parser, called at most once
+     * @return a reference to the parser built by the supplier
+     */
+    public static <T> Parser<T> lazy(final Supplier<Parser<T>> supplier) {
+        return new ParserRef<>(supplier);
     }
 
     /**
      * ORing two parser together.
      * <p>
      * If the first parser succeed we return its result. otherwise we return the
-     * result of the second parser
+     * result of the second parser. the second parser is only built the first
+     * time it is needed, and then reused
      * </p>
      *
      * @param other other parser to or with.
@@ -68,21 +230,38 @@ public class Parser<T> implements Monad<T, Parser<?>> {
      * result of the second parser.
      */
     public <U extends T> Parser<T> or(final Supplier<Parser<U>> other) {
-        Function<IList<Character>, Result<Pair<T, IList<Character>>>> innerFunc = inputChars -> {
-            Result<Pair<T, IList<Character>>> outer = parserFunc.apply(inputChars);
-            if (outer.isFailure()) {
-                Result<Pair<U, IList<Character>>> otherResult = other.get().run(inputChars);
-                if (otherResult.isFailure()) {
-                    return new Failure<>(otherResult.getErrorMessage());
-                } else {
-                    Pair<U, IList<Character>> otherPair = otherResult.get();
-                    T result = otherPair.first;
-                    return new Success<>(new Pair<>(result, otherPair.second));
-                }
-            }
-            return outer;
-        };
-        return new Parser<>(innerFunc);
+        final Parser<U> alternative = Parser.lazy(other);
+        return new Parser<>(new AltNode(Arrays.asList(node, alternative.node)));
+    }
+
+    /**
+     * Same as {@code memo(int)} with room for {@code DEFAULT_MEMO_ENTRIES}
+     * offsets.
+     *
+     * @return a memoized version of this parser
+     */
+    public Parser<T> memo() {
+        return this.memo(DEFAULT_MEMO_ENTRIES);
+    }
+
+    /**
+     * Cache the results of this parser by offset for the duration of a run.
+     * <p>
+     * When several alternatives run the same memoized parser at the same
+     * offset, only the first one does the work and the others reuse its
+     * result, which keeps grammars that backtrack a lot linear in the input.
+     * the cache of a run only keeps the {@code maxEntries} most recently used
+     * offsets, so the memory stays bounded on large inputs
+     * </p>
+     *
+     * @param maxEntries maximum number of offsets cached per run
+     * @return a memoized version of this parser
+     */
+    public Parser<T> memo(final int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive: " + maxEntries);
+        }
+        return new Parser<>(new MemoNode(node, maxEntries));
     }
 
     /**
@@ -97,7 +276,7 @@ public class Parser<T> implements Monad<T, Parser<?>> {
      * parsers' result
      */
     public <U> Parser<Pair<T, U>> and(final Supplier<Parser<U>> other) {
-        return this.liftM2(Pair::new, other.get());
+        return new Parser<>(new SeqNode(Arrays.asList(node, other.get().node), Combiner.PAIR));
     }
 
     /**
@@ -109,50 +288,86 @@ public class Parser<T> implements Monad<T, Parser<?>> {
      * of the other
      */
     public <U> Parser<T> skip(final Parser<U> other) {
-        return this.liftM2((r1, r2) -> r1, other);
+        return new Parser<>(new SeqNode(Arrays.asList(node, other.node), Combiner.pick(0)));
+    }
+
+    /**
+     * Return the input consumed by this parser instead of its value.
+     * <p>
+     * The consumed characters are copied once into a single string when the
+     * parser succeeds, so this is the cheap way to get the text of a token
+     * instead of folding its characters. the value of this parser is dropped,
+     * and a compiled parser doesn't build it at all
+     * </p>
+     *
+     * @return a parser that when succeed returns the input the current one
+     * consumed
+     */
+    public Parser<String> slice() {
+        return new Parser<>(new SliceNode(node));
+    }
+
+    /**
+     * Check that the input matches this parser without building its value.
+     * <p>
+     * The parser runs a copy of the grammar whose maps are removed and whose
+     * repetitions, sequences and numbers keep nothing, so validating an input
+     * costs only the scanning. the copy is made on the first run, or by
+     * {@code compile} which should be called on the result rather than
+     * before. the parsers behind a {@code flatMap} still build their values,
+     * the function needs them
+     * </p>
+     *
+     * @return a parser that consumes the same input as the current one and
+     * returns {@code Unit}
+     */
+    public Parser<Unit> recognize() {
+        final Node recognizer = new RefNode(() -> Recognizer.of(node));
+        return new Parser<>(new SeqNode(Arrays.asList(recognizer, new PureNode(Unit.get())), Combiner.pick(1)));
+    }
+
+    /**
+     * Run this parser on a stack kept on the heap instead of the stack of the
+     * thread.
+     * <p>
+     * The combinators parse nested input by calling themselves, a level of
+     * nesting costs a few frames of the thread and input nested a few
+     * thousand levels deep overflows it. this parser walks the grammar with
+     * an explicit stack of frames, so the depth is only bounded by the heap.
+     * {@code compile} optimizes the grammar but keeps it on this engine, the
+     * generated code being recursive. the parsers built by functions, like
+     * {@code Parser(Function)}, still run on the stack of the thread
+     * </p>
+     *
+     * @return a parser giving the same results as the current one that
+     * doesn't overflow on deep input
+     */
+    public Parser<T> stackSafe() {
+        return new Parser<>(new TrampolineNode(node));
     }
 
     @Override
     public <B> Parser<B> pure(final B result) {
-        Function<IList<Character>, Result<Pair<B, IList<Character>>>> innerFunc = inputChars -> {
-            Pair<B, IList<Character>> parserResult = new Pair<>(result, inputChars);
-            return new Success<>(parserResult);
-        };
-
-        return new Parser<>(innerFunc);
+        return new Parser<>(new PureNode(result));
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public <B> Parser<B> map(final Function<T, B> f) {
-        Function<IList<Character>, Result<Pair<B, IList<Character>>>> innerFunc = inputChars -> {
-            Result<Pair<T, IList<Character>>> outer = parserFunc.apply(inputChars);
-            if (outer.isFailure()) {
-                return new Failure<>(outer.getErrorMessage());
-            }
-            Success<Pair<T, IList<Character>>> success = (Success<Pair<T, IList<Character>>>) outer;
-            return success.map(x -> new Pair<>(f.apply(x.first), x.second));
-        };
-
-        return new Parser<>(innerFunc);
+        return new Parser<>(new MapNode(node, (Function<Object, Object>) f));
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public <B> Parser<B> flatMap(final Function<T, Monad<B, Parser<?>>> f) {
-        Function<IList<Character>, Result<Pair<B, IList<Character>>>> innerFunc = inputChars -> {
-            Result<Pair<T, IList<Character>>> outer = parserFunc.apply(inputChars);
-            if (outer.isFailure()) {
-                return new Failure<>(outer.getErrorMessage());
-            }
-            Success<Pair<T, IList<Character>>> success = (Success<Pair<T, IList<Character>>>) outer;
-            T result = success.get().first;
-            IList<Character> remaining = success.get().second;
-            return ((Parser<B>) f.apply(result)).run(remaining);
-        };
-        return new Parser<>(innerFunc);
+        return new Parser<>(new FlatMapNode(node, value -> (Parser<?>) f.apply((T) value)));
     }
 
     /*
-     * Bridge method to make Monad#sequence type aware of {@code Parser<T>}
+     * Run the parsers of the list in order and collect their results. built
+     * as a single sequence node whose values go to one array, the list is
+     * made from its end once they all succeed. unlike Monad#sequence, there
+     * is no nested liftM2 per parser, so the depth doesn't grow with the list
      *
      * (non-Javadoc)
      *
@@ -160,11 +375,17 @@ public class Parser<T> implements Monad<T, Parser<?>> {
      */
     @Override
     public <B> Parser<IList<B>> sequence(IList<? extends Monad<B, Parser<?>>> mList) {
-        return (Parser<IList<B>>) Monad.super.sequence(mList);
+        final List<Node> nodes = new ArrayList<>();
+        for (final Monad<B, Parser<?>> parser : mList) {
+            nodes.add(((Parser<?>) parser).node);
+        }
+        return sequence(nodes);
     }
 
     /*
-     * Bridge method to make Monad#then type aware of {@code Parser<T>}
+     * Run this parser then the other one and keep the result of the other.
+     * built as a sequence node instead of going through flatMap, so the
+     * optimizer can see both sides
      *
      * (non-Javadoc)
      *
@@ -172,11 +393,13 @@ public class Parser<T> implements Monad<T, Parser<?>> {
      */
     @Override
     public <B> Parser<B> then(Monad<B, Parser<?>> other) {
-        return (Parser<B>) Monad.super.then(other);
+        return new Parser<>(new SeqNode(Arrays.asList(node, ((Parser<B>) other).node), Combiner.pick(1)));
     }
 
     /*
-     * Bridge method to make Monad#liftM2 type aware of {@code Parser<T>}
+     * Run this parser then the other one and combine their results. built as
+     * a single sequence node calling the function once, instead of the
+     * pure/apply/flatMap chain of Monad#liftM2
      *
      * (non-Javadoc)
      *
@@ -184,24 +407,43 @@ public class Parser<T> implements Monad<T, Parser<?>> {
      * edu.parsec.typeclass.Monad)
      */
     @Override
+    @SuppressWarnings("unchecked")
     public <B, C> Parser<C> liftM2(BiFunction<T, B, C> f, Monad<B, Parser<?>> paramTwo) {
-        return (Parser<C>) Monad.super.liftM2(f, paramTwo);
+        final Combiner combiner = Combiner.of(values -> f.apply((T) values[0], (B) values[1]), 0, 1);
+        return new Parser<>(new SeqNode(Arrays.asList(node, ((Parser<B>) paramTwo).node), combiner));
     }
 
     /*
-     * Bridge method to make Monad#apply type aware of {@code Parser<T>}
+     * Same as the other liftM2 with a curried function
+     *
+     * (non-Javadoc)
+     *
+     * @see edu.parsec.typeclass.Monad#liftM2(java.util.function.Function,
+     * edu.parsec.typeclass.Monad)
+     */
+    @Override
+    public <B, C> Parser<C> liftM2(Function<T, Function<B, C>> f, Monad<B, Parser<?>> paramTwo) {
+        return liftM2((BiFunction<T, B, C>) (t, b) -> f.apply(t).apply(b), paramTwo);
+    }
+
+    /*
+     * Run the parser of the function then this one and apply the function to
+     * the result, as a single sequence node
      *
      * (non-Javadoc)
      *
      * @see edu.parsec.typeclass.Monad#apply(edu.parsec.typeclass.Monad)
      */
     @Override
+    @SuppressWarnings("unchecked")
     public <C> Parser<C> apply(Monad<Function<T, C>, Parser<?>> fM) {
-        return (Parser<C>) Monad.super.apply(fM);
+        final Combiner combiner = Combiner.of(values -> ((Function<T, C>) values[0]).apply((T) values[1]), 0, 1);
+        return new Parser<>(new SeqNode(Arrays.asList(((Parser<?>) fM).node, node), combiner));
     }
 
     /*
-     * Bridge method to make Monad#mapM type aware of {@code Parser<T>}
+     * Same as sequence with the parsers made by the function, walking the
+     * list once without building a list of parsers
      *
      * (non-Javadoc)
      *
@@ -210,11 +452,15 @@ public class Parser<T> implements Monad<T, Parser<?>> {
      */
     @Override
     public <A, B> Parser<IList<B>> mapM(Function<A, Monad<B, Parser<?>>> f, IList<A> list) {
-        return (Parser<IList<B>>) Monad.super.mapM(f, list);
+        final List<Node> nodes = new ArrayList<>();
+        for (final A item : list) {
+            nodes.add(((Parser<?>) f.apply(item)).node);
+        }
+        return sequence(nodes);
     }
 
     /*
-     * Bridge method to make Monad#forM type aware of {@code Parser<T>}
+     * Same as mapM with flipped arguments
      *
      * (non-Javadoc)
      *
@@ -223,7 +469,24 @@ public class Parser<T> implements Monad<T, Parser<?>> {
      */
     @Override
     public <A, B> Parser<IList<B>> forM(IList<A> list, Function<A, Monad<B, Parser<?>>> f) {
-        return (Parser<IList<B>>) Monad.super.forM(list, f);
+        return mapM(f, list);
+    }
+
+    private static <B> Parser<IList<B>> sequence(final List<Node> nodes) {
+        if (nodes.isEmpty()) {
+            return new Parser<>(new PureNode(new Empty<>()));
+        }
+        final int[] args = new int[nodes.size()];
+        for (int i = 0; i < args.length; ++i) {
+            args[i] = i;
+        }
+        return new Parser<>(new SeqNode(nodes, Combiner.of(values -> {
+            IList<Object> list = new Empty<>();
+            for (int i = values.length - 1; i >= 0; --i) {
+                list = new Cons<>(values[i], list);
+            }
+            return list;
+        }, args)));
     }
 
 }
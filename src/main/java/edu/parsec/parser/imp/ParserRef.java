@@ -0,0 +1,63 @@
+package edu.parsec.parser.imp;
+
+import java.util.Objects;
+import java.util.function.Supplier;
+
+import edu.parsec.parser.grammar.RefNode;
+
+/**
+ * Forward reference to a parser, used to tie recursive grammars.
+ * <p>
+ * A recursive grammar can't be built eagerly because the parser it refers to
+ * doesn't exist yet. the reference is created first, used wherever the
+ * recursive parser is needed, then tied once to the actual parser with
+ * {@code set}, or resolved from a supplier the first time it runs (see
+ * {@code Parser.lazy}). after that the grammar is a plain cyclic graph that
+ * can be shared and reused by any number of runs.
+ * </p>
+ *
+ * @param <T> type of the value returned by the referenced parser
+ * @author Tarek Nawara
+ */
+public final class ParserRef<T> extends Parser<T> {
+
+    /**
+     * Construct a reference that must be tied with {@code set} before it runs.
+     */
+    public ParserRef() {
+        super(new RefNode());
+    }
+
+    /**
+     * Construct a reference that builds its parser on first use.
+     *
+     * @param supplier builds the referenced parser, called at most once
+     */
+    public ParserRef(final Supplier<Parser<T>> supplier) {
+        super(new RefNode(() -> supplier.get().node()));
+        Objects.requireNonNull(supplier);
+    }
+
+    /**
+     * Tie the reference to the actual parser.
+     *
+     * @param parser the referenced parser
+     * @throws IllegalStateException if the reference is already tied
+     */
+    public void set(final Parser<T> parser) {
+        ref().set(parser.node());
+    }
+
+    /**
+     * Tests whether the reference is tied to its parser.
+     *
+     * @return true if the parser is known, false otherwise
+     */
+    public boolean isResolved() {
+        return ref().isResolved();
+    }
+
+    private RefNode ref() {
+        return (RefNode) node();
+    }
+}
@@ -0,0 +1,41 @@
+package edu.parsec.processor;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a class whose parsers are translated to a recursive-descent parser
+ * when the class is compiled.
+ * <p>
+ * Every static field of type {@code Parser} of the class is a rule of the
+ * grammar. the rules are written with {@code ParserBuilder},
+ * {@code Combinator} and the methods of {@code Parser}, and may refer to
+ * each other by name. {@link GrammarProcessor} generates a class next to the
+ * grammar with a static method per rule returning the parser of the rule,
+ * which gives the same results as the rule without building any combinator
+ * when it is loaded.
+ * </p>
+ * <p>
+ * The functions given to {@code map} are copied in the generated class, they
+ * may use anything the grammar class imports or declares, except its private
+ * members. using a member of the grammar class loads it, and builds its
+ * combinators, so the helpers of the functions are better kept in another
+ * class.
+ * </p>
+ *
+ * @author Tarek Nawara
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface Grammar {
+
+    /**
+     * Simple name of the generated class.
+     *
+     * @return the name, the name of the grammar followed by {@code Parser}
+     * if empty
+     */
+    String name() default "";
+}
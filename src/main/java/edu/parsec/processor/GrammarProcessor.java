@@ -0,0 +1,204 @@
+package edu.parsec.processor;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.ImportTree;
+import com.sun.source.tree.Tree;
+import com.sun.source.tree.VariableTree;
+import com.sun.source.util.SourcePositions;
+import com.sun.source.util.Trees;
+
+import edu.parsec.parser.grammar.Node;
+import edu.parsec.parser.grammar.Optimizer;
+import edu.parsec.parser.grammar.Passes;
+import edu.parsec.parser.grammar.RefNode;
+import edu.parsec.parser.imp.Parser;
+
+/**
+ * Generates the recursive-descent parser of the classes marked with
+ * {@link Grammar} when they are compiled.
+ * <p>
+ * The processor reads the source of the rules through the compiler tree
+ * API, rebuilds their graphs with {@link GrammarTranslator}, optimizes them
+ * together, so the parts they share stay shared, and writes them with
+ * {@link GrammarWriter}. the passes creating functions, like the fusion of
+ * the maps, are left out since their result can't be written as source.
+ * rules the processor can't translate are reported as compile errors on the
+ * expression at fault.
+ * </p>
+ * <p>
+ * The processor is registered as a service of the library, so it runs in
+ * any build having the library on its class path.
+ * </p>
+ *
+ * @author Tarek Nawara
+ */
+@SupportedAnnotationTypes("edu.parsec.processor.Grammar")
+public final class GrammarProcessor extends AbstractProcessor {
+
+    private static final Optimizer OPTIMIZER = new Optimizer(Arrays.asList(Passes.SPAN_SCANS, Passes.SLICE_VALUES,
+            Passes.FLATTEN_ALTERNATIVES, Passes.FLATTEN_SEQUENCES, Passes.MERGE_SKIPS));
+
+    /*
+     * the no argument methods of a generated parser a rule can't be named after
+     */
+    private static final Set<String> RESERVED = new HashSet<>(Arrays.asList("parse", "getClass", "hashCode",
+            "toString", "clone", "finalize", "notify", "notifyAll", "wait"));
+
+    private Trees trees;
+
+    @Override
+    public synchronized void init(final ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        try {
+            trees = Trees.instance(processingEnv);
+        } catch (IllegalArgumentException e) {
+            trees = null;
+        }
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnv) {
+        for (final Element element : roundEnv.getElementsAnnotatedWith(Grammar.class)) {
+            if (element.getKind() != ElementKind.CLASS) {
+                error("@Grammar only applies to classes", element);
+            } else if (trees == null) {
+                error("@Grammar needs the javac compiler", element);
+            } else {
+                generate((TypeElement) element);
+            }
+        }
+        return true;
+    }
+
+    private void generate(final TypeElement grammar) {
+        final CompilationUnitTree unit = trees.getPath(grammar).getCompilationUnit();
+        final Map<String, GrammarTranslator.Term> refs = new LinkedHashMap<>();
+        final Map<String, String> types = new LinkedHashMap<>();
+        final Map<String, VariableElement> fields = new LinkedHashMap<>();
+        final TypeMirror parserType = processingEnv.getTypeUtils().erasure(processingEnv.getElementUtils()
+                .getTypeElement(Parser.class.getCanonicalName()).asType());
+        for (final VariableElement field : ElementFilter.fieldsIn(grammar.getEnclosedElements())) {
+            if (!field.getModifiers().contains(Modifier.STATIC)
+                    || !processingEnv.getTypeUtils().isSameType(processingEnv.getTypeUtils().erasure(field.asType()),
+                    parserType)) {
+                continue;
+            }
+            final String name = field.getSimpleName().toString();
+            final List<? extends TypeMirror> arguments = ((DeclaredType) field.asType()).getTypeArguments();
+            if (arguments.isEmpty() || RESERVED.contains(name)) {
+                error(arguments.isEmpty() ? "Rule " + name + " needs the type of its values"
+                        : "Rule " + name + " clashes with a method of the generated parser", field);
+                return;
+            }
+            final String type = arguments.get(0).toString();
+            refs.put(name, GrammarTranslator.term(new Parser<>(new RefNode()), GrammarTranslator.witness(type)));
+            types.put(name, type);
+            fields.put(name, field);
+        }
+        final GrammarTranslator translator = new GrammarTranslator(grammar.getSimpleName().toString(), refs,
+                tree -> source(unit, tree));
+        for (final Map.Entry<String, VariableElement> rule : fields.entrySet()) {
+            final VariableTree tree = (VariableTree) trees.getTree(rule.getValue());
+            if (tree.getInitializer() == null) {
+                error("Rule " + rule.getKey() + " has no initializer", rule.getValue());
+                return;
+            }
+            try {
+                final Node node = translator.translate(tree.getInitializer()).parser.node();
+                ((RefNode) refs.get(rule.getKey()).parser.node()).set(node);
+            } catch (GrammarTranslator.Unsupported e) {
+                trees.printMessage(Diagnostic.Kind.ERROR, e.getMessage(), e.tree(), unit);
+                return;
+            }
+        }
+        final String packageName = processingEnv.getElementUtils().getPackageOf(grammar).getQualifiedName()
+                .toString();
+        final Grammar annotation = grammar.getAnnotation(Grammar.class);
+        final String className = annotation.name().isEmpty() ? grammar.getSimpleName() + "Parser"
+                : annotation.name();
+        final GrammarWriter writer = new GrammarWriter(packageName, className,
+                grammar.getQualifiedName().toString(), imports(unit));
+        final List<Node> roots = new ArrayList<>(fields.size());
+        for (final String rule : fields.keySet()) {
+            roots.add(refs.get(rule).parser.node());
+        }
+        final String source;
+        try {
+            final List<Node> optimized = OPTIMIZER.optimize(new RulesNode(roots)).children();
+            int index = 0;
+            for (final String rule : fields.keySet()) {
+                writer.rule(rule, types.get(rule), optimized.get(index++));
+            }
+            source = writer.source();
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            error("Cannot generate the parser: " + e.getMessage(), grammar);
+            return;
+        }
+        final String qualifiedName = packageName.isEmpty() ? className : packageName + "." + className;
+        try {
+            final JavaFileObject file = processingEnv.getFiler().createSourceFile(qualifiedName, grammar);
+            try (Writer out = file.openWriter()) {
+                out.write(source);
+            }
+        } catch (IOException e) {
+            error("Cannot write " + qualifiedName + ": " + e.getMessage(), grammar);
+        }
+    }
+
+    private static List<String> imports(final CompilationUnitTree unit) {
+        final List<String> imports = new ArrayList<>();
+        for (final ImportTree declaration : unit.getImports()) {
+            imports.add("import " + (declaration.isStatic() ? "static " : "")
+                    + declaration.getQualifiedIdentifier() + ";");
+        }
+        return Collections.unmodifiableList(imports);
+    }
+
+    private String source(final CompilationUnitTree unit, final Tree tree) {
+        final SourcePositions positions = trees.getSourcePositions();
+        try {
+            final CharSequence content = unit.getSourceFile().getCharContent(true);
+            return content.subSequence((int) positions.getStartPosition(unit, tree),
+                    (int) positions.getEndPosition(unit, tree)).toString();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void error(final String message, final Element element) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
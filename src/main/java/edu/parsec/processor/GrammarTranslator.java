@@ -0,0 +1,413 @@
+package edu.parsec.processor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import com.sun.source.tree.BlockTree;
+import com.sun.source.tree.ExpressionTree;
+import com.sun.source.tree.IdentifierTree;
+import com.sun.source.tree.LambdaExpressionTree;
+import com.sun.source.tree.LiteralTree;
+import com.sun.source.tree.MemberSelectTree;
+import com.sun.source.tree.MethodInvocationTree;
+import com.sun.source.tree.ParenthesizedTree;
+import com.sun.source.tree.ReturnTree;
+import com.sun.source.tree.StatementTree;
+import com.sun.source.tree.Tree;
+
+import edu.parsec.parser.combinators.CharClass;
+import edu.parsec.parser.combinators.Combinator;
+import edu.parsec.parser.combinators.ParserBuilder;
+import edu.parsec.parser.grammar.NumberNode;
+import edu.parsec.parser.imp.Parser;
+
+/**
+ * Rebuilds the rules of a grammar from their source.
+ * <p>
+ * The expressions of the rules are replayed against the real builders, so
+ * the graph of a rule is the one the grammar builds when it runs, except
+ * for the functions of the maps, which are kept as source. the type of the
+ * values of every parser is followed along as a witness expression, see
+ * {@code Actions}, so the functions can be compiled out of their context.
+ * only literals are accepted where the builders take characters, strings or
+ * character classes.
+ * </p>
+ *
+ * @author Tarek Nawara
+ */
+final class GrammarTranslator {
+
+    private static final String ACTIONS = "edu.parsec.parser.compiler.Actions";
+    private static final String CHARACTER = witness("java.lang.Character");
+    private static final String STRING = witness("java.lang.String");
+    private static final String UNIT = witness("edu.parsec.data.unit.Unit");
+
+    private final String grammarName;
+    private final Map<String, Term> rules;
+    private final Function<Tree, String> sources;
+
+    /**
+     * @param grammarName simple name of the grammar class
+     * @param rules       references to the rules by name
+     * @param sources     source of a tree of the grammar
+     */
+    GrammarTranslator(final String grammarName, final Map<String, Term> rules,
+                      final Function<Tree, String> sources) {
+        this.grammarName = grammarName;
+        this.rules = rules;
+        this.sources = sources;
+    }
+
+    /**
+     * Expression of a type that is never evaluated.
+     *
+     * @param type the type, as written in source
+     * @return witness of the type
+     */
+    static String witness(final String type) {
+        return "((" + type + ") null)";
+    }
+
+    /**
+     * Translate the expression of a parser.
+     *
+     * @param tree the expression
+     * @return its parser and the witness of its values
+     * @throws Unsupported if the expression isn't made of the builders
+     */
+    Term translate(final ExpressionTree tree) {
+        final ExpressionTree expression = strip(tree);
+        if (expression instanceof IdentifierTree) {
+            return rule(expression, ((IdentifierTree) expression).getName().toString());
+        }
+        if (expression instanceof MemberSelectTree
+                && isName(((MemberSelectTree) expression).getExpression(), grammarName)) {
+            return rule(expression, ((MemberSelectTree) expression).getIdentifier().toString());
+        }
+        if (expression instanceof MethodInvocationTree) {
+            return invocation((MethodInvocationTree) expression);
+        }
+        throw new Unsupported(expression, "Unsupported parser expression");
+    }
+
+    private Term rule(final ExpressionTree tree, final String name) {
+        final Term rule = rules.get(name);
+        if (rule == null) {
+            throw new Unsupported(tree, "Unknown rule " + name);
+        }
+        return rule;
+    }
+
+    private Term invocation(final MethodInvocationTree tree) {
+        final ExpressionTree select = tree.getMethodSelect();
+        final List<? extends ExpressionTree> args = tree.getArguments();
+        if (select instanceof IdentifierTree) {
+            return builder(tree, ((IdentifierTree) select).getName().toString(), args);
+        }
+        final MemberSelectTree member = (MemberSelectTree) select;
+        final String name = member.getIdentifier().toString();
+        if (isName(member.getExpression(), "ParserBuilder", "Combinator", "Parser")) {
+            return builder(tree, name, args);
+        }
+        return method(tree, translate(member.getExpression()), name, args);
+    }
+
+    private Term builder(final MethodInvocationTree tree, final String name,
+                         final List<? extends ExpressionTree> args) {
+        switch (name) {
+            case "parseChar":
+                return term(ParserBuilder.parseChar(charLiteral(single(tree))), CHARACTER);
+            case "parseString":
+                return term(ParserBuilder.parseString(stringLiteral(single(tree))), STRING);
+            case "oneOfLiterals":
+                final String[] literals = new String[args.size()];
+                for (int i = 0; i < literals.length; ++i) {
+                    literals[i] = stringLiteral(args.get(i));
+                }
+                return term(ParserBuilder.oneOfLiterals(literals), STRING);
+            case "anyCharOf":
+                return term(ParserBuilder.anyCharOf(stringLiteral(single(tree))), CHARACTER);
+            case "satisfy":
+                return term(ParserBuilder.satisfy(charClass(single(tree))), CHARACTER);
+            case "digitParser":
+                none(tree);
+                return term(ParserBuilder.digitParser(), CHARACTER);
+            case "UnitParser":
+                none(tree);
+                return term(ParserBuilder.UnitParser(), UNIT);
+            case "intParser":
+                none(tree);
+                return integral("java.lang.Math::toIntExact", Integer.MAX_VALUE);
+            case "longParser":
+                return number(false, args.isEmpty() ? "java.lang.Long::valueOf" : sources.apply(single(tree)));
+            case "doubleParser":
+                return number(true, args.isEmpty() ? "java.lang.Double::valueOf" : sources.apply(single(tree)));
+            case "noSpacesParser":
+                final Term spaced = translate(single(tree));
+                return term(ParserBuilder.noSpacesParser(spaced.parser), spaced.witness);
+            case "many":
+                final Term repeated = translate(single(tree));
+                return term(Combinator.many(repeated.parser), call("list", repeated.witness));
+            case "many1":
+                final Term repeatedOnce = translate(single(tree));
+                return term(Combinator.many1(repeatedOnce.parser), call("list", repeatedOnce.witness));
+            case "skipMany":
+                return term(Combinator.skipMany(translate(single(tree)).parser), UNIT);
+            case "skipWhile":
+                return term(Combinator.skipWhile(charClass(single(tree))), UNIT);
+            case "spaces":
+                none(tree);
+                return term(Combinator.spaces(), UNIT);
+            case "stringParser":
+                none(tree);
+                return term(Combinator.stringParser(), STRING);
+            case "between":
+                if (args.size() != 3) {
+                    throw new Unsupported(tree, "Expected three arguments");
+                }
+                final Term inner = translate(args.get(2));
+                return term(Combinator.between(translate(args.get(0)).parser, translate(args.get(1)).parser,
+                        inner.parser), inner.witness);
+            case "choice":
+                return choice(tree, args);
+            case "lazy":
+                return supplied(single(tree));
+            default:
+                throw new Unsupported(tree, "Unsupported builder " + name);
+        }
+    }
+
+    private Term method(final MethodInvocationTree tree, final Term receiver, final String name,
+                        final List<? extends ExpressionTree> args) {
+        switch (name) {
+            case "then":
+                final Term next = translate(single(tree));
+                return term(receiver.parser.then(next.parser), next.witness);
+            case "skip":
+                return term(receiver.parser.skip(translate(single(tree)).parser), receiver.witness);
+            case "and":
+                return and(receiver, supplied(single(tree)));
+            case "or":
+                return or(receiver, supplied(single(tree)));
+            case "memo":
+                if (args.isEmpty()) {
+                    return term(receiver.parser.memo(), receiver.witness);
+                }
+                return term(receiver.parser.memo(intLiteral(single(tree))), receiver.witness);
+            case "map":
+                return map(receiver, sources.apply(single(tree)));
+            case "slice":
+                none(tree);
+                return term(receiver.parser.slice(), STRING);
+            default:
+                throw new Unsupported(tree, "Unsupported parser method " + name);
+        }
+    }
+
+    private Term choice(final MethodInvocationTree tree, final List<? extends ExpressionTree> args) {
+        final List<Parser<Object>> alternatives = new ArrayList<>(args.size());
+        final List<String> witnesses = new ArrayList<>(args.size());
+        for (final ExpressionTree arg : args) {
+            final Term alternative = translate(arg);
+            alternatives.add(alternative.parser);
+            witnesses.add(alternative.witness);
+        }
+        final String witness = tree.getTypeArguments().isEmpty()
+                ? call("either", witnesses.toArray(new String[0]))
+                : witness(tree.getTypeArguments().get(0).toString());
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        final Parser<Object>[] parsers = alternatives.toArray(new Parser[0]);
+        return term(Combinator.choice(parsers), witness);
+    }
+
+    /*
+     * the parser returned by a supplier written as a lambda
+     */
+    private Term supplied(final ExpressionTree tree) {
+        final ExpressionTree expression = strip(tree);
+        if (expression instanceof LambdaExpressionTree
+                && ((LambdaExpressionTree) expression).getParameters().isEmpty()) {
+            final Tree body = ((LambdaExpressionTree) expression).getBody();
+            if (body instanceof ExpressionTree) {
+                return translate((ExpressionTree) body);
+            }
+            final List<? extends StatementTree> statements = ((BlockTree) body).getStatements();
+            if (statements.size() == 1 && statements.get(0) instanceof ReturnTree) {
+                return translate(((ReturnTree) statements.get(0)).getExpression());
+            }
+        }
+        throw new Unsupported(tree, "Expected a lambda returning a parser");
+    }
+
+    /*
+     * the builders of the numbers without arguments use the same functions
+     * as the library
+     */
+    private static Term number(final boolean decimal, final String function) {
+        if (decimal) {
+            return term(ParserBuilder.doubleParser(new SourceAction(function, null)), call("doubleResult", function));
+        }
+        return integral(function, Long.MAX_VALUE);
+    }
+
+    private static Term integral(final String function, final long max) {
+        final SourceAction action = new SourceAction(function, null);
+        return term(new Parser<>(NumberNode.integral(action, max)), call("longResult", function));
+    }
+
+    private static Term and(final Term first, final Term second) {
+        return term(first.parser.and(() -> second.parser), call("pair", first.witness, second.witness));
+    }
+
+    private static Term or(final Term first, final Term second) {
+        return term(first.parser.or(() -> second.parser), first.witness);
+    }
+
+    private static Term map(final Term term, final String function) {
+        final Parser<Object> mapped = term.parser.map(new SourceAction(function, term.witness));
+        return term(mapped, call("result", term.witness, function));
+    }
+
+    private CharClass charClass(final ExpressionTree tree) {
+        final ExpressionTree expression = strip(tree);
+        if (expression instanceof IdentifierTree || expression instanceof MemberSelectTree
+                && isName(((MemberSelectTree) expression).getExpression(), "CharClass")) {
+            switch (lastName(expression)) {
+                case "DIGITS":
+                    return CharClass.DIGITS;
+                case "SPACES":
+                    return CharClass.SPACES;
+                case "NONE":
+                    return CharClass.NONE;
+                default:
+                    break;
+            }
+        } else if (expression instanceof MethodInvocationTree) {
+            final MethodInvocationTree invocation = (MethodInvocationTree) expression;
+            final ExpressionTree select = invocation.getMethodSelect();
+            final List<? extends ExpressionTree> args = invocation.getArguments();
+            final String name = lastName(select);
+            if (select instanceof IdentifierTree
+                    || isName(((MemberSelectTree) select).getExpression(), "CharClass")) {
+                if (name.equals("of")) {
+                    return CharClass.of(stringLiteral(single(invocation)));
+                }
+                if (name.equals("range") && args.size() == 2) {
+                    return CharClass.range(charLiteral(args.get(0)), charLiteral(args.get(1)));
+                }
+            } else {
+                final CharClass receiver = charClass(((MemberSelectTree) select).getExpression());
+                switch (name) {
+                    case "negate":
+                        none(invocation);
+                        return receiver.negate();
+                    case "union":
+                        return receiver.union(charClass(single(invocation)));
+                    case "named":
+                        return receiver.named(stringLiteral(single(invocation)));
+                    default:
+                        break;
+                }
+            }
+        }
+        throw new Unsupported(tree, "Unsupported character class");
+    }
+
+    private static char charLiteral(final ExpressionTree tree) {
+        return (Character) literal(tree, Tree.Kind.CHAR_LITERAL, "character");
+    }
+
+    private static String stringLiteral(final ExpressionTree tree) {
+        return (String) literal(tree, Tree.Kind.STRING_LITERAL, "string");
+    }
+
+    private static int intLiteral(final ExpressionTree tree) {
+        return (Integer) literal(tree, Tree.Kind.INT_LITERAL, "int");
+    }
+
+    private static Object literal(final ExpressionTree tree, final Tree.Kind kind, final String type) {
+        final ExpressionTree expression = strip(tree);
+        if (expression.getKind() != kind) {
+            throw new Unsupported(tree, "Expected a " + type + " literal");
+        }
+        return ((LiteralTree) expression).getValue();
+    }
+
+    private static ExpressionTree single(final MethodInvocationTree tree) {
+        if (tree.getArguments().size() != 1) {
+            throw new Unsupported(tree, "Expected a single argument");
+        }
+        return tree.getArguments().get(0);
+    }
+
+    private static void none(final MethodInvocationTree tree) {
+        if (!tree.getArguments().isEmpty()) {
+            throw new Unsupported(tree, "Expected no argument");
+        }
+    }
+
+    private static ExpressionTree strip(final ExpressionTree tree) {
+        ExpressionTree current = tree;
+        while (current instanceof ParenthesizedTree) {
+            current = ((ParenthesizedTree) current).getExpression();
+        }
+        return current;
+    }
+
+    /*
+     * tests whether a tree is one of the names, simple or qualified
+     */
+    private static boolean isName(final ExpressionTree tree, final String... names) {
+        return (tree instanceof IdentifierTree || tree instanceof MemberSelectTree)
+                && Arrays.asList(names).contains(lastName(tree));
+    }
+
+    private static String lastName(final ExpressionTree tree) {
+        return tree instanceof IdentifierTree
+                ? ((IdentifierTree) tree).getName().toString()
+                : ((MemberSelectTree) tree).getIdentifier().toString();
+    }
+
+    private static String call(final String method, final String... args) {
+        return ACTIONS + "." + method + "(" + String.join(", ", args) + ")";
+    }
+
+    @SuppressWarnings("unchecked")
+    static Term term(final Parser<?> parser, final String witness) {
+        return new Term((Parser<Object>) parser, witness);
+    }
+
+    /**
+     * A parser of the grammar and the witness of its values.
+     */
+    static final class Term {
+        final Parser<Object> parser;
+        final String witness;
+
+        Term(final Parser<Object> parser, final String witness) {
+            this.parser = parser;
+            this.witness = witness;
+        }
+    }
+
+    /**
+     * Thrown on an expression the processor can't translate.
+     */
+    static final class Unsupported extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private final transient Tree tree;
+
+        Unsupported(final Tree tree, final String message) {
+            super(message);
+            this.tree = tree;
+        }
+
+        Tree tree() {
+            return tree;
+        }
+    }
+}
@@ -0,0 +1,307 @@
+package edu.parsec.processor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.parsec.data.unit.Unit;
+import edu.parsec.parser.combinators.CharClass;
+import edu.parsec.parser.compiler.MethodWriter;
+import edu.parsec.parser.grammar.Combiner;
+import edu.parsec.parser.grammar.LiteralSetNode;
+import edu.parsec.parser.grammar.Node;
+
+/**
+ * Writes the class generated for a grammar.
+ * <p>
+ * Unlike the classes compiled at run time, the constants of the grammar are
+ * written as source: literals, character classes rebuilt from their members
+ * and the functions of the maps as they are written in the grammar. objects
+ * that can't be written as source are rejected.
+ * </p>
+ *
+ * @author Tarek Nawara
+ */
+final class GrammarWriter extends MethodWriter {
+
+    private static final String PARSER = "edu.parsec.parser.imp.Parser";
+    private static final String INPUT = "edu.parsec.data.input.Input";
+    private static final String GENERATED = "edu.parsec.parser.compiler.GeneratedParser";
+
+    private final String packageName;
+    private final String className;
+    private final String grammar;
+    private final List<String> imports;
+    private final List<String> constants = new ArrayList<>();
+    private final Map<String, String> names = new HashMap<>();
+    private final List<String> functions = new ArrayList<>();
+    private final List<String> rules = new ArrayList<>();
+    private final List<String> types = new ArrayList<>();
+    private final List<String> roots = new ArrayList<>();
+
+    /**
+     * @param packageName package of the grammar
+     * @param className   simple name of the generated class
+     * @param grammar     canonical name of the grammar class
+     * @param imports     imports of the grammar, the functions may need them
+     */
+    GrammarWriter(final String packageName, final String className, final String grammar,
+                  final List<String> imports) {
+        this.packageName = packageName;
+        this.className = className;
+        this.grammar = grammar;
+        this.imports = imports;
+    }
+
+    /**
+     * Add a rule to the class.
+     *
+     * @param name name of the rule and of its method
+     * @param type type of the values of the rule
+     * @param node the graph of the rule
+     */
+    void rule(final String name, final String type, final Node node) {
+        rules.add(name);
+        types.add(type);
+        roots.add(call(node));
+    }
+
+    /**
+     * The source of the class.
+     *
+     * @return a single compilation unit
+     * @throws IllegalArgumentException if the grammar holds an object that
+     *                                  can't be written as source
+     */
+    String source() {
+        final String methods = methods();
+        final StringBuilder out = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            out.append("package ").append(packageName).append(";\n\n");
+        }
+        for (final String declaration : imports) {
+            out.append(declaration).append('\n');
+        }
+        out.append("import static ").append(grammar).append(".*;\n\n");
+        out.append("/**\n");
+        out.append(" * Recursive-descent parser of {@link ").append(grammar).append("}.\n");
+        out.append(" * <p>\n");
+        out.append(" * Generated from the grammar by {@code edu.parsec.processor.GrammarProcessor}.\n");
+        out.append(" * </p>\n");
+        out.append(" */\n");
+        out.append("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n");
+        out.append("public final class ").append(className).append(" extends ").append(GENERATED)
+                .append(" {\n\n");
+        for (final String constant : constants) {
+            out.append(constant);
+        }
+        out.append('\n');
+        for (int i = 0; i < rules.size(); ++i) {
+            out.append("    private static final ").append(PARSER).append('<').append(types.get(i))
+                    .append("> R").append(i).append(" = new ").append(PARSER).append("<>(\n")
+                    .append("            new edu.parsec.parser.compiler.CompiledNode(new ")
+                    .append(className).append("(null, ").append(i).append(")));\n");
+        }
+        out.append("\n    private final int rule;\n\n");
+        out.append("    private ").append(className).append("(final ").append(INPUT)
+                .append(" start, final int rule) {\n");
+        out.append("        super(start);\n");
+        out.append("        this.rule = rule;\n");
+        out.append("    }\n");
+        for (int i = 0; i < rules.size(); ++i) {
+            out.append("\n    /**\n");
+            out.append("     * Parser of the rule {@code ").append(rules.get(i)).append("}.\n");
+            out.append("     *\n");
+            out.append("     * @return the generated parser of the rule\n");
+            out.append("     */\n");
+            out.append("    public static ").append(PARSER).append('<').append(types.get(i)).append("> ")
+                    .append(rules.get(i)).append("() {\n");
+            out.append("        return R").append(i).append(";\n");
+            out.append("    }\n");
+        }
+        out.append("\n    @Override\n");
+        out.append("    protected ").append(GENERATED).append(" newRun(final ").append(INPUT)
+                .append(" inputChars) {\n");
+        out.append("        return new ").append(className).append("(inputChars, rule);\n");
+        out.append("    }\n\n");
+        out.append("    @Override\n");
+        out.append("    protected int root(final int pos) {\n");
+        out.append("        switch (rule) {\n");
+        for (int i = 0; i < roots.size(); ++i) {
+            out.append("            case ").append(i).append(":\n");
+            out.append("                return ").append(roots.get(i)).append("(pos);\n");
+        }
+        out.append("            default:\n");
+        out.append("                throw new IllegalStateException(\"Unknown rule \" + rule);\n");
+        out.append("        }\n");
+        out.append("    }\n");
+        out.append(methods);
+        for (final String function : functions) {
+            out.append(function);
+        }
+        out.append("}\n");
+        return out.toString();
+    }
+
+    @Override
+    protected String constant(final Object value, final String type) {
+        // equal constants are shared, except the owners of the memo tables
+        final String expression = expression(value);
+        final String key = type + " = " + expression;
+        final String known = value.getClass() == Object.class ? null : names.get(key);
+        if (known != null) {
+            return known;
+        }
+        final String name = "K" + constants.size();
+        constants.add("    private static final " + type + " " + name + " = " + expression + ";\n");
+        names.put(key, name);
+        return name;
+    }
+
+    @Override
+    protected String apply(final Object function, final String argument) {
+        if (!(function instanceof SourceAction)) {
+            throw new IllegalArgumentException("Function without source: " + function);
+        }
+        // a method of its own, so the parameters of the lambda can't clash
+        // with the locals of the parsing methods
+        final SourceAction action = (SourceAction) function;
+        final String name = "f" + functions.size();
+        functions.add("\n    private static Object " + name + "(final Object $value) {\n"
+                + "        return edu.parsec.parser.compiler.Actions.apply(false ? " + action.witness() + " : null,\n"
+                + "                " + action.source() + ", $value);\n"
+                + "    }\n");
+        return name + "(" + argument + ")";
+    }
+
+    @Override
+    protected String applyNumber(final Object function, final boolean decimal, final String argument) {
+        if (!(function instanceof SourceAction)) {
+            throw new IllegalArgumentException("Function without source: " + function);
+        }
+        final String name = "f" + functions.size();
+        functions.add("\n    private static Object " + name + "(final " + (decimal ? "double" : "long") + " $value) {\n"
+                + "        return edu.parsec.parser.compiler.Actions." + (decimal ? "applyDouble" : "applyLong") + "(\n"
+                + "                " + ((SourceAction) function).source() + ", $value);\n"
+                + "    }\n");
+        return name + "(" + argument + ")";
+    }
+
+    @Override
+    protected String combine(final Combiner combiner, final List<String> arguments) {
+        if (combiner.function() != Combiner.PAIR.function()) {
+            throw new IllegalArgumentException("Combiner without source: " + combiner);
+        }
+        return "new edu.parsec.data.pair.Pair<>(" + String.join(", ", arguments) + ")";
+    }
+
+    private static String expression(final Object value) {
+        if (value instanceof Character) {
+            return "java.lang.Character.valueOf((char) " + (int) (Character) value + ")";
+        }
+        if (value instanceof String) {
+            return literal((String) value);
+        }
+        if (value instanceof CharClass) {
+            return charClass((CharClass) value);
+        }
+        if (value instanceof Collection) {
+            final List<String> items = new ArrayList<>();
+            for (final Object item : (Collection<?>) value) {
+                items.add(literal((String) item));
+            }
+            return "java.util.Collections.unmodifiableList(java.util.Arrays.<String>asList("
+                    + String.join(", ", items) + "))";
+        }
+        if (value instanceof LiteralSetNode) {
+            final List<String> literals = new ArrayList<>();
+            for (final String literal : ((LiteralSetNode) value).literals()) {
+                literals.add(literal(literal));
+            }
+            return "new edu.parsec.parser.grammar.LiteralSetNode(" + String.join(", ", literals) + ")";
+        }
+        if (value instanceof Unit) {
+            return "edu.parsec.data.unit.Unit.get()";
+        }
+        if (value.getClass() == Object.class) {
+            return "new Object()";
+        }
+        throw new IllegalArgumentException("Constant without source: " + value);
+    }
+
+    /*
+     * rebuilt from the runs of its members, or of the characters it doesn't
+     * hold when these are fewer
+     */
+    private static String charClass(final CharClass charClass) {
+        final List<int[]> members = runs(charClass, true);
+        final List<int[]> others = runs(charClass, false);
+        final String built = cost(members) <= cost(others) ? union(members) : union(others) + ".negate()";
+        return built + ".named(" + literal(charClass.toString()) + ")";
+    }
+
+    private static List<int[]> runs(final CharClass charClass, final boolean members) {
+        final List<int[]> runs = new ArrayList<>();
+        int from = -1;
+        for (int c = Character.MIN_VALUE; c <= Character.MAX_VALUE + 1; ++c) {
+            final boolean in = c <= Character.MAX_VALUE && charClass.contains((char) c) == members;
+            if (in && from < 0) {
+                from = c;
+            } else if (!in && from >= 0) {
+                runs.add(new int[]{from, c - 1});
+                from = -1;
+            }
+        }
+        return runs;
+    }
+
+    private static int cost(final List<int[]> runs) {
+        int cost = 0;
+        for (final int[] run : runs) {
+            cost += Math.min(run[1] - run[0] + 1, 3);
+        }
+        return cost;
+    }
+
+    private static String union(final List<int[]> runs) {
+        final StringBuilder singles = new StringBuilder();
+        final List<String> parts = new ArrayList<>();
+        for (final int[] run : runs) {
+            if (run[1] - run[0] < 2) {
+                for (int c = run[0]; c <= run[1]; ++c) {
+                    singles.append((char) c);
+                }
+            } else {
+                parts.add("edu.parsec.parser.combinators.CharClass.range((char) " + run[0] + ", (char) " + run[1]
+                        + ")");
+            }
+        }
+        if (singles.length() > 0 || parts.isEmpty()) {
+            parts.add(0, "edu.parsec.parser.combinators.CharClass.of(" + literal(singles.toString()) + ")");
+        }
+        final StringBuilder out = new StringBuilder(parts.get(0));
+        for (int i = 1; i < parts.size(); ++i) {
+            out.append(".union(").append(parts.get(i)).append(')');
+        }
+        return out.toString();
+    }
+
+    private static String literal(final String value) {
+        final StringBuilder out = new StringBuilder("\"");
+        for (int i = 0; i < value.length(); ++i) {
+            final char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.append('\\').append(c);
+            } else if (c >= ' ' && c < 0x7f) {
+                out.append(c);
+            } else if (c < 0x100) {
+                out.append(String.format("\\%03o", (int) c));
+            } else {
+                out.append(String.format("\\u%04x", (int) c));
+            }
+        }
+        return out.append('"').toString();
+    }
+}
@@ -0,0 +1,53 @@
+package edu.parsec.processor;
+
+import java.util.List;
+
+import edu.parsec.data.input.Input;
+import edu.parsec.data.pair.Pair;
+import edu.parsec.data.result.Result;
+import edu.parsec.parser.grammar.Node;
+import edu.parsec.parser.imp.Lookahead;
+
+/**
+ * Holds all the rules of a grammar, so they are optimized in one go and
+ * the parts they share stay shared.
+ * <p>
+ * The node is only a root for the optimizer, no pass rewrites it and it is
+ * never run.
+ * </p>
+ *
+ * @author Tarek Nawara
+ */
+final class RulesNode extends Node {
+
+    private final List<Node> rules;
+
+    RulesNode(final List<Node> rules) {
+        this.rules = rules;
+    }
+
+    @Override
+    public Result<Pair<Object, Input>> parse(final Input inputChars) {
+        throw new UnsupportedOperationException("The rules of a grammar can't be run together");
+    }
+
+    @Override
+    public List<Node> children() {
+        return rules;
+    }
+
+    @Override
+    public Node withChildren(final List<Node> children) {
+        return new RulesNode(children);
+    }
+
+    @Override
+    protected Lookahead computeLookahead() {
+        return Lookahead.UNKNOWN;
+    }
+
+    @Override
+    public String toString() {
+        return "Rules" + rules;
+    }
+}
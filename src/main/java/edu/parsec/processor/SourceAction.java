@@ -0,0 +1,58 @@
+package edu.parsec.processor;
+
+import java.util.function.DoubleFunction;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+
+/**
+ * Function of a map or of a number known by its source only.
+ * <p>
+ * Stands for the function in the grammar graph built by the processor, the
+ * graph is only translated, never run.
+ * </p>
+ *
+ * @author Tarek Nawara
+ */
+final class SourceAction implements Function<Object, Object>, LongFunction<Object>, DoubleFunction<Object> {
+
+    private final String source;
+    private final String witness;
+
+    /**
+     * @param source  the function as written in the grammar
+     * @param witness expression of the type of the values it is applied to,
+     *                null for the function of a number
+     */
+    SourceAction(final String source, final String witness) {
+        this.source = source;
+        this.witness = witness;
+    }
+
+    String source() {
+        return source;
+    }
+
+    String witness() {
+        return witness;
+    }
+
+    @Override
+    public Object apply(final Object value) {
+        throw new UnsupportedOperationException("Function only known by its source: " + source);
+    }
+
+    @Override
+    public Object apply(final long value) {
+        return apply((Object) value);
+    }
+
+    @Override
+    public Object apply(final double value) {
+        return apply((Object) value);
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+}
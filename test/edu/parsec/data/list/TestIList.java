@@ -0,0 +1,66 @@
+package edu.parsec.data.list;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TestIList {
+
+	private static final int LARGE = 200000;
+
+	private static IList<Integer> range(final int size) {
+		final IList.Builder<Integer> builder = IList.builder();
+		for (int i = 0; i < size; ++i) {
+			builder.add(i);
+		}
+		return builder.build();
+	}
+
+	@Test public void
+	builder_should_fill_the_list_in_order() {
+		final IList.Builder<Integer> builder = IList.builder();
+		assertTrue(builder.build().isEmpty());
+		builder.add(1).add(2).addAll(Arrays.asList(3, 4));
+		assertEquals(4, builder.size());
+		final IList<Integer> rest = IList.of(new Integer[]{5});
+		final IList<Integer> list = builder.build(rest);
+		assertEquals("1,2,3,4,5", list.mkString(","));
+		assertSame(rest, list.tail().tail().tail().tail());
+		assertEquals(0, builder.size());
+		assertEquals("[6]", builder.add(6).build().toString());
+		assertEquals("1,2,3,4,5", list.mkString(","));
+	}
+
+	@Test public void
+	operations_should_not_grow_the_stack_with_the_list() {
+		final IList<Integer> large = range(LARGE);
+		assertEquals(LARGE, large.map(x -> x + 1).foldLeft(0, (n, x) -> n + 1).intValue());
+		assertEquals(LARGE / 2, large.filter(x -> x % 2 == 0).foldLeft(0, (n, x) -> n + 1).intValue());
+		assertEquals(Integer.valueOf(LARGE - 10), large.dropWhile(x -> x < LARGE - 10).head());
+		assertEquals(10, large.takeWhile(x -> x < 10).foldLeft(0, (n, x) -> n + 1).intValue());
+		assertEquals(2 * LARGE, large.append(large).foldLeft(0, (n, x) -> n + 1).intValue());
+		final IList<Integer> doubled = large.flatMap(x -> new Cons<>(x, new Cons<>(x, new Empty<>())));
+		assertEquals(2 * LARGE, doubled.foldLeft(0, (n, x) -> n + 1).intValue());
+		assertEquals(large, IList.of(large.iterator()));
+		assertEquals(range(LARGE).hashCode(), large.hashCode());
+		assertNotEquals(large, range(LARGE - 1));
+	}
+
+	@Test public void
+	equal_lists_should_have_equal_hashes() {
+		final IList<String> first = IList.of(new String[]{"a", null, "c"});
+		final IList<String> second = new Cons<>("a", new Cons<>(null, new Cons<>("c", new Empty<>())));
+		assertEquals(first, second);
+		assertEquals(first.hashCode(), second.hashCode());
+		assertEquals(first.hashCode(), first.hashCode());
+		assertEquals(new Empty<String>(), new Empty<Integer>());
+		assertFalse(first.equals(first.tail()));
+		assertNotEquals(first, new Cons<>("a", new Cons<>("b", new Cons<>("c", new Empty<>()))));
+	}
+}
@@ -0,0 +1,41 @@
+package edu.parsec.data.list;
+
+import org.junit.Test;
+
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestPrimitiveLists {
+
+	@Test public void
+	builders_should_hand_out_lists_that_never_change() {
+		final IntList.Builder builder = IntList.builder();
+		for (int i = 0; i < 1000; ++i) {
+			builder.add(i);
+		}
+		final IntList first = builder.build();
+		builder.add(-1);
+		final IntList second = builder.build();
+		assertEquals(1000, first.size());
+		assertEquals(999, first.get(999));
+		assertEquals(IntList.of(-1), second);
+		assertTrue(builder.build().isEmpty());
+		assertEquals(IntStream.range(0, 1000).sum(), first.stream().sum());
+		assertEquals(VectorList.of(() -> IntStream.range(0, 1000).iterator()), first.boxed());
+	}
+
+	@Test public void
+	primitive_lists_should_compare_by_value() {
+		assertEquals(CharList.of("xabcx", 1, 4), CharList.of('a', 'b', 'c'));
+		assertEquals(CharList.of('a', 'b').hashCode(), CharList.of("ab", 0, 2).hashCode());
+		assertEquals("bc", CharList.of('a', 'b', 'c').subSequence(1, 3).toString());
+		assertEquals('c', CharList.of('a', 'b', 'c').charAt(2));
+		assertEquals(DoubleList.of(0.5, 1), DoubleList.builder().add(0.5).add(1).build());
+		assertNotEquals(DoubleList.of(0.0), DoubleList.of(-0.0));
+		assertEquals("[1.5]", DoubleList.of(1.5).toString());
+		assertEquals(IntList.of(1, 2), IntStream.of(1, 2).boxed().collect(IntList.collector()));
+	}
+}
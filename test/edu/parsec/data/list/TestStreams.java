@@ -0,0 +1,67 @@
+package edu.parsec.data.list;
+
+import org.junit.Test;
+
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TestStreams {
+
+	@Test public void
+	streams_should_keep_the_order_of_the_list() {
+		final IList<Integer> cons = IList.of(IntStream.range(0, 10000).boxed().iterator());
+		final VectorList<Integer> vector = VectorList.of(cons);
+		assertEquals(cons.mkString(","), cons.parallelStream().map(String::valueOf).collect(Collectors.joining(",")));
+		assertEquals(cons.mkString(","), vector.parallelStream().map(String::valueOf).collect(Collectors.joining(",")));
+		assertEquals(5000L, cons.stream().filter(i -> i % 2 == 0).count());
+		assertEquals(0L, new Empty<Integer>().parallelStream().count());
+	}
+
+	@Test public void
+	vector_list_should_split_in_halves() {
+		final VectorList<Integer> vector = VectorList.of(IList.of(IntStream.range(0, 1000).boxed().iterator()));
+		final Spliterator<Integer> right = vector.tail().spliterator();
+		assertTrue(right.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.ORDERED | Spliterator.IMMUTABLE));
+		assertEquals(999L, right.getExactSizeIfKnown());
+		final Spliterator<Integer> left = right.trySplit();
+		assertNotNull(left);
+		assertEquals(499L, left.getExactSizeIfKnown());
+		assertEquals(500L, right.getExactSizeIfKnown());
+		left.tryAdvance(i -> assertEquals(Integer.valueOf(1), i));
+	}
+
+	@Test public void
+	cons_list_should_split_without_a_size() {
+		final IList<Integer> cons = IList.of(IntStream.range(0, 5000).boxed().iterator());
+		final Spliterator<Integer> spliterator = cons.spliterator();
+		assertTrue(spliterator.hasCharacteristics(Spliterator.ORDERED | Spliterator.IMMUTABLE));
+		assertNotNull(spliterator.trySplit());
+		assertNull(new Empty<Integer>().spliterator().trySplit());
+	}
+
+	@Test public void
+	fold_should_reduce_in_parallel() {
+		final VectorList<Integer> vector = VectorList.of(IList.of(IntStream.rangeClosed(1, 100000).boxed().iterator()));
+		final IList<Integer> cons = IList.of(vector.iterator());
+		assertEquals(Long.valueOf(5000050000L), vector.fold(0L, (acc, i) -> acc + i, Long::sum));
+		assertEquals(Long.valueOf(5000050000L), cons.fold(0L, (acc, i) -> acc + i, Long::sum));
+		assertEquals(Integer.valueOf(100000), vector.fold(0, Math::max));
+		assertEquals(cons.mkString(""), cons.fold("", (acc, i) -> acc + i, String::concat));
+		assertEquals(Integer.valueOf(7), new Empty<Integer>().fold(7, Integer::sum));
+	}
+
+	@Test public void
+	primitive_lists_should_stream_in_parallel() {
+		final IntList ints = IntList.of(IntStream.rangeClosed(1, 10000).toArray());
+		assertEquals(50005000L, ints.parallelStream().asLongStream().sum());
+		assertEquals(10000L, ints.spliterator().getExactSizeIfKnown());
+		final DoubleList doubles = DoubleList.of(new double[]{0.5, 1.5, 2.0});
+		assertEquals(4.0, doubles.parallelStream().sum(), 0.0);
+	}
+}
@@ -0,0 +1,72 @@
+package edu.parsec.data.list;
+
+import edu.parsec.examples.json.data.JSeq;
+import edu.parsec.examples.json.parser.JSONCombinators;
+import edu.parsec.parser.combinators.Combinator;
+import edu.parsec.parser.combinators.ParserBuilder;
+import edu.parsec.parser.imp.Parser;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestVectorList {
+
+	@Test public void
+	appended_should_keep_the_older_lists_unchanged() {
+		final VectorList<Integer> empty = VectorList.empty();
+		final VectorList<Integer> one = empty.appended(1);
+		final VectorList<Integer> two = one.appended(2);
+		final VectorList<Integer> other = one.appended(3);
+		assertEquals("[1]", one.toString());
+		assertEquals("[1,2]", two.toString());
+		assertEquals("[1,3]", other.toString());
+		assertTrue(empty.isEmpty());
+		VectorList<Integer> large = VectorList.empty();
+		for (int i = 0; i < 100000; ++i) {
+			large = large.appended(i);
+		}
+		assertEquals(100000, large.size());
+		assertEquals(Integer.valueOf(54321), large.get(54321));
+		assertEquals(Integer.valueOf(1), large.tail().head());
+		assertEquals("[1,2,3]", one.append(IList.of(new Integer[]{2, 3})).toString());
+	}
+
+	@Test public void
+	vector_list_should_behave_like_a_cons_list() {
+		final IList<Integer> cons = IList.of(Arrays.asList(5, 1, 4, 2, 3));
+		final IList<Integer> vector = VectorList.of(Arrays.asList(5, 1, 4, 2, 3));
+		assertEquals(cons, vector);
+		assertEquals(vector, cons);
+		assertEquals(cons.hashCode(), vector.hashCode());
+		assertEquals(cons.map(x -> x * 2), vector.map(x -> x * 2));
+		assertEquals(cons.filter(x -> x > 2), vector.filter(x -> x > 2));
+		assertEquals(cons.takeWhile(x -> x != 4), vector.takeWhile(x -> x != 4));
+		assertEquals(cons.dropWhile(x -> x != 4), vector.dropWhile(x -> x != 4));
+		assertEquals(cons.reverse(), vector.reverse());
+		assertEquals(cons.tail(), vector.tail());
+		assertEquals(cons.foldLeft(0, Integer::sum), vector.foldLeft(0, Integer::sum));
+		assertEquals(cons.foldRight("", (x, s) -> s + x), vector.foldRight("", (x, s) -> s + x));
+		assertEquals(cons.get(2), vector.get(2));
+		assertEquals(new Empty<Integer>(), VectorList.empty());
+		assertEquals(cons.mkString(", "), vector.mkString(", "));
+	}
+
+	@Test public void
+	collector_should_gather_the_repetitions() {
+		final Parser<VectorList<Character>> letters = Combinator.many(ParserBuilder.parseChar('a'),
+				VectorList.collector());
+		assertEquals(3, letters.run("aaab").get().first.size());
+		assertEquals(3, letters.compile().run("aaab").get().first.size());
+		final VectorList<Integer> collected = IntStream.range(0, 1000).boxed().collect(VectorList.collector());
+		assertEquals(IList.of(IntStream.range(0, 1000).boxed().collect(Collectors.toList())), collected);
+		assertEquals(Integer.valueOf(999), collected.get(999));
+		final JSeq seq = (JSeq) JSONCombinators.JsonParser().run("[1, 2, 3]").get().first;
+		assertTrue(seq.elems instanceof VectorList);
+		assertEquals(3, seq.elems.size());
+	}
+}
@@ -0,0 +1,53 @@
+package edu.parsec.parser;
+
+import edu.parsec.data.list.IList;
+import edu.parsec.data.pair.Pair;
+import edu.parsec.data.unit.Unit;
+import edu.parsec.examples.json.data.*;
+import edu.parsec.parser.combinators.Combinator;
+import edu.parsec.parser.combinators.ParserBuilder;
+import edu.parsec.parser.imp.Parser;
+import edu.parsec.processor.Grammar;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The json grammar of the examples written as rules, translated to
+ * {@code JsonGrammarParser} when the tests are compiled.
+ */
+@Grammar
+public class JsonGrammar {
+
+	static final Parser<Json> JSON = Parser.lazy(() -> ParserBuilder.noSpacesParser(Combinator.<Json>choice(
+			JsonGrammar.JNULL, JsonGrammar.JBOOL, JsonGrammar.JNUM, JsonGrammar.JSTR, JsonGrammar.JSEQ, JsonGrammar.JOBJ)));
+	static final Parser<Unit> COMMAS = Combinator.skipMany(ParserBuilder.noSpacesParser(ParserBuilder.parseChar(',')));
+	static final Parser<String> STR = ParserBuilder.noSpacesParser(ParserBuilder.parseChar('"')
+			.then(Combinator.stringParser()).skip(ParserBuilder.parseChar('"')));
+	static final Parser<JNull> JNULL = ParserBuilder.noSpacesParser(ParserBuilder.parseString("null"))
+			.map(x -> new JNull());
+	static final Parser<JBool> JBOOL = ParserBuilder.noSpacesParser(ParserBuilder.oneOfLiterals("true", "false"))
+			.map(Boolean::parseBoolean).map(JBool::new);
+	static final Parser<JNum> JNUM = ParserBuilder.noSpacesParser(ParserBuilder.doubleParser(JNum::new));
+	static final Parser<JStr> JSTR = STR.map(JStr::new);
+	static final Parser<JSeq> JSEQ = Combinator.between(ParserBuilder.noSpacesParser(ParserBuilder.parseChar('[')),
+			ParserBuilder.noSpacesParser(ParserBuilder.parseChar(']')), Combinator.many(JSON.skip(COMMAS)))
+			.map(JSeq::new);
+	static final Parser<Pair<String, Json>> BINDING = STR.skip(ParserBuilder.noSpacesParser(ParserBuilder.parseChar(':')))
+			.and(() -> JSON).skip(COMMAS);
+	static final Parser<JObj> JOBJ = ParserBuilder.noSpacesParser(ParserBuilder.parseChar('{'))
+			.then(Combinator.many(BINDING).map(l -> {
+				Map<String, Json> bindings = toMap(l);
+				return new JObj(bindings);
+			}))
+			.skip(ParserBuilder.noSpacesParser(ParserBuilder.parseChar('}')));
+
+	static Map<String, Json> toMap(IList<Pair<String, Json>> l) {
+		Map<String, Json> bindings = new HashMap<>();
+		l.foldLeft(bindings, (acc, pair) -> {
+			acc.put(pair.first, pair.second);
+			return acc;
+		});
+		return bindings;
+	}
+}
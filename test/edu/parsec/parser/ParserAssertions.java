@@ -0,0 +1,47 @@
+package edu.parsec.parser;
+
+import edu.parsec.data.input.Input;
+import edu.parsec.data.pair.Pair;
+import edu.parsec.data.result.Result;
+import edu.parsec.parser.imp.Parser;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Helpers shared by the tests of the parsers.
+ */
+final class ParserAssertions {
+
+	private ParserAssertions() {
+	}
+
+	/**
+	 * Asserts both parsers give the same value and stop at the same offset,
+	 * or fail with the same message, on every input.
+	 */
+	static <T> void assertSameResults(final Parser<T> expected, final Parser<T> actual, final String... inputs) {
+		for (final String input : inputs) {
+			final Result<Pair<T, Input>> expectedResult = expected.run(input);
+			final Result<Pair<T, Input>> actualResult = actual.run(input);
+			assertEquals(input, expectedResult.isSuccess(), actualResult.isSuccess());
+			if (expectedResult.isSuccess()) {
+				assertEquals(input, expectedResult.get().first, actualResult.get().first);
+				assertEquals(input, expectedResult.get().second.offset(), actualResult.get().second.offset());
+			} else {
+				assertEquals(input, expectedResult.getErrorMessage(), actualResult.getErrorMessage());
+			}
+		}
+	}
+
+	/**
+	 * The same parser, with the same lookahead, counting its runs.
+	 */
+	static <T> Parser<T> counting(final AtomicInteger runs, final Parser<T> parser) {
+		return new Parser<>(inputChars -> {
+			runs.incrementAndGet();
+			return parser.run(inputChars);
+		}, parser::lookahead);
+	}
+}
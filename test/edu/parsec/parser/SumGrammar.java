@@ -0,0 +1,25 @@
+package edu.parsec.parser;
+
+import edu.parsec.parser.combinators.CharClass;
+import edu.parsec.parser.combinators.Combinator;
+import edu.parsec.parser.combinators.ParserBuilder;
+import edu.parsec.parser.imp.Parser;
+import edu.parsec.processor.Grammar;
+
+/**
+ * Sums of integers with brackets, translated to {@code Sums} when the tests
+ * are compiled.
+ */
+@Grammar(name = "Sums")
+public class SumGrammar {
+
+	static final Parser<Integer> NUMBER = Combinator.skipWhile(CharClass.SPACES.union(CharClass.of("_")))
+			.then(ParserBuilder.intParser());
+	static final Parser<Integer> TERM = NUMBER
+			.or(() -> ParserBuilder.parseChar('(').then(Parser.lazy(() -> SumGrammar.SUM)).skip(ParserBuilder.parseChar(')')))
+			.memo();
+	static final Parser<Integer> SUM = TERM.and(() -> Combinator.many(ParserBuilder.parseChar('+').then(TERM)))
+			.map(pair -> pair.first + pair.second.foldLeft(0, (acc, n) -> acc + n));
+	static final Parser<String> WORD = Combinator.many1(ParserBuilder.satisfy(CharClass.range('a', 'z').named("letter")))
+			.map(l -> l.mkString(""));
+}
@@ -1,12 +1,22 @@
 package edu.parsec.parser;
 
+import edu.parsec.data.hlist.HCons;
+import edu.parsec.data.hlist.HNil;
+import edu.parsec.data.input.Input;
+import edu.parsec.data.list.Cons;
+import edu.parsec.data.list.Empty;
 import edu.parsec.data.list.IList;
 import edu.parsec.data.pair.Pair;
 import edu.parsec.data.result.Result;
+import edu.parsec.parser.combinators.Combinator;
 import edu.parsec.parser.combinators.ParserBuilder;
+import edu.parsec.parser.grammar.SeqNode;
 import edu.parsec.parser.imp.Parser;
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.function.Function;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 public class TestAnd {
@@ -16,7 +26,7 @@ public class TestAnd {
 		final Parser<Character> a = ParserBuilder.parseChar('a');
 		final Parser<Character> b = ParserBuilder.parseChar('b');
 		final Parser<Pair<Character, Character>> ab = a.and(() -> b);
-		final Result<Pair<Pair<Character, Character>, IList<Character>>> result = ab.run("abc");
+		final Result<Pair<Pair<Character, Character>, Input>> result = ab.run("abc");
 		assertTrue(result.isSuccess());
 	}
 
@@ -25,7 +35,85 @@ public class TestAnd {
 		final Parser<Character> a = ParserBuilder.parseChar('a');
 		final Parser<Character> b = ParserBuilder.parseChar('b');
 		final Parser<Pair<Character, Character>> ab = a.and(() -> b);
-		final Result<Pair<Pair<Character, Character>, IList<Character>>> result = ab.run("abc");
+		final Result<Pair<Pair<Character, Character>, Input>> result = ab.run("abc");
 		assertEquals(result.get().first, new Pair<>('a', 'b'));
 	}
+
+	@Test public void
+	seq_should_combine_the_results_in_order() {
+		final Parser<Character> a = ParserBuilder.parseChar('a');
+		final Parser<Integer> number = ParserBuilder.intParser();
+		final Parser<String> abc = Combinator.seq3(a, number, ParserBuilder.parseString("bc"),
+				(x, n, y) -> x + String.valueOf(n) + y);
+		assertEquals("a12bc", abc.run("a12bc").get().first);
+		assertEquals("Expected: \"bc\" or '0'..'9', found: 'x' at offset 3", abc.run("a12x").getErrorMessage());
+		final Parser<Integer> sum = Combinator.seq8(number, a, number, a, number, a, number, a,
+				(n1, x1, n2, x2, n3, x3, n4, x4) -> n1 + n2 + n3 + n4);
+		assertEquals(Integer.valueOf(10), sum.run("1a2a3a4a").get().first);
+	}
+
+	@Test public void
+	between_lift_and_apply_should_run_the_parsers_in_order() {
+		final Parser<Integer> number = ParserBuilder.intParser();
+		final Parser<Integer> wrapped = Combinator.between(ParserBuilder.parseChar('('), ParserBuilder.parseChar(')'),
+				number);
+		assertEquals(Integer.valueOf(42), wrapped.run("(42)").get().first);
+		assertEquals(3, wrapped.run("(4)").get().second.offset());
+		assertTrue(wrapped.run("(4").isFailure());
+		final Parser<Integer> product = number.liftM2((x, y) -> x * y, ParserBuilder.parseChar('*').then(number));
+		assertEquals(Integer.valueOf(12), product.run("3*4").get().first);
+		final Parser<Function<Integer, Integer>> negate = ParserBuilder.parseChar('-').map(c -> x -> -x);
+		assertEquals(Integer.valueOf(-7), number.apply(negate).run("-7").get().first);
+	}
+
+	@Test public void
+	hcons_should_build_a_flat_list_and_map_n_should_consume_it() {
+		final Parser<Integer> number = ParserBuilder.intParser();
+		final Parser<Character> comma = ParserBuilder.parseChar(',');
+		final Parser<HCons<Integer, HCons<Character, HCons<Integer, HNil>>>> list =
+				Combinator.hcons(number, Combinator.hcons(comma, Combinator.hcons(number, Combinator.hnil())));
+		assertTrue(list.node() instanceof SeqNode);
+		assertEquals(3, list.node().children().size());
+		final HCons<Integer, HCons<Character, HCons<Integer, HNil>>> parsed = list.run("1,2").get().first;
+		assertEquals(Integer.valueOf(1), parsed.head);
+		assertEquals(Character.valueOf(','), parsed.tail.head);
+		assertEquals(Integer.valueOf(2), parsed.tail.tail.head);
+		assertEquals(HNil.nil(), parsed.tail.tail.tail);
+		final Parser<Integer> sum = Combinator.mapN(list, (x, c, y) -> x + y);
+		assertEquals(Integer.valueOf(3), sum.run("1,2").get().first);
+		assertEquals(list.node().children(), sum.node().children());
+		final Parser<Integer> viaMap = Combinator.mapN(list.map(l -> l), (x, c, y) -> x * y);
+		assertEquals(Integer.valueOf(6), viaMap.run("2,3").get().first);
+		assertTrue(Combinator.mapN(list, (x, c, y) -> x).run("1;2").isFailure());
+	}
+
+	@Test public void
+	sequence_should_not_grow_the_stack_with_the_list() {
+		final Parser<Character> a = ParserBuilder.parseChar('a');
+		IList<Parser<Character>> parsers = new Empty<>();
+		for (int i = 0; i < 100000; ++i) {
+			parsers = new Cons<>(a, parsers);
+		}
+		final char[] input = new char[100000];
+		Arrays.fill(input, 'a');
+		final Result<Pair<IList<Character>, Input>> result = a.sequence(parsers).run(input);
+		int count = 0;
+		for (final Character c : result.get().first) {
+			assertEquals(Character.valueOf('a'), c);
+			++count;
+		}
+		assertEquals(100000, count);
+		assertEquals(100000, result.get().second.offset());
+	}
+
+	@Test public void
+	map_m_should_run_the_parsers_in_order() {
+		final Parser<Character> any = ParserBuilder.parseChar('x');
+		final IList<Character> chars = new Cons<>('a', new Cons<>('b', new Cons<>('c', new Empty<>())));
+		final Parser<IList<Character>> abc = any.mapM(ParserBuilder::parseChar, chars);
+		assertEquals("abc", abc.run("abcd").get().first.mkString(""));
+		assertTrue(abc.run("abd").isFailure());
+		assertEquals("cba", any.forM(chars.reverse(), ParserBuilder::parseChar).run("cba").get().first.mkString(""));
+		assertTrue(any.mapM(ParserBuilder::parseChar, new Empty<Character>()).run("").get().first.isEmpty());
+	}
 }
@@ -0,0 +1,66 @@
+package edu.parsec.parser;
+
+import edu.parsec.data.input.Input;
+import edu.parsec.data.pair.Pair;
+import edu.parsec.data.result.Result;
+import edu.parsec.data.unit.Unit;
+import edu.parsec.parser.combinators.CharClass;
+import edu.parsec.parser.combinators.Combinator;
+import edu.parsec.parser.combinators.ParserBuilder;
+import edu.parsec.parser.imp.Parser;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TestCharClass {
+
+	@Test public void
+	char_class_should_contain_only_its_members() {
+		final CharClass vowels = CharClass.of("aeiou");
+		assertTrue(vowels.contains('e'));
+		assertFalse(vowels.contains('b'));
+		assertFalse(vowels.contains('\u4e2d'));
+	}
+
+	@Test public void
+	range_and_negation_should_cover_the_complement() {
+		final CharClass notDigit = CharClass.range('0', '9').negate();
+		assertFalse(notDigit.contains('5'));
+		assertTrue(notDigit.contains('x'));
+		assertTrue(notDigit.contains('\u4e2d'));
+	}
+
+	@Test public void
+	char_class_should_know_whether_it_is_ascii() {
+		assertTrue(CharClass.of("az").isAscii());
+		assertTrue(CharClass.range('a', 'z').union(CharClass.DIGITS).isAscii());
+		assertFalse(CharClass.of("a\u4e2d").isAscii());
+		assertFalse(CharClass.range('a', '\u00e9').isAscii());
+		assertFalse(CharClass.DIGITS.negate().isAscii());
+	}
+
+	@Test public void
+	union_with_a_negated_class_should_contain_both() {
+		final CharClass union = CharClass.of("a").negate().union(CharClass.of("a\u4e2d"));
+		assertTrue(union.contains('a'));
+		assertTrue(union.contains('b'));
+		assertTrue(union.contains('\u4e2d'));
+		assertEquals(CharClass.of("ab").union(CharClass.of("c")), CharClass.of("abc"));
+	}
+
+	@Test public void
+	satisfy_should_parse_a_member_and_report_the_class_otherwise() {
+		final Parser<Character> lower = ParserBuilder.satisfy(CharClass.range('a', 'z'));
+		assertEquals(Character.valueOf('q'), lower.run("q").get().first);
+		assertEquals("Expected: 'a'..'z', found: 'Q' at offset 0", lower.run("Q").getErrorMessage());
+	}
+
+	@Test public void
+	spaces_should_skip_all_the_leading_whitespace() {
+		final Result<Pair<Unit, Input>> result = Combinator.spaces().run(" \t\r\nx ");
+		assertTrue(result.isSuccess());
+		assertEquals(4, result.get().second.offset());
+	}
+}
@@ -0,0 +1,114 @@
+package edu.parsec.parser;
+
+import edu.parsec.parser.combinators.CharClass;
+import edu.parsec.parser.combinators.Combinator;
+import edu.parsec.parser.combinators.ParserBuilder;
+import edu.parsec.parser.imp.Lookahead;
+import edu.parsec.parser.imp.Parser;
+import edu.parsec.parser.imp.ParserRef;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static edu.parsec.parser.ParserAssertions.counting;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TestChoice {
+
+	@Test public void
+	lookahead_of_a_sequence_should_include_the_second_parser_when_the_first_is_nullable() {
+		final Parser<Character> parser = Combinator.spaces().then(ParserBuilder.parseChar('a'));
+		final Lookahead lookahead = parser.lookahead();
+		assertFalse(lookahead.isNullable());
+		assertTrue(lookahead.mayStartWith(' '));
+		assertTrue(lookahead.mayStartWith('a'));
+		assertFalse(lookahead.mayStartWith('b'));
+	}
+
+	@Test public void
+	lookahead_of_a_plain_function_parser_should_be_unknown() {
+		final Parser<Character> parser = new Parser<>(inputChars -> ParserBuilder.parseChar('a').run(inputChars));
+		assertNull(parser.lookahead().first());
+		assertTrue(parser.lookahead().isNullable());
+	}
+
+	@Test public void
+	choice_should_only_run_the_alternatives_that_can_start_with_the_current_character() {
+		final AtomicInteger runs = new AtomicInteger();
+		final Parser<String> a = counting(runs, ParserBuilder.parseString("abc"));
+		final Parser<String> b = counting(runs, ParserBuilder.parseString("bcd"));
+		final Parser<String> c = counting(runs, ParserBuilder.parseString("cde"));
+		final Parser<String> parser = Combinator.choice(a, b, c);
+		assertEquals("cde", parser.run("cde").get().first);
+		assertEquals(1, runs.get());
+	}
+
+	@Test public void
+	choice_should_keep_the_order_of_ambiguous_alternatives() {
+		final Parser<String> parser = Combinator.choice(ParserBuilder.parseString("ab"),
+				ParserBuilder.parseString("ac"), ParserBuilder.parseString("a"));
+		assertEquals("ac", parser.run("ac").get().first);
+		assertEquals("a", parser.run("ad").get().first);
+	}
+
+	@Test public void
+	choice_should_report_all_the_alternatives_on_failure() {
+		final Parser<Character> parser = Combinator.choice(ParserBuilder.parseChar('a'),
+				ParserBuilder.satisfy(CharClass.DIGITS));
+		assertEquals("Expected: '0'..'9' or 'a', found: 'x' at offset 0", parser.run("x").getErrorMessage());
+		assertEquals("Expected: '0'..'9' or 'a', found: '\u4e2d' at offset 0", parser.run("\u4e2d").getErrorMessage());
+	}
+
+	@Test public void
+	choice_should_only_run_the_alternatives_that_can_start_with_a_non_ascii_character() {
+		final AtomicInteger runs = new AtomicInteger();
+		final Parser<Character> ascii = counting(runs, ParserBuilder.parseChar('a'));
+		final Parser<Character> han = counting(runs, ParserBuilder.satisfy(CharClass.range('\u4e00', '\u9fff')));
+		final Parser<Character> other = counting(runs, ParserBuilder.satisfy(CharClass.of("\"").negate()));
+		final Parser<Character> parser = Combinator.choice(ascii, han, other);
+		assertEquals('\u4e2d', (char) parser.run("\u4e2d").get().first);
+		assertEquals(1, runs.getAndSet(0));
+		assertEquals('\u00e9', (char) parser.run("\u00e9").get().first);
+		assertEquals(1, runs.getAndSet(0));
+		assertTrue(parser.run("").isFailure());
+		assertEquals(0, runs.get());
+	}
+
+	@Test public void
+	or_should_skip_a_branch_that_cannot_start_with_the_current_character() {
+		final AtomicInteger runs = new AtomicInteger();
+		final Parser<Character> a = ParserBuilder.parseChar('a');
+		final Parser<Character> parser = a.or(() -> counting(runs, ParserBuilder.parseChar('b')));
+		final Parser<Character> skippable = new Parser<Character>(a::run, a::lookahead).or(() -> a);
+		assertTrue(parser.run("b").isSuccess());
+		assertEquals("Expected: 'a' or 'b', found: 'c' at offset 0", parser.run("c").getErrorMessage());
+		assertTrue(skippable.run("a").isSuccess());
+	}
+
+	@Test public void
+	lookahead_reached_inside_a_cycle_should_not_depend_on_where_it_is_computed_from() {
+		final Parser<Character> fresh = cycle(false);
+		final Parser<Character> reached = cycle(true);
+		assertFalse(fresh.lookahead().isNullable());
+		assertEquals(fresh.lookahead().isNullable(), reached.lookahead().isNullable());
+		assertEquals(fresh.lookahead().expected(), reached.lookahead().expected());
+	}
+
+	/*
+	 * the choice c = 'd' | f c 'c' where f is a function parser, optionally
+	 * computing the lookahead of the recursive sequence first
+	 */
+	private static Parser<Character> cycle(final boolean fromSequence) {
+		final ParserRef<Character> sequence = new ParserRef<>();
+		final Parser<Character> f = new Parser<>(inputChars -> ParserBuilder.parseChar('f').run(inputChars));
+		final Parser<Character> choice = ParserBuilder.parseChar('d').or(() -> sequence);
+		sequence.set(f.then(choice).then(ParserBuilder.parseChar('c')));
+		if (fromSequence) {
+			sequence.lookahead();
+		}
+		return choice;
+	}
+}
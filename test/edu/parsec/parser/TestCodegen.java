@@ -0,0 +1,109 @@
+package edu.parsec.parser;
+
+import edu.parsec.data.list.IList;
+import edu.parsec.data.pair.Pair;
+import edu.parsec.parser.combinators.CharClass;
+import edu.parsec.parser.combinators.Combinator;
+import edu.parsec.parser.combinators.ParserBuilder;
+import edu.parsec.parser.compiler.CompiledNode;
+import edu.parsec.parser.compiler.ParserCompiler;
+import edu.parsec.parser.imp.Parser;
+import edu.parsec.parser.imp.ParserRef;
+import org.junit.Test;
+
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+public class TestCodegen {
+
+	private static <T> void assertSameResults(final Parser<T> parser, final String... inputs) {
+		assumeTrue(ParserCompiler.isAvailable());
+		final Parser<T> generated = ParserCompiler.generate(parser.compile());
+		assertTrue(generated.node() instanceof CompiledNode);
+		ParserAssertions.assertSameResults(parser, generated, inputs);
+	}
+
+	@Test public void
+	generated_parser_should_parse_like_the_interpreter() {
+		final Parser<Character> letter = ParserBuilder.satisfy(CharClass.range('a', 'z'));
+		final Parser<String> word = Combinator.many1(letter).map(l -> l.mkString(""));
+		final Parser<String> keyword = ParserBuilder.noSpacesParser(ParserBuilder.oneOfLiterals("let", "in"));
+		final Parser<Pair<String, String>> binding = keyword.then(ParserBuilder.noSpacesParser(word))
+				.skip(ParserBuilder.parseString("="))
+				.and(() -> ParserBuilder.noSpacesParser(word));
+		assertSameResults(binding, "let x = y", "in a=b", "let = y", "let x y", "", "lex");
+	}
+
+	@Test public void
+	generated_parser_should_handle_recursion_and_memo() {
+		final ParserRef<Integer> nested = new ParserRef<>();
+		final Parser<Character> open = ParserBuilder.parseChar('(');
+		final Parser<Character> close = ParserBuilder.parseChar(')');
+		final Parser<IList<Integer>> children = Combinator.many(nested.memo());
+		nested.set(open.then(children).skip(close).map(l -> 1 + l.foldLeft(0, Math::max)));
+		assertSameResults(nested, "(()(()))", "(()", "()", ")", "((((((((((()))))))))))");
+	}
+
+	@Test public void
+	generated_parser_should_keep_stack_safe_parsers_on_their_engine() {
+		final ParserRef<Integer> nested = new ParserRef<>();
+		final Parser<Character> open = ParserBuilder.parseChar('(');
+		final Parser<Character> close = ParserBuilder.parseChar(')');
+		nested.set(open.then(Combinator.many(nested)).skip(close).map(l -> 1 + l.foldLeft(0, Math::max)));
+		assertSameResults(nested.stackSafe(), "(()(()))", "(()", "()", ")");
+	}
+
+	@Test public void
+	generated_parser_should_scan_primitive_repetitions() {
+		final Parser<Character> letter = ParserBuilder.satisfy(CharClass.range('a', 'z'));
+		assertSameResults(Combinator.manyChar(letter), "abc1", "", "1");
+		assertSameResults(Combinator.manyInt(ParserBuilder.noSpacesParser(ParserBuilder.intParser())), "1 2 3", "x");
+	}
+
+	@Test public void
+	generated_parser_should_run_plain_functions_and_flat_maps() {
+		final Parser<Character> digit = ParserBuilder.digitParser();
+		final Parser<Character> wrapped = new Parser<>(digit::run);
+		final Parser<Character> repeated = wrapped.flatMap(c -> ParserBuilder.parseChar(c));
+		final Parser<Character> choice = Combinator.choice(repeated, ParserBuilder.parseChar('x'));
+		assertSameResults(choice, "11", "12", "x", "", "y");
+	}
+
+	@Test public void
+	generated_parser_should_report_skipped_alternatives() {
+		final Parser<String> choice = Combinator.choice(
+				ParserBuilder.parseString("ab"),
+				ParserBuilder.parseString("cd"),
+				Combinator.many(ParserBuilder.parseChar('e')).map(l -> "e"));
+		assertSameResults(choice, "ab", "cd", "eee", "x", "", "c");
+	}
+
+	@Test public void
+	generated_parser_should_slice_the_input() {
+		final Parser<Pair<Double, Integer>> numbers = ParserBuilder.noSpacesParser(ParserBuilder.doubleParser())
+				.and(() -> ParserBuilder.intParser());
+		assertSameResults(numbers, "0.55 12", " 3. 4", "12.5", "x", "1 x", "2.x", "1.12345678901234567890 7");
+		final Parser<String> hex = ParserBuilder.longParser(Long::toHexString);
+		assertSameResults(hex, "255", "x", "12345678901234567", "9223372036854775808", "123456789012345678901");
+		assertSameResults(ParserBuilder.intParser(), "2147483647", "2147483648", "00002147483647");
+	}
+
+	@Test public void
+	generated_parser_should_collect_repetitions() {
+		final Parser<Integer> number = ParserBuilder.noSpacesParser(ParserBuilder.intParser());
+		final Parser<String> joined = Combinator.many1(number.map(String::valueOf), Collectors.joining(","));
+		assertSameResults(joined, "1 2 3", "4", "", "x", "5 x");
+	}
+
+	@Test public void
+	generated_choices_should_report_like_the_nested_ones() {
+		final Parser<String> choice = Combinator.skipMany(ParserBuilder.parseChar('q')).map(u -> "q")
+				.or(() -> ParserBuilder.intParser().map(String::valueOf)
+						.or(() -> ParserBuilder.parseChar('a').map(String::valueOf)))
+				.skip(ParserBuilder.parseChar('z'));
+		assertSameResults(choice, "1", "z", "1z", "az", "qz", "b", "");
+	}
+}
@@ -0,0 +1,155 @@
+package edu.parsec.parser;
+
+import edu.parsec.data.list.IList;
+import edu.parsec.data.result.Result;
+import edu.parsec.parser.combinators.CharClass;
+import edu.parsec.parser.combinators.Combinator;
+import edu.parsec.parser.combinators.ParserBuilder;
+import edu.parsec.parser.grammar.AltNode;
+import edu.parsec.parser.grammar.CharSpanNode;
+import edu.parsec.parser.grammar.LiteralNode;
+import edu.parsec.parser.grammar.MapNode;
+import edu.parsec.parser.grammar.SeqNode;
+import edu.parsec.parser.grammar.SkipWhileNode;
+import edu.parsec.parser.imp.Parser;
+import edu.parsec.parser.imp.ParserRef;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static edu.parsec.parser.ParserAssertions.counting;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TestCompile {
+
+	@Test public void
+	compile_should_fuse_adjacent_maps() {
+		final Parser<Integer> length = ParserBuilder.parseString("abc").map(String::length).map(n -> n * 2);
+		final Parser<Integer> compiled = length.compile();
+		assertTrue(compiled.node() instanceof MapNode);
+		assertTrue(((MapNode) compiled.node()).parser() instanceof LiteralNode);
+		assertEquals(Integer.valueOf(6), compiled.run("abc").get().first);
+	}
+
+	@Test public void
+	compile_should_turn_many_of_a_char_class_into_a_span() {
+		final Parser<IList<Character>> digits = Combinator.many1(ParserBuilder.digitParser());
+		final Parser<IList<Character>> compiled = digits.compile();
+		assertTrue(compiled.node() instanceof CharSpanNode);
+		assertEquals("123", compiled.run("123a").get().first.mkString(""));
+		assertEquals(digits.run("a").getErrorMessage(), compiled.run("a").getErrorMessage());
+	}
+
+	@Test public void
+	compile_should_merge_nested_choices() {
+		final Parser<Character> abc = ParserBuilder.parseChar('a')
+				.or(() -> ParserBuilder.parseChar('b'))
+				.or(() -> ParserBuilder.parseChar('c'));
+		final Parser<Character> compiled = abc.compile();
+		assertTrue(compiled.node() instanceof AltNode);
+		assertEquals(3, compiled.node().children().size());
+		assertEquals(Character.valueOf('c'), compiled.run("c").get().first);
+		assertEquals(abc.run("d").getErrorMessage(), compiled.run("d").getErrorMessage());
+	}
+
+	@Test public void
+	compile_should_inline_the_spaces_between_tokens() {
+		final Parser<Character> a = ParserBuilder.noSpacesParser(ParserBuilder.parseChar('a'));
+		final Parser<Character> b = ParserBuilder.noSpacesParser(ParserBuilder.parseChar('b'));
+		final Parser<Character> ab = a.then(b);
+		final Parser<Character> compiled = ab.compile();
+		assertTrue(compiled.node() instanceof SeqNode);
+		assertEquals(5, compiled.node().children().size());
+		assertTrue(compiled.node().children().get(2) instanceof SkipWhileNode);
+		assertEquals(Character.valueOf('b'), compiled.run(" a  b ").get().first);
+		assertEquals(ab.run(" a c").getErrorMessage(), compiled.run(" a c").getErrorMessage());
+	}
+
+	@Test public void
+	compile_should_keep_recursive_grammars_working() {
+		final ParserRef<Integer> nested = new ParserRef<>();
+		final Parser<Character> open = ParserBuilder.parseChar('(');
+		final Parser<Character> close = ParserBuilder.parseChar(')');
+		nested.set(open.then(Combinator.many(nested)).skip(close).map(l -> 1 + l.foldLeft(0, Math::max)));
+		final Parser<Integer> compiled = nested.compile();
+		assertEquals(Integer.valueOf(3), compiled.run("(()(()))").get().first);
+		final Result<?> failure = compiled.run("(()");
+		assertEquals(nested.run("(()").getErrorMessage(), failure.getErrorMessage());
+	}
+
+	@Test public void
+	compile_should_leave_the_original_parser_untouched() {
+		final Parser<Character> letters = ParserBuilder.satisfy(CharClass.range('a', 'z'));
+		final Parser<IList<Character>> word = Combinator.many(letters);
+		word.compile();
+		assertSame(letters.node(), word.node().children().get(0));
+	}
+
+	@Test public void
+	compile_should_run_a_shared_prefix_once() {
+		final AtomicInteger runs = new AtomicInteger();
+		final Parser<Character> a = ParserBuilder.parseChar('a');
+		final Parser<Character> counted = counting(runs, a);
+		final Parser<Character> b = ParserBuilder.noSpacesParser(ParserBuilder.parseChar('b'));
+		final Parser<Character> c = ParserBuilder.noSpacesParser(ParserBuilder.parseChar('c'));
+		final Parser<Character> choice = counted.then(b).or(() -> counted.then(c));
+		choice.run("ac");
+		assertEquals(2, runs.getAndSet(0));
+		final Parser<Character> compiled = choice.compile();
+		assertEquals(Character.valueOf('c'), compiled.run("a c").get().first);
+		assertEquals(1, runs.getAndSet(0));
+		assertEquals(choice.run("ad").getErrorMessage(), compiled.run("ad").getErrorMessage());
+	}
+
+	@Test public void
+	left_factoring_should_pass_the_shared_values_to_each_alternative() {
+		final Parser<String> digits = Combinator.many1(ParserBuilder.digitParser()).map(l -> l.mkString(""));
+		final Parser<String> fraction = digits.skip(ParserBuilder.parseChar('.')).and(() -> digits)
+				.map(pair -> pair.first + "." + pair.second);
+		final Parser<Double> number = fraction.or(() -> digits).map(Double::parseDouble);
+		final Parser<Double> compiled = number.compile();
+		assertTrue(compiled.node() instanceof MapNode);
+		assertTrue(((MapNode) compiled.node()).parser() instanceof SeqNode);
+		for (final String input : new String[]{"12", "12.5", "12.", "x"}) {
+			assertEquals(number.run(input).toString(), compiled.run(input).toString());
+		}
+	}
+
+	@Test public void
+	merged_choices_should_report_like_the_nested_ones() {
+		final Parser<String> choice = Combinator.skipMany(ParserBuilder.parseChar('q')).map(u -> "q")
+				.or(() -> ParserBuilder.intParser().map(String::valueOf)
+						.or(() -> ParserBuilder.parseChar('a').map(String::valueOf)))
+				.skip(ParserBuilder.parseChar('z'));
+		final Parser<String> compiled = choice.compile();
+		assertEquals(3, compiled.node().children().get(0).children().size());
+		for (final String input : new String[]{"1", "z", "1z", "az", "qz", "b", ""}) {
+			assertEquals(input, choice.run(input).toString(), compiled.run(input).toString());
+		}
+	}
+
+	@Test public void
+	skipped_scans_should_still_be_reported() {
+		final Parser<Integer> choice = Combinator.choice(ParserBuilder.intParser(),
+				Combinator.skipMany(ParserBuilder.satisfy(CharClass.range('a', 'b'))).then(ParserBuilder.intParser()));
+		final Parser<Integer> compiled = choice.compile();
+		for (final String input : new String[]{"c", "ab1", "1", ""}) {
+			assertEquals(input, choice.run(input).toString(), compiled.run(input).toString());
+		}
+	}
+
+	@Test public void
+	left_factoring_should_keep_the_errors_of_empty_rests() {
+		final Parser<Character> x = ParserBuilder.parseChar('x');
+		final Parser<Character> choice = x.then(Combinator.spaces()).map(u -> ' ')
+				.or(() -> x.then(ParserBuilder.parseChar('y')))
+				.skip(ParserBuilder.parseChar('z'));
+		final Parser<Character> compiled = choice.compile();
+		assertTrue(compiled.node() instanceof SeqNode);
+		for (final String input : new String[]{"xq", "xyz", "x z", "xz", "x", "q", ""}) {
+			assertEquals(input, choice.run(input).toString(), compiled.run(input).toString());
+		}
+	}
+}
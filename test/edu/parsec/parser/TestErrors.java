@@ -0,0 +1,75 @@
+package edu.parsec.parser;
+
+import edu.parsec.data.input.Input;
+import edu.parsec.data.pair.Pair;
+import edu.parsec.data.result.ParseError;
+import edu.parsec.data.result.Result;
+import edu.parsec.parser.combinators.Combinator;
+import edu.parsec.parser.combinators.ParserBuilder;
+import edu.parsec.parser.imp.Parser;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestErrors {
+
+	@Test public void
+	failing_char_parser_should_report_offset_expected_and_found() {
+		final Parser<Character> a = ParserBuilder.parseChar('a');
+		final Result<Pair<Character, Input>> result = a.run("b");
+		assertTrue(result.isFailure());
+		final ParseError error = result.getError();
+		assertEquals(0, error.offset);
+		assertEquals('b', error.found);
+		assertTrue(error.expected.contains("'a'"));
+		assertEquals("Expected: 'a', found: 'b' at offset 0", result.getErrorMessage());
+	}
+
+	@Test public void
+	failing_at_end_of_input_should_report_end_of_input() {
+		final Parser<Character> a = ParserBuilder.parseChar('a');
+		final Result<Pair<Character, Input>> result = a.run("");
+		assertEquals(ParseError.END_OF_INPUT, result.getError().found);
+		assertEquals("Expected: 'a', we reached end of input at offset 0", result.getErrorMessage());
+	}
+
+	@Test public void
+	oring_parsers_should_merge_the_expected_items_of_both_branches() {
+		final Parser<Character> aOrB = ParserBuilder.parseChar('a').or(() -> ParserBuilder.parseChar('b'));
+		final Result<Pair<Character, Input>> result = aOrB.run("c");
+		assertEquals(Arrays.asList("'a'", "'b'"), new ArrayList<>(result.getError().expected));
+		assertEquals("Expected: 'a' or 'b', found: 'c' at offset 0", result.getErrorMessage());
+	}
+
+	@Test public void
+	error_should_be_reported_at_the_farthest_offset_reached() {
+		final Parser<Character> ab = ParserBuilder.parseChar('a').then(ParserBuilder.parseChar('b'));
+		final Parser<Character> parser = ab.or(() -> ParserBuilder.parseChar('c'));
+		final Result<Pair<Character, Input>> result = parser.run("ax");
+		assertEquals(1, result.getError().offset);
+		assertEquals("Expected: 'b', found: 'x' at offset 1", result.getErrorMessage());
+	}
+
+	@Test public void
+	error_should_include_what_many_stopped_at() {
+		final Parser<Character> parser = Combinator.many(ParserBuilder.parseChar('a'))
+				.then(ParserBuilder.parseChar('b'));
+		final Result<Pair<Character, Input>> result = parser.run("aac");
+		assertEquals(2, result.getError().offset);
+		assertEquals(Arrays.asList("'a'", "'b'"), new ArrayList<>(result.getError().expected));
+	}
+
+	@Test public void
+	error_of_a_function_parser_should_be_the_error_of_the_run() {
+		final Parser<Character> a = ParserBuilder.parseChar('a');
+		final Parser<Character> wrapped = new Parser<>(input -> a.run(input));
+		final Parser<Character> parser = ParserBuilder.parseChar('x').then(wrapped).skip(ParserBuilder.parseChar(';'));
+		assertEquals("Expected: 'a', found: 'b' at offset 1", parser.run("xb").getErrorMessage());
+		assertEquals(Character.valueOf('a'), parser.run("xa;").get().first);
+		assertEquals(3, parser.run("xa;").get().second.offset());
+	}
+}
@@ -0,0 +1,84 @@
+package edu.parsec.parser;
+
+import edu.parsec.parser.compiler.CompiledNode;
+import edu.parsec.parser.imp.Parser;
+import org.junit.Test;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+public class TestGrammarProcessor {
+
+	/*
+	 * the values are compared by their string form, the JSON values have no
+	 * equals
+	 */
+	private static <T> void assertSameResults(final Parser<T> rule, final Parser<T> generated, final String... inputs) {
+		assertTrue(generated.node() instanceof CompiledNode);
+		ParserAssertions.assertSameResults(rule.map(String::valueOf), generated.map(String::valueOf), inputs);
+	}
+
+	@Test public void
+	generated_json_parser_should_parse_like_the_rules() {
+		assertSameResults(JsonGrammar.JSON, JsonGrammarParser.JSON(),
+				"{\"menu\": {\"id\": \"file\", \"popup\": {\"menuitem\": [{\"value\": \"New\"}, {\"value\": \"Open\"}]}}}",
+				"[1, 2.5, true, null, \"x\"]",
+				"  {\"a\" : [ ] , \"b\": {}}",
+				"{\"a\" 1}", "[1, tru]", "nul", "", "{\"a\": [1, 2}");
+	}
+
+	@Test public void
+	generated_parser_should_handle_recursion_and_memo() {
+		assertSameResults(SumGrammar.SUM, Sums.SUM(), "1+2+(3+4)", " 12+_5", "(1+(2+3))+4", "1+", "(1+2", "+", "");
+		assertEquals(Integer.valueOf(10), Sums.SUM().run("1+2+(3+4)").get().first);
+	}
+
+	@Test public void
+	every_rule_should_get_a_parser() {
+		assertSameResults(JsonGrammar.STR, JsonGrammarParser.STR(), "\"abc\"", " \"a b\" ", "\"abc", "abc");
+		assertSameResults(SumGrammar.WORD, Sums.WORD(), "abc1", "a", "1", "");
+		assertEquals("Expected: letter, found: '1' at offset 0", Sums.WORD().run("1").getErrorMessage());
+	}
+
+	@Test public void
+	unsupported_rule_should_be_a_compile_error() {
+		final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		assumeTrue(compiler != null);
+		final String source = "package sample;\n"
+				+ "import edu.parsec.parser.combinators.ParserBuilder;\n"
+				+ "import edu.parsec.parser.imp.Parser;\n"
+				+ "@edu.parsec.processor.Grammar\n"
+				+ "class Bad {\n"
+				+ "\tstatic final Parser<Character> LETTER = ParserBuilder.parseChar(letter());\n"
+				+ "\tstatic char letter() { return 'a'; }\n"
+				+ "}\n";
+		final JavaFileObject unit = new SimpleJavaFileObject(URI.create("string:///sample/Bad.java"),
+				JavaFileObject.Kind.SOURCE) {
+			@Override
+			public CharSequence getCharContent(final boolean ignoreEncodingErrors) {
+				return source;
+			}
+		};
+		final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+		final Boolean compiled = compiler.getTask(null, null, diagnostics,
+				Arrays.asList("-proc:only", "-classpath", System.getProperty("java.class.path")), null,
+				Collections.singletonList(unit)).call();
+		assertFalse(compiled);
+		final Diagnostic<? extends JavaFileObject> error = diagnostics.getDiagnostics().get(0);
+		assertEquals(Diagnostic.Kind.ERROR, error.getKind());
+		assertEquals("Expected a character literal", error.getMessage(null));
+		assertEquals(6, error.getLineNumber());
+	}
+}
@@ -0,0 +1,47 @@
+package edu.parsec.parser;
+
+import edu.parsec.data.input.Input;
+import edu.parsec.data.pair.Pair;
+import edu.parsec.data.result.Result;
+import edu.parsec.parser.combinators.ParserBuilder;
+import edu.parsec.parser.imp.Parser;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TestLiterals {
+
+	@Test public void
+	string_parser_should_return_the_interned_literal() {
+		final Parser<String> nullParser = ParserBuilder.parseString(new String("null"));
+		final Result<Pair<String, Input>> result = nullParser.run("null,");
+		assertSame("null", result.get().first);
+		assertEquals(4, result.get().second.offset());
+	}
+
+	@Test public void
+	string_parser_should_fail_on_partial_match() {
+		final Parser<String> nullParser = ParserBuilder.parseString("null");
+		final Result<Pair<String, Input>> result = nullParser.run("nul");
+		assertTrue(result.isFailure());
+		assertEquals("Expected: \"null\", found: 'n' at offset 0", result.getErrorMessage());
+	}
+
+	@Test public void
+	one_of_literals_should_parse_any_of_the_literals() {
+		final Parser<String> bool = ParserBuilder.oneOfLiterals("true", "false");
+		assertEquals("true", bool.run("true").get().first);
+		assertEquals("false", bool.run("false").get().first);
+		assertEquals("Expected: \"false\" or \"true\", found: 'x' at offset 0", bool.run("x").getErrorMessage());
+	}
+
+	@Test public void
+	one_of_literals_should_prefer_the_longest_literal() {
+		final Parser<String> keyword = ParserBuilder.oneOfLiterals("in", "int", "interface");
+		final Result<Pair<String, Input>> result = keyword.run("inter");
+		assertEquals("int", result.get().first);
+		assertEquals("er", result.get().second.toString());
+	}
+}
@@ -0,0 +1,44 @@
+package edu.parsec.parser;
+
+import edu.parsec.parser.combinators.ParserBuilder;
+import edu.parsec.parser.imp.Parser;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static edu.parsec.parser.ParserAssertions.counting;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestMemo {
+
+	@Test public void
+	memoized_parser_should_run_once_per_offset() {
+		final AtomicInteger calls = new AtomicInteger();
+		final Parser<Character> a = counting(calls, ParserBuilder.parseChar('a')).memo();
+		final Parser<Character> parser = a.then(ParserBuilder.parseChar('x'))
+				.or(() -> a.then(ParserBuilder.parseChar('y')))
+				.or(() -> a.then(ParserBuilder.parseChar('b')));
+		assertEquals(Character.valueOf('b'), parser.run("ab").get().first);
+		assertEquals(1, calls.get());
+	}
+
+	@Test public void
+	memo_should_not_be_shared_between_runs() {
+		final AtomicInteger calls = new AtomicInteger();
+		final Parser<Character> a = counting(calls, ParserBuilder.parseChar('a')).memo();
+		assertTrue(a.run("a").isSuccess());
+		assertTrue(a.run("b").isFailure());
+		assertEquals(2, calls.get());
+	}
+
+	@Test public void
+	memo_should_evict_least_recently_used_offsets() {
+		final AtomicInteger calls = new AtomicInteger();
+		final Parser<Character> a = counting(calls, ParserBuilder.parseChar('a')).memo(1);
+		final Parser<Character> twice = a.then(a).then(ParserBuilder.parseChar('x'));
+		final Parser<Character> parser = twice.or(() -> a.then(a).then(ParserBuilder.parseChar('b')));
+		assertTrue(parser.run("aab").isSuccess());
+		assertEquals(4, calls.get());
+	}
+}
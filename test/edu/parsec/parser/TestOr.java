@@ -1,6 +1,6 @@
 package edu.parsec.parser;
 
-import edu.parsec.data.list.IList;
+import edu.parsec.data.input.Input;
 import edu.parsec.data.pair.Pair;
 import edu.parsec.data.result.Result;
 import edu.parsec.parser.combinators.ParserBuilder;
@@ -17,8 +17,8 @@ public class TestOr {
 		final Parser<Character> a = ParserBuilder.parseChar('a');
 		final Parser<Character> b = ParserBuilder.parseChar('b');
 		final Parser<Character> aOrB = a.or(() -> b);
-		final Result<Pair<Character, IList<Character>>> resultOne = aOrB.run("ac");
-		final Result<Pair<Character, IList<Character>>> resultTwo = aOrB.run("bc");
+		final Result<Pair<Character, Input>> resultOne = aOrB.run("ac");
+		final Result<Pair<Character, Input>> resultTwo = aOrB.run("bc");
 		assertTrue(resultOne.isSuccess());
 		assertTrue(resultTwo.isSuccess());
 	}
@@ -28,10 +28,11 @@ public class TestOr {
 		final Parser<Character> a = ParserBuilder.parseChar('a');
 		final Parser<Character> b = ParserBuilder.parseChar('b');
 		final Parser<Character> aOrB = a.or(() -> b);
-		final Result<Pair<Character, IList<Character>>> result = aOrB.run("ab");
+		final Result<Pair<Character, Input>> result = aOrB.run("ab");
 		assertTrue(result.isSuccess());
 		assertEquals(Character.valueOf('a'), result.get().first);
-		assertEquals(IList.of("b"), result.get().second);
+		assertEquals("b", result.get().second.toString());
+		assertEquals(1, result.get().second.offset());
 	}
 
 }
@@ -0,0 +1,58 @@
+package edu.parsec.parser;
+
+import edu.parsec.data.unit.Unit;
+import edu.parsec.examples.json.parser.JSONCombinators;
+import edu.parsec.examples.lisp.parser.ExprParserCombinator;
+import edu.parsec.parser.combinators.CharClass;
+import edu.parsec.parser.combinators.Combinator;
+import edu.parsec.parser.combinators.ParserBuilder;
+import edu.parsec.parser.imp.Parser;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestRecognize {
+
+	@Test public void
+	recognize_should_not_call_the_functions_of_the_grammar() {
+		final AtomicInteger calls = new AtomicInteger();
+		final Parser<Integer> number = ParserBuilder.longParser(n -> {
+			calls.incrementAndGet();
+			return (int) n;
+		});
+		final Parser<Integer> sum = Combinator.many1(number.skip(ParserBuilder.parseChar('+')).map(n -> {
+			calls.incrementAndGet();
+			return n;
+		})).map(l -> l.foldLeft(0, Integer::sum));
+		final Parser<Unit> recognizer = sum.recognize();
+		assertEquals(6, recognizer.run("1+2+3+").get().second.offset());
+		assertEquals(6, recognizer.compile().run("1+2+3+").get().second.offset());
+		assertEquals(0, calls.get());
+		assertEquals(sum.run("1+2x").getErrorMessage(), recognizer.run("1+2x").getErrorMessage());
+		assertEquals(Integer.valueOf(6), sum.run("1+2+3+").get().first);
+	}
+
+	@Test public void
+	recognize_should_keep_the_values_flat_map_needs() {
+		final Parser<Character> letter = ParserBuilder.satisfy(CharClass.range('a', 'z'));
+		final Parser<Character> twice = letter.flatMap(ParserBuilder::parseChar);
+		final Parser<Unit> recognizer = Combinator.many(twice).recognize().compile();
+		assertEquals(4, recognizer.run("aabb").get().second.offset());
+		assertEquals(2, recognizer.run("aabc").get().second.offset());
+	}
+
+	@Test public void
+	recognizers_of_the_examples_should_accept_what_the_parsers_accept() {
+		final String json = "{\"a\": [1, 2.5, true, null], \"b\": {\"c\": \"d\"}}";
+		assertEquals(json.length(), JSONCombinators.JsonRecognizer().run(json).get().second.offset());
+		assertTrue(JSONCombinators.JsonRecognizer().run("[1, }").isFailure());
+		assertEquals(JSONCombinators.JsonParser().run("[1, }").getErrorMessage(),
+				JSONCombinators.JsonRecognizer().run("[1, }").getErrorMessage());
+		final String expr = "(+ (- 1 2) (* 4 5))";
+		assertEquals(expr.length(), ExprParserCombinator.exprRecognizer().run(expr).get().second.offset());
+		assertTrue(ExprParserCombinator.exprRecognizer().run("(+ 1").isFailure());
+	}
+}
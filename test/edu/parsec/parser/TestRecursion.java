@@ -0,0 +1,60 @@
+package edu.parsec.parser;
+
+import edu.parsec.data.list.IList;
+import edu.parsec.parser.combinators.Combinator;
+import edu.parsec.parser.combinators.ParserBuilder;
+import edu.parsec.parser.imp.Parser;
+import edu.parsec.parser.imp.ParserRef;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TestRecursion {
+
+	@Test public void
+	parser_ref_should_tie_a_recursive_grammar() {
+		final ParserRef<Integer> nested = new ParserRef<>();
+		final Parser<Character> open = ParserBuilder.parseChar('(');
+		final Parser<Character> close = ParserBuilder.parseChar(')');
+		final Parser<IList<Integer>> children = Combinator.many(nested);
+		nested.set(open.then(children).skip(close).map(l -> 1 + l.foldLeft(0, Math::max)));
+		assertEquals(Integer.valueOf(3), nested.run("(()(()))").get().first);
+		assertTrue(nested.run("(()").isFailure());
+	}
+
+	@Test(expected = IllegalStateException.class) public void
+	parser_ref_should_be_set_only_once() {
+		final ParserRef<Character> ref = new ParserRef<>();
+		ref.set(ParserBuilder.parseChar('a'));
+		ref.set(ParserBuilder.parseChar('b'));
+	}
+
+	@Test public void
+	lazy_parser_should_be_built_once() {
+		final AtomicInteger builds = new AtomicInteger();
+		final Parser<Character> lazy = Parser.lazy(() -> {
+			builds.incrementAndGet();
+			return ParserBuilder.parseChar('a');
+		});
+		assertEquals(0, builds.get());
+		assertTrue(lazy.run("a").isSuccess());
+		assertFalse(lazy.run("b").isSuccess());
+		assertEquals(1, builds.get());
+	}
+
+	@Test public void
+	or_should_build_its_alternative_once() {
+		final AtomicInteger builds = new AtomicInteger();
+		final Parser<Character> aOrB = ParserBuilder.parseChar('a').or(() -> {
+			builds.incrementAndGet();
+			return ParserBuilder.parseChar('b');
+		});
+		aOrB.run("b");
+		aOrB.run("b");
+		assertEquals(1, builds.get());
+	}
+}
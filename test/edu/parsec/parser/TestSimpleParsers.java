@@ -1,13 +1,24 @@
 package edu.parsec.parser;
 
-import edu.parsec.data.list.IList;
+import edu.parsec.data.input.Input;
+import edu.parsec.data.list.CharList;
+import edu.parsec.data.list.DoubleList;
+import edu.parsec.data.list.IntList;
 import edu.parsec.data.pair.Pair;
 import edu.parsec.data.result.Result;
+import edu.parsec.parser.combinators.CharClass;
 import edu.parsec.parser.combinators.Combinator;
 import edu.parsec.parser.combinators.ParserBuilder;
+import edu.parsec.parser.grammar.CharSpanNode;
 import edu.parsec.parser.imp.Parser;
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
@@ -16,7 +27,7 @@ public class TestSimpleParsers {
 	@Test public void
 	digit_parser_should_parse_digits() {
 		final Parser<Character> digitParser = ParserBuilder.digitParser();
-		final Result<Pair<Character, IList<Character>>> result = digitParser.run("1");
+		final Result<Pair<Character, Input>> result = digitParser.run("1");
 		assertTrue(result.isSuccess());
 		assertEquals(Character.valueOf('1'), result.get().first);
 	}
@@ -25,7 +36,7 @@ public class TestSimpleParsers {
 	public void
 	double_parser_should_parse_any_numbers() {
 		final Parser<Double> doubleParser = ParserBuilder.noSpacesParser(ParserBuilder.doubleParser());
-		final Result<Pair<Double, IList<Character>>> result = doubleParser.run("12345");
+		final Result<Pair<Double, Input>> result = doubleParser.run("12345");
 		assertTrue(result.isSuccess());
 		assertEquals(Double.valueOf(12345), result.get().first);
 	}
@@ -33,9 +44,89 @@ public class TestSimpleParsers {
 	@Test public void
 	digit_parser_should_parse_integers() {
 		final Parser<Integer> intP = ParserBuilder.intParser();
-		final Result<Pair<Integer, IList<Character>>> result = intP.run("123");
+		final Result<Pair<Integer, Input>> result = intP.run("123");
 		assertTrue(result.isSuccess());
 		assertEquals(Integer.valueOf(123), result.get().first);
 	}
 
+	@Test public void
+	double_parser_should_round_like_the_jdk() {
+		final Random random = new Random(42);
+		final Parser<Double> doubleParser = ParserBuilder.doubleParser();
+		for (int i = 0; i < 10000; ++i) {
+			final String number = digits(random, 1 + random.nextInt(12)) + "." + digits(random, 1 + random.nextInt(12));
+			assertEquals(number, Double.parseDouble(number), doubleParser.run(number).get().first, 0.0);
+		}
+		final String longNumber = "3.14159265358979323846264338327950288";
+		assertEquals(Double.parseDouble(longNumber), doubleParser.run(longNumber).get().first, 0.0);
+	}
+
+	@Test public void
+	number_parsers_should_give_the_primitive_to_the_function() {
+		final Parser<String> hex = ParserBuilder.longParser(Long::toHexString);
+		assertEquals("ff", hex.run("255").get().first);
+		assertEquals(Long.valueOf(Long.MAX_VALUE), ParserBuilder.longParser().run("9223372036854775807").get().first);
+		final Parser<Long> rounded = ParserBuilder.doubleParser(Math::round);
+		assertEquals(Long.valueOf(3), rounded.run("2.5").get().first);
+	}
+
+	@Test public void
+	number_parsers_should_fail_on_overflow() {
+		assertEquals(Integer.valueOf(Integer.MAX_VALUE), ParserBuilder.intParser().run("2147483647").get().first);
+		assertEquals(Integer.valueOf(7), ParserBuilder.intParser().run("0000000000000000000007").get().first);
+		assertEquals("Expected: a number up to 2147483647, found: '2' at offset 0",
+				ParserBuilder.intParser().run("2147483648").getErrorMessage());
+		assertEquals("Expected: a number up to 9223372036854775807, found: '9' at offset 0",
+				ParserBuilder.longParser().run("9223372036854775808").getErrorMessage());
+		assertEquals("Expected: a number up to 9223372036854775807, found: '1' at offset 0",
+				ParserBuilder.longParser().run("12345678901234567890123").getErrorMessage());
+		assertEquals(Long.valueOf(5), Combinator.choice(ParserBuilder.longParser(),
+				ParserBuilder.parseString("99999999999999999999x").map(s -> 5L)).run("99999999999999999999x").get().first);
+	}
+
+	@Test public void
+	double_parser_should_report_the_missing_fraction() {
+		final Parser<Double> doubleParser = ParserBuilder.doubleParser();
+		final Result<Pair<Double, Input>> result = doubleParser.skip(ParserBuilder.parseChar(';')).run("12.x");
+		assertEquals("Expected: '0'..'9', found: 'x' at offset 3", result.getErrorMessage());
+		assertEquals("Expected: '0'..'9', found: 'x' at offset 0", doubleParser.run("x").getErrorMessage());
+	}
+
+	@Test public void
+	many_should_collect_the_results() {
+		final Parser<Character> letter = ParserBuilder.satisfy(CharClass.range('a', 'z'));
+		final Parser<List<Character>> letters = Combinator.many(letter, Collectors.toList());
+		assertEquals(Arrays.asList('a', 'b', 'c'), letters.run("abc1").get().first);
+		assertArrayEquals("abc".toCharArray(), Combinator.manyChars(letter).run("abc1").get().first);
+		final Parser<Integer> number = ParserBuilder.noSpacesParser(ParserBuilder.intParser());
+		assertArrayEquals(new int[]{1, 22, 333}, Combinator.manyInts(number).run("1 22 333").get().first);
+		assertEquals(0, Combinator.manyInts(number).run("x").get().first.length);
+		assertTrue(Combinator.many1(letter, Collectors.toList()).run("1").isFailure());
+	}
+
+	@Test public void
+	primitive_repetitions_should_not_box_the_results() {
+		final Parser<Character> letter = ParserBuilder.satisfy(CharClass.range('a', 'z'));
+		final Parser<CharList> letters = Combinator.manyChar(letter);
+		assertEquals("abc", letters.run("abc1").get().first.toString());
+		final Parser<CharList> compiled = letters.compile();
+		assertTrue(compiled.node() instanceof CharSpanNode);
+		assertEquals(CharList.of('a', 'b', 'c'), compiled.run("abc1").get().first);
+		assertEquals(3, compiled.run("abc1").get().second.offset());
+		final Parser<Integer> number = ParserBuilder.noSpacesParser(ParserBuilder.intParser());
+		assertEquals(IntList.of(1, 22, 333), Combinator.manyInt(number).run("1 22 333").get().first);
+		assertEquals(356, Combinator.manyInt(number).run("1 22 333").get().first.stream().sum());
+		final Parser<Double> decimal = ParserBuilder.noSpacesParser(ParserBuilder.doubleParser());
+		final DoubleList decimals = Combinator.manyDouble(decimal).compile().run("1.5 2 0.25").get().first;
+		assertArrayEquals(new double[]{1.5, 2, 0.25}, decimals.toArray(), 0.0);
+		assertTrue(Combinator.manyDouble(decimal).run("x").get().first.isEmpty());
+	}
+
+	private static String digits(final Random random, final int count) {
+		final StringBuilder out = new StringBuilder();
+		for (int i = 0; i < count; ++i) {
+			out.append((char) ('0' + random.nextInt(10)));
+		}
+		return out.toString();
+	}
 }
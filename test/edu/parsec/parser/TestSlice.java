@@ -0,0 +1,56 @@
+package edu.parsec.parser;
+
+import edu.parsec.data.input.Input;
+import edu.parsec.data.list.IList;
+import edu.parsec.data.pair.Pair;
+import edu.parsec.data.result.Result;
+import edu.parsec.parser.combinators.CharClass;
+import edu.parsec.parser.combinators.Combinator;
+import edu.parsec.parser.combinators.ParserBuilder;
+import edu.parsec.parser.grammar.SkipWhileNode;
+import edu.parsec.parser.grammar.SliceNode;
+import edu.parsec.parser.imp.Parser;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestSlice {
+
+	@Test public void
+	slice_should_return_the_consumed_input() {
+		final Parser<Character> letter = ParserBuilder.satisfy(CharClass.range('a', 'z'));
+		final Parser<String> word = Combinator.many1(letter).slice();
+		final Result<Pair<String, Input>> result = ParserBuilder.noSpacesParser(word).run("  hello world");
+		assertEquals("hello", result.get().first);
+		assertEquals(8, result.get().second.offset());
+		assertEquals("Expected: 'a'..'z', found: '1' at offset 0", word.run("1").getErrorMessage());
+	}
+
+	@Test public void
+	string_parser_should_handle_long_input() {
+		final char[] chars = new char[1 << 20];
+		Arrays.fill(chars, 'a');
+		final Result<Pair<String, Input>> result = Combinator.stringParser().run(chars);
+		assertEquals(chars.length, result.get().first.length());
+	}
+
+	@Test public void
+	double_parser_should_keep_the_fraction() {
+		assertEquals(0.55, ParserBuilder.doubleParser().run("0.55").get().first, 0.0);
+		assertEquals(12.0, ParserBuilder.doubleParser().run("12.").get().first, 0.0);
+		assertEquals(Integer.valueOf(42), ParserBuilder.intParser().run("42x").get().first);
+	}
+
+	@Test public void
+	compile_should_not_build_the_sliced_values() {
+		final Parser<IList<Character>> letters = Combinator.many(ParserBuilder.satisfy(CharClass.range('a', 'z')));
+		final Parser<String> word = letters.map(l -> l.mkString("")).slice().compile();
+		assertTrue(word.node() instanceof SliceNode);
+		assertTrue(((SliceNode) word.node()).parser() instanceof SkipWhileNode);
+		assertEquals("abc", word.run("abc!").get().first);
+		assertEquals(3, word.run("abc!").get().second.offset());
+	}
+}
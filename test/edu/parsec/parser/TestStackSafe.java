@@ -0,0 +1,74 @@
+package edu.parsec.parser;
+
+import edu.parsec.data.input.Input;
+import edu.parsec.data.list.IList;
+import edu.parsec.data.pair.Pair;
+import edu.parsec.data.result.Result;
+import edu.parsec.examples.json.data.Json;
+import edu.parsec.examples.json.parser.JSONCombinators;
+import edu.parsec.examples.lisp.data.Expr;
+import edu.parsec.examples.lisp.parser.ExprParserCombinator;
+import edu.parsec.parser.combinators.CharClass;
+import edu.parsec.parser.combinators.Combinator;
+import edu.parsec.parser.combinators.ParserBuilder;
+import edu.parsec.parser.imp.Parser;
+import edu.parsec.parser.imp.ParserRef;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestStackSafe {
+
+	private static String nested(final String open, final String middle, final String close, final int depth) {
+		final StringBuilder out = new StringBuilder();
+		for (int i = 0; i < depth; ++i) {
+			out.append(open);
+		}
+		out.append(middle);
+		for (int i = 0; i < depth; ++i) {
+			out.append(close);
+		}
+		return out.toString();
+	}
+
+	@Test public void
+	stack_safe_parser_should_handle_deeply_nested_input() {
+		final ParserRef<Integer> depth = new ParserRef<>();
+		final Parser<Character> open = ParserBuilder.parseChar('(');
+		final Parser<Character> close = ParserBuilder.parseChar(')');
+		depth.set(open.then(depth).skip(close).map(n -> n + 1).or(() -> ParserBuilder.parseChar('x').map(c -> 0)));
+		final String input = nested("(", "x", ")", 100000);
+		final Parser<Integer> parser = depth.stackSafe();
+		assertEquals(Integer.valueOf(100000), parser.run(input).get().first);
+		assertEquals(Integer.valueOf(100000), parser.compile().run(input).get().first);
+	}
+
+	@Test public void
+	stack_safe_parser_should_give_the_same_results() {
+		final Parser<Character> letter = ParserBuilder.satisfy(CharClass.range('a', 'z'));
+		final Parser<String> word = Combinator.many1(letter).slice().memo();
+		final Parser<IList<String>> words = Combinator.many(ParserBuilder.noSpacesParser(word)
+				.flatMap(w -> ParserBuilder.parseChar(';').map(c -> w.toUpperCase())));
+		final Parser<IList<String>> safe = words.stackSafe();
+		assertEquals("AB,CD", safe.run("ab; cd;").get().first.mkString(","));
+		assertEquals(words.run("ab; cd;").get().second.offset(), safe.run("ab; cd;").get().second.offset());
+		assertEquals(words.run("ab; cd!").getErrorMessage(), safe.run("ab; cd!").getErrorMessage());
+		final Parser<Integer> choice = Combinator.choice(ParserBuilder.parseString("ab").map(s -> 1),
+				ParserBuilder.parseString("ac").map(s -> 2), ParserBuilder.intParser());
+		assertEquals(Integer.valueOf(2), choice.stackSafe().run("ac").get().first);
+		assertEquals(choice.run("ax").getErrorMessage(), choice.stackSafe().run("ax").getErrorMessage());
+		assertEquals(choice.run("!").getErrorMessage(), choice.stackSafe().run("!").getErrorMessage());
+	}
+
+	@Test public void
+	stack_safe_examples_should_parse_deep_input() {
+		final String json = nested("[", "1", "]", 50000);
+		final Result<Pair<Json, Input>> parsed = JSONCombinators.JsonStackSafeParser().run(json);
+		assertEquals(json.length(), parsed.get().second.offset());
+		final String expr = nested("(+ 1 ", "2", ")", 20000);
+		final Result<Pair<Expr, Input>> result = ExprParserCombinator.stackSafeExprParser().run(expr);
+		assertTrue(result.isSuccess());
+		assertEquals(expr.length(), result.get().second.offset());
+	}
+}